@@ -0,0 +1,56 @@
+package edu.ahs.robotics.control;
+
+/**
+ * Picks the look ahead distance each loop instead of using a fixed one. A short look ahead tracks tightly but oscillates at
+ * speed, and a long one is smooth but cuts corners, so it grows with measured speed and shrinks when the path ahead curves:
+ * <pre>
+ * lookAhead = (minLookAhead + speed * lookAheadTime) / (1 + lookAheadCurvatureGain * curvature)
+ * </pre>
+ * where curvature is the sharpest point within that distance ahead, plus however far the robot travels while shrinking to it.
+ * The result is clamped between minLookAhead and maxLookAhead and changes by at most lookAheadRate inches per second, so one
+ * noisy speed reading can't jerk the target around. A lookAheadRate of 0 turns the rate limit off.
+ */
+public class AdaptiveLookAhead {
+    private double lookAhead;
+    private long lastTimeMillis;
+    private boolean started = false;
+
+    /**
+     * Starts over, the next update() isn't rate limited.
+     */
+    public void reset() {
+        started = false;
+    }
+
+    /**
+     * @param distanceFromStart Robot's distance along the path
+     * @param speed Measured speed in inches per second
+     * @return Look ahead distance to use this loop, or motionConfig.lookAheadDistance if adaptiveLookAhead is off
+     */
+    public double update(MotionConfig motionConfig, CompiledPath path, double distanceFromStart, double speed, long timeMillis) {
+        if (!motionConfig.adaptiveLookAhead) {
+            return motionConfig.lookAheadDistance;
+        }
+
+        if (motionConfig.lookAheadRate < 0) {
+            throw new IllegalArgumentException("lookAheadRate can't be negative, was " + motionConfig.lookAheadRate);
+        }
+        boolean rateLimited = motionConfig.lookAheadRate > 0;
+
+        double fromSpeed = motionConfig.minLookAhead + Math.abs(speed) * motionConfig.lookAheadTime;
+        //look far enough ahead to have shrunk, at the rate limit, by the time a curve comes within reach
+        double shrinkDistance = !rateLimited ? 0 : Math.abs(speed) * Math.max(0, fromSpeed - motionConfig.minLookAhead) / motionConfig.lookAheadRate;
+        double curvature = path.getMaxCurvature(distanceFromStart, distanceFromStart + fromSpeed + shrinkDistance);
+        double target = fromSpeed / (1 + motionConfig.lookAheadCurvatureGain * curvature);
+        target = Math.max(motionConfig.minLookAhead, Math.min(motionConfig.maxLookAhead, target));
+
+        if (started && rateLimited) {
+            double maxChange = motionConfig.lookAheadRate * Math.max(0, timeMillis - lastTimeMillis) / 1000.0;
+            target = Math.max(lookAhead - maxChange, Math.min(lookAhead + maxChange, target));
+        }
+        lookAhead = target;
+        lastTimeMillis = timeMillis;
+        started = true;
+        return lookAhead;
+    }
+}
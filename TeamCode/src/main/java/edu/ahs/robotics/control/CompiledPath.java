@@ -0,0 +1,409 @@
+package edu.ahs.robotics.control;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.List;
+
+import edu.ahs.robotics.util.ftc.FTCMath;
+
+/**
+ * Immutable, packed form of a path. Points live in parallel arrays instead of one object each, and everything a follower asks for
+ * per loop - power at a distance, the point some distance ahead - is a binary search rather than a walk over the path.
+ * Index 0 is the start point, whose delta and segment length are 0. Every other index i describes the segment from i - 1 to i.
+ * </br>
+ * Every path comes with its mirror across the y axis, the same path for the other alliance. The mirror shares this path's arrays
+ * and negates x as it's read, so flipping to blue costs one object rather than a copy.
+ */
+public final class CompiledPath {
+    private final int size;
+    private final double[] x, y;
+    private final double[] distance; //from start, along the path
+    private final double[] deltaX, deltaY; //from the previous point
+    private final double[] segmentLength; //to the previous point
+    private final double[] curvature; //signed, counterclockwise positive, 0 at the ends
+
+    private final double initialPower;
+    private final double[] powerDistance, power;
+    /**
+     * Largest powerDistance up to and including each index. Breakpoints are checked to be increasing, but the final power sits at
+     * the path's length, which can be shorter than the last breakpoint. A power lookup stops at the first breakpoint past the robot,
+     * and that is the first index where this running max passes it, so this is what gets searched.
+     */
+    private final double[] powerReach;
+
+    private final double sign; //-1 in a mirrored view, applied to x, deltaX and curvature as they're read
+    private final CompiledPath mirror;
+
+    private CompiledPath(int size, double[] x, double[] y, double[] distance, double[] deltaX, double[] deltaY, double[] segmentLength,
+                         double initialPower, double[] powerDistance, double[] power) {
+        this.size = size;
+        this.x = x;
+        this.y = y;
+        this.distance = distance;
+        this.deltaX = deltaX;
+        this.deltaY = deltaY;
+        this.segmentLength = segmentLength;
+        this.curvature = computeCurvature(size, x, y, segmentLength);
+        this.initialPower = initialPower;
+        this.powerDistance = powerDistance;
+        this.power = power;
+
+        powerReach = new double[powerDistance.length];
+        double reach = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < powerDistance.length; i++) {
+            reach = Math.max(reach, powerDistance[i]);
+            powerReach[i] = reach;
+        }
+
+        sign = 1;
+        mirror = new CompiledPath(this);
+    }
+
+    /**
+     * Mirrored view of original, sharing all of its arrays.
+     */
+    private CompiledPath(CompiledPath original) {
+        size = original.size;
+        x = original.x;
+        y = original.y;
+        distance = original.distance;
+        deltaX = original.deltaX;
+        deltaY = original.deltaY;
+        segmentLength = original.segmentLength;
+        curvature = original.curvature;
+        initialPower = original.initialPower;
+        powerDistance = original.powerDistance;
+        power = original.power;
+        powerReach = original.powerReach;
+        sign = -original.sign;
+        mirror = original;
+    }
+
+    /**
+     * Compiles points and a power profile. Repeated points are dropped.
+     * @param powers Pairs of {distance along path, power}, in increasing order of distance. The final power is added at the end of the path.
+     * @throws IllegalArgumentException if a power pair isn't two long or the distances decrease
+     */
+    public static CompiledPath compile(List<Point> points, double initialPower, double finalPower, double[][] powers) {
+        int count = points.size();
+        double[] pointX = new double[count], pointY = new double[count];
+        for (int i = 0; i < count; i++) {
+            Point point = points.get(i);
+            pointX[i] = point.x;
+            pointY[i] = point.y;
+        }
+        return compile(pointX, pointY, count, initialPower, finalPower, powers);
+    }
+
+    /**
+     * Compiles the first count points of parallel x and y arrays, see compile(List, double, double, double[][])
+     */
+    public static CompiledPath compile(double[] pointX, double[] pointY, int count, double initialPower, double finalPower, double[][] powers) {
+        double[] x = new double[count], y = new double[count], distance = new double[count];
+        double[] deltaX = new double[count], deltaY = new double[count], segmentLength = new double[count];
+
+        x[0] = pointX[0];
+        y[0] = pointY[0];
+        int size = 1;
+        double totalDistance = 0;
+        for (int i = 1; i < count; i++) {
+            double currentX = pointX[i], currentY = pointY[i];
+            double previousX = pointX[i - 1], previousY = pointY[i - 1];
+
+            if (currentX == previousX && currentY == previousY) {
+                continue;
+            }
+
+            double dx = currentX - previousX, dy = currentY - previousY;
+            double distanceFromPrevious = Math.sqrt(dx * dx + dy * dy);
+            totalDistance += distanceFromPrevious;
+
+            x[size] = currentX;
+            y[size] = currentY;
+            distance[size] = totalDistance;
+            deltaX[size] = dx;
+            deltaY[size] = dy;
+            segmentLength[size] = distanceFromPrevious;
+            size++;
+        }
+
+        double[] powerDistance = new double[powers.length + 1];
+        double[] power = new double[powers.length + 1];
+        for (int i = 0; i < powers.length; i++) {
+            if (powers[i].length != 2) {
+                throw new IllegalArgumentException("Length of powers array was not equal to 2");
+            }
+            powerDistance[i] = powers[i][0];
+            power[i] = powers[i][1];
+        }
+        powerDistance[powers.length] = totalDistance;
+        power[powers.length] = finalPower;
+
+        //Check that the distances go in increasing order
+        for (int i = 1; i < powers.length; i++) {
+            if (powerDistance[i] < powerDistance[i - 1]) {
+                throw new IllegalArgumentException("Powers supplied to path must be in increasing order. Previous was " + powerDistance[i - 1] + " Current is " + powerDistance[i]);
+            }
+        }
+
+        return new CompiledPath(size, x, y, distance, deltaX, deltaY, segmentLength, initialPower, powerDistance, power);
+    }
+
+    /**
+     * Menger curvature at each point, 1 over the radius of the circle through it and its two neighbors. Where the path turns back
+     * by more than 90 degrees the circle stops meaning much, and a full reversal has none at all, so those points get the sharpest
+     * turn that fits, a circle whose diameter is the shorter of the two segments.
+     */
+    private static double[] computeCurvature(int size, double[] x, double[] y, double[] segmentLength) {
+        double[] curvature = new double[size];
+        for (int i = 1; i < size - 1; i++) {
+            double ax = x[i] - x[i - 1], ay = y[i] - y[i - 1];
+            double bx = x[i + 1] - x[i], by = y[i + 1] - y[i];
+            double cross = ax * by - ay * bx;
+            double shorter = Math.min(segmentLength[i], segmentLength[i + 1]);
+            if (shorter == 0) {
+                continue;
+            }
+            if (ax * bx + ay * by < 0) {
+                curvature[i] = (cross < 0 ? -2 : 2) / shorter;
+            } else {
+                double chord = Math.hypot(x[i + 1] - x[i - 1], y[i + 1] - y[i - 1]);
+                curvature[i] = 2 * cross / (segmentLength[i] * segmentLength[i + 1] * chord);
+            }
+        }
+        return curvature;
+    }
+
+    /**
+     * Bytes writeTo() will use.
+     */
+    int byteSize() {
+        return 2 * 4 + 8 + (6 * size + 2 * power.length) * 8;
+    }
+
+    /**
+     * Writes this path at the buffer's position, in the buffer's byte order: size and power count as ints, the initial power,
+     * then x, y, distance, deltaX, deltaY and segmentLength for each point, then the power breakpoints and powers.
+     */
+    void writeTo(ByteBuffer buffer) {
+        buffer.putInt(size);
+        buffer.putInt(power.length);
+        buffer.putDouble(initialPower);
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        putSigned(doubles, x);
+        doubles.put(y, 0, size).put(distance, 0, size);
+        putSigned(doubles, deltaX);
+        doubles.put(deltaY, 0, size).put(segmentLength, 0, size);
+        doubles.put(powerDistance).put(power);
+        buffer.position(buffer.position() + doubles.position() * 8);
+    }
+
+    /**
+     * Puts the first size values, negated in a mirrored view, so a mirror is written as a plain path.
+     */
+    private void putSigned(DoubleBuffer doubles, double[] values) {
+        if (isMirrored()) {
+            for (int i = 0; i < size; i++) {
+                doubles.put(-values[i]);
+            }
+        } else {
+            doubles.put(values, 0, size);
+        }
+    }
+
+    /**
+     * Reads a path written by writeTo(), leaving the buffer just past it. Nothing is recomputed but curvature.
+     * @throws IllegalArgumentException if the counts don't fit in what's left of the buffer
+     */
+    static CompiledPath readFrom(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        int powerCount = buffer.getInt();
+        double initialPower = buffer.getDouble();
+        if (size < 1 || powerCount < 1 || (6L * size + 2L * powerCount) * 8 > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupt compiled path, " + size + " points and " + powerCount + " powers with "
+                    + buffer.remaining() + " bytes left");
+        }
+
+        double[] x = new double[size], y = new double[size], distance = new double[size];
+        double[] deltaX = new double[size], deltaY = new double[size], segmentLength = new double[size];
+        double[] powerDistance = new double[powerCount], power = new double[powerCount];
+        DoubleBuffer doubles = buffer.asDoubleBuffer();
+        doubles.get(x).get(y).get(distance).get(deltaX).get(deltaY).get(segmentLength);
+        doubles.get(powerDistance).get(power);
+        buffer.position(buffer.position() + doubles.position() * 8);
+
+        return new CompiledPath(size, x, y, distance, deltaX, deltaY, segmentLength, initialPower, powerDistance, power);
+    }
+
+    /**
+     * This path mirrored across the y axis, red to blue or blue to red. Always the same object, and its mirror is this path.
+     * Headings along it are mirrored by mirrorHeading().
+     */
+    public CompiledPath mirrored() {
+        return mirror;
+    }
+
+    public boolean isMirrored() {
+        return sign < 0;
+    }
+
+    /**
+     * Heading on the other alliance's side of the field, reflected across the y axis.
+     * @param heading Radians, counterclockwise from the x axis
+     */
+    public static double mirrorHeading(double heading) {
+        return FTCMath.ensureIdealAngle(Math.PI - heading);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int i) {
+        return sign * x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public double getDistance(int i) {
+        return distance[i];
+    }
+
+    public double getDeltaX(int i) {
+        return sign * deltaX[i];
+    }
+
+    public double getDeltaY(int i) {
+        return deltaY[i];
+    }
+
+    public double getSegmentLength(int i) {
+        return segmentLength[i];
+    }
+
+    /**
+     * Mirroring turns left bends into right ones, so a mirrored view flips the sign.
+     */
+    public double getCurvature(int i) {
+        return sign * curvature[i];
+    }
+
+    /**
+     * Largest curvature, either direction, of any point between two distances along the path.
+     */
+    public double getMaxCurvature(double fromDistance, double toDistance) {
+        double max = 0;
+        for (int i = findPointAtOrAfter(fromDistance, 0); i < size && distance[i] <= toDistance; i++) {
+            max = Math.max(max, Math.abs(curvature[i]));
+        }
+        return max;
+    }
+
+    /**
+     * Fastest speed at each point that keeps lateral acceleration, v^2 * curvature, under a limit, lowered so the robot can slow down
+     * to every later limit in time. The last point is a limit of its own, so slowing to a stop isn't included here.
+     * @param maxSpeed Speed on straights
+     * @param maxDeceleration Inches per second squared, or 0 to skip the backward pass
+     */
+    public double[] getSpeedLimits(double maxSpeed, double maxLateralAcceleration, double maxDeceleration) {
+        double[] limits = new double[size];
+        for (int i = 0; i < size; i++) {
+            double bend = Math.abs(curvature[i]);
+            limits[i] = bend == 0 ? maxSpeed : Math.min(maxSpeed, Math.sqrt(maxLateralAcceleration / bend));
+        }
+        if (maxDeceleration > 0) {
+            for (int i = size - 2; i >= 0; i--) {
+                limits[i] = Math.min(limits[i], Math.sqrt(limits[i + 1] * limits[i + 1] + 2 * maxDeceleration * segmentLength[i + 1]));
+            }
+        }
+        return limits;
+    }
+
+    public double getTotalDistance() {
+        return distance[size - 1];
+    }
+
+    public double getInitialPower() {
+        return initialPower;
+    }
+
+    /**
+     * Power at a distance along the path, interpolated between the two breakpoints around it. Before the first breakpoint this is the initial power.
+     */
+    public double getPower(double distanceFromStart) {
+        //first breakpoint past distanceFromStart
+        int low = 0, high = powerReach.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (powerReach[middle] > distanceFromStart) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        int i = low - 1;
+        if (i < 0) {
+            return initialPower;
+        }
+
+        double currentPower = power[i];
+        double nextPower, nextDistance;
+        if (i == power.length - 1) { //at end
+            nextPower = power[i];
+            nextDistance = powerDistance[i];
+        } else {
+            nextPower = power[i + 1];
+            nextDistance = powerDistance[i + 1];
+        }
+        double distanceDifference = nextDistance - powerDistance[i];
+        double distanceRatio = distanceDifference == 0 ? 0 : (distanceFromStart - powerDistance[i]) / distanceDifference;
+
+        return currentPower + (nextPower - currentPower) * distanceRatio;
+    }
+
+    /**
+     * Finds the first point at or past a distance along the path. Gallops out from 'from' before binary searching, so lookups
+     * a short way ahead, like a look ahead point, only cost the log of how far ahead they are.
+     * @param from Lowest index to consider
+     * @return Index of the first point from 'from' on whose distance is at least distanceFromStart, or the last index if there is none
+     */
+    public int findPointAtOrAfter(double distanceFromStart, int from) {
+        int low = from, high = from, step = 1;
+        while (high < size - 1 && distance[high] < distanceFromStart) {
+            low = high + 1;
+            high = Math.min(size - 1, high + step);
+            step <<= 1;
+        }
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (distance[middle] >= distanceFromStart) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Component, along the segment ending at i, of the vector from (px, py) to point i. Non normalized, positive while the point is still ahead.
+     */
+    public double componentAlongPath(int i, double px, double py) {
+        return (getX(i) - px) * getDeltaX(i) + (y[i] - py) * deltaY[i];
+    }
+
+    /**
+     * Squared distance from (px, py) to the segment ending at i, clamped to the segment's ends.
+     */
+    public double squaredDistanceToSegment(int i, double px, double py) {
+        double segmentX = sign * deltaX[i];
+        double startX = sign * x[i] - segmentX, startY = y[i] - deltaY[i];
+        double t = ((px - startX) * segmentX + (py - startY) * deltaY[i]) / (segmentX * segmentX + deltaY[i] * deltaY[i]);
+        t = Math.max(0, Math.min(1, t));
+        double dx = startX + t * segmentX - px;
+        double dy = startY + t * deltaY[i] - py;
+        return dx * dx + dy * dy;
+    }
+}
@@ -11,20 +11,57 @@ import edu.ahs.robotics.hardware.sensors.OdometrySystem;
  * Class that contains info for followPath methods. Defaults are hard-coded in, so many things won't have to be changed.
  */
 public class MotionConfig {
+    public FollowerMode followerMode = FollowerMode.POINT;
     public double lookAheadDistance = 12.0;
+
+    //adaptive look ahead, see AdaptiveLookAhead. lookAheadDistance is used as is while this is off
+    public boolean adaptiveLookAhead = false;
+    public double minLookAhead = 4.0;
+    public double maxLookAhead = 18.0;
+    public double lookAheadTime = .2; //seconds of travel at the measured speed added to minLookAhead
+    public double lookAheadCurvatureGain = 12.0; //inches, look ahead is divided by 1 + gain * curvature ahead
+    public double lookAheadRate = 24.0; //most look ahead can change, inches per second, 0 for no limit
     public double idealHeading = 0.0;
     public double turnPower = 1.0;
     public double turnAggression = .8;
     public double turnCutoff = 8;
 
+    //pure pursuit, see FollowerMode.PURE_PURSUIT
+    public double maxTurnRate = 4.0; //radians per second at full turn power, turns curvature into turn power
+    public double purePursuitLead = .1; //seconds along the arc the drive direction leads by, covers drive lag
+
     public long timeOut =  10000L;//in milliseconds
 
+    //feedforward for motion profiled paths, power = kV * velocity + kA * acceleration + kStatic
+    public double kV = 1 / 48.0;
+    public double kA = 0.0;
+    public double kStatic = 0.0;
+    public double kDistance = .05; //power per inch the robot is behind the profile, which also finishes the path once the profile ends
+
     private ArrayList<OBMCommand> obmCommands = new ArrayList<>();
 
     public void addOBMCommand(OBMCommand obmCommand){
         obmCommands.add(obmCommand);
     }
 
+    /**
+     * Motor power for a target velocity and acceleration from a MotionProfile. kStatic only applies while moving.
+     */
+    public double getFeedforwardPower(double velocity, double acceleration) {
+        if (velocity == 0 && acceleration == 0) {
+            return 0;
+        }
+        return Math.max(-1, Math.min(1, kV * velocity + kA * acceleration + kStatic));
+    }
+
+    /**
+     * Power for a profiled path, the feedforward plus kDistance for each inch the robot is behind where the profile has it.
+     * Never negative, since followPath drives toward a point ahead and can't back up.
+     */
+    public double getProfiledPower(double velocity, double acceleration, double distanceBehind) {
+        return Math.max(0, Math.min(1, getFeedforwardPower(velocity, acceleration) + kDistance * distanceBehind));
+    }
+
     /**
      * Checks all OBMCommands on MotionConfig
      * @return to break the loop or not. If any OBMCommand returns true, this method returns true as well.
@@ -40,4 +77,28 @@ public class MotionConfig {
 
         return finished;
     }
+
+    /**
+     * Finishes all OBMCommands on MotionConfig, see OBMCommand.finish()
+     */
+    public void finishOBMCommands(){
+        for (OBMCommand obmCommand : obmCommands) {
+            obmCommand.finish();
+        }
+    }
+
+    /**
+     * How followPath drives toward its look ahead point
+     */
+    public enum FollowerMode {
+        /**
+         * Translate straight at the look ahead point and turn so it sits at idealHeading
+         */
+        POINT,
+        /**
+         * Drive the arc to a look ahead point where a circle around the robot crosses the path, turning along the arc so
+         * travel stays at idealHeading. See Path.intersectLookAhead()
+         */
+        PURE_PURSUIT
+    }
 }
@@ -0,0 +1,281 @@
+package edu.ahs.robotics.control;
+
+/**
+ * Target velocity and acceleration along a path, by distance or by time, computed once when the path is built.
+ * The path's length is sampled every step inches. A forward pass speeds up as fast as maxAcceleration allows, a backward pass
+ * makes sure every point can still slow down in time for the ones after it, and the slower of the two wins. With no jerk limit
+ * that is a trapezoid. With one, acceleration itself ramps, which rounds off the corners into an S curve.
+ * Within a step acceleration is constant, so lookups between samples are exact for the profile as sampled.
+ */
+public final class MotionProfile {
+    public static final double DEFAULT_STEP = .25; //inches
+
+    private final int size;
+    private final double step;
+    private final double[] velocity; //at each sample
+    private final double[] acceleration; //over the step from each sample to the next
+    private final double[] time; //to reach each sample
+
+    private MotionProfile(int size, double step, double[] velocity, double[] acceleration, double[] time) {
+        this.size = size;
+        this.step = step;
+        this.velocity = velocity;
+        this.acceleration = acceleration;
+        this.time = time;
+    }
+
+    public static MotionProfile generate(double length, Constraints constraints) {
+        return generate(length, DEFAULT_STEP, constraints);
+    }
+
+    public static MotionProfile generate(double length, double step, Constraints constraints) {
+        int size = sampleCount(length, step);
+        double[] caps = new double[size];
+        for (int i = 0; i < size; i++) {
+            caps[i] = constraints.maxVelocity;
+        }
+        return generate(length, caps, constraints);
+    }
+
+    /**
+     * A profile for a path that also slows for corners, if constraints has a maxLateralAcceleration. Each sample is capped by the
+     * tighter of the two path points around it, and the backward pass makes sure the robot is already slow when it gets there.
+     */
+    public static MotionProfile generate(CompiledPath path, Constraints constraints) {
+        double length = path.getTotalDistance();
+        int size = sampleCount(length, DEFAULT_STEP);
+        double[] caps = new double[size];
+        if (constraints.maxLateralAcceleration <= 0) {
+            for (int i = 0; i < size; i++) {
+                caps[i] = constraints.maxVelocity;
+            }
+            return generate(length, caps, constraints);
+        }
+
+        double[] limits = path.getSpeedLimits(constraints.maxVelocity, constraints.maxLateralAcceleration, 0);
+        double step = size == 1 ? 0 : length / (size - 1);
+        int point = 0;
+        for (int i = 0; i < size; i++) {
+            point = path.findPointAtOrAfter(i * step, point);
+            caps[i] = point == 0 ? limits[0] : Math.min(limits[point - 1], limits[point]);
+        }
+        return generate(length, caps, constraints);
+    }
+
+    /**
+     * @param caps Highest velocity allowed at each sample, size from sampleCount(). Overwritten.
+     */
+    static MotionProfile generate(double length, double[] caps, Constraints constraints) {
+        int size = caps.length;
+        if (size == 1) {
+            return new MotionProfile(1, 0, new double[]{0}, new double[]{0}, new double[]{0});
+        }
+        double step = length / (size - 1);
+
+        caps[0] = Math.min(caps[0], constraints.startVelocity);
+        caps[size - 1] = Math.min(caps[size - 1], constraints.endVelocity);
+
+        //forward limits speeding up, then the same pass run back from the end limits slowing down
+        double[] velocity = new double[size];
+        limitAcceleration(caps, step, constraints, velocity, 0, 1);
+        System.arraycopy(velocity, 0, caps, 0, size);
+        limitAcceleration(caps, step, constraints, velocity, size - 1, -1);
+
+        double[] acceleration = new double[size];
+        double[] time = new double[size];
+        for (int i = 0; i < size - 1; i++) {
+            acceleration[i] = (velocity[i + 1] * velocity[i + 1] - velocity[i] * velocity[i]) / (2 * step);
+            time[i + 1] = time[i] + 2 * step / (velocity[i] + velocity[i + 1]);
+        }
+        return new MotionProfile(size, step, velocity, acceleration, time);
+    }
+
+    /**
+     * Number of samples generate() uses for a path, at least 3 so a profile that starts and ends stopped still gets moving.
+     */
+    static int sampleCount(double length, double step) {
+        if (length <= 0) {
+            return 1;
+        }
+        return Math.max(3, (int) Math.ceil(length / step) + 1);
+    }
+
+    /**
+     * One pass from 'first' in direction 'direction', filling velocity with the fastest profile under caps that speeds up no
+     * faster than the constraints allow. Run backwards, speeding up toward the start is slowing down toward the end.
+     */
+    private static void limitAcceleration(double[] caps, double step, Constraints constraints, double[] velocity, int first, int direction) {
+        double maxAcceleration = constraints.maxAcceleration;
+        double maxJerk = constraints.maxJerk;
+
+        double v = caps[first];
+        double a = 0;
+        velocity[first] = v;
+        for (int i = first + direction; i >= 0 && i < caps.length; i += direction) {
+            double cap = caps[i];
+            double accel = maxAcceleration;
+            if (maxJerk > 0) {
+                //acceleration can only grow so fast, and has to be able to ramp back to 0 before reaching the cap
+                accel = Math.min(accel, a + maxJerk * stepTime(v, a, step, maxJerk));
+                accel = Math.min(accel, Math.sqrt(2 * maxJerk * Math.max(0, cap - v)));
+            }
+            double next = Math.min(cap, Math.sqrt(v * v + 2 * accel * step));
+
+            a = Math.max(0, (next * next - v * v) / (2 * step));
+            v = next;
+            velocity[i] = v;
+        }
+    }
+
+    /**
+     * Longest one step could take starting at velocity v and acceleration a, both at least 0.
+     */
+    private static double stepTime(double v, double a, double step, double maxJerk) {
+        double fromRest = Math.cbrt(6 * step / maxJerk);
+        double moving = v + Math.sqrt(v * v + 2 * a * step);
+        return moving == 0 ? fromRest : Math.min(fromRest, 2 * step / moving);
+    }
+
+    public double getLength() {
+        return step * (size - 1);
+    }
+
+    public double getTotalTime() {
+        return time[size - 1];
+    }
+
+    /**
+     * Target velocity in inches per second at a distance along the path, clamped to the path.
+     */
+    public double getVelocity(double distance) {
+        if (size == 1) {
+            return velocity[0];
+        }
+        int i = sampleBefore(distance);
+        double fraction = Math.min(1, Math.max(0, distance / step - i));
+        double squared = velocity[i] * velocity[i] + 2 * acceleration[i] * step * fraction;
+        return Math.sqrt(Math.max(0, squared));
+    }
+
+    /**
+     * Target acceleration in inches per second squared at a distance along the path. 0 past either end.
+     */
+    public double getAcceleration(double distance) {
+        if (distance < 0 || distance >= getLength()) {
+            return 0;
+        }
+        return acceleration[sampleBefore(distance)];
+    }
+
+    /**
+     * Where the robot should be a time in seconds after starting the profile.
+     */
+    public double getDistanceAtTime(double t) {
+        int i = sampleBeforeTime(t);
+        double dt = Math.max(0, Math.min(t, getTotalTime()) - time[i]);
+        return Math.min(getLength(), i * step + velocity[i] * dt + acceleration[i] * dt * dt / 2);
+    }
+
+    /**
+     * Time in seconds after starting the profile that it reaches a distance along the path, clamped to the path.
+     */
+    public double getTimeAtDistance(double distance) {
+        if (size == 1 || distance <= 0) {
+            return 0;
+        }
+        if (distance >= getLength()) {
+            return getTotalTime();
+        }
+        int i = sampleBefore(distance);
+        double s = distance - i * step;
+        double reached = Math.sqrt(Math.max(0, velocity[i] * velocity[i] + 2 * acceleration[i] * s));
+        return velocity[i] + reached == 0 ? time[i] : time[i] + 2 * s / (velocity[i] + reached);
+    }
+
+    public double getVelocityAtTime(double t) {
+        int i = sampleBeforeTime(t);
+        double dt = Math.max(0, Math.min(t, getTotalTime()) - time[i]);
+        return Math.max(0, velocity[i] + acceleration[i] * dt);
+    }
+
+    public double getAccelerationAtTime(double t) {
+        if (t < 0 || t >= getTotalTime()) {
+            return 0;
+        }
+        return acceleration[sampleBeforeTime(t)];
+    }
+
+    private int sampleBefore(double distance) {
+        if (size == 1) {
+            return 0;
+        }
+        int i = (int) Math.floor(distance / step);
+        return Math.max(0, Math.min(size - 2, i));
+    }
+
+    /**
+     * Last sample reached at or before t, never the final sample so there is always a step after it.
+     */
+    private int sampleBeforeTime(double t) {
+        int low = 0, high = Math.max(0, size - 2);
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (time[middle] <= t) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Physical limits for a profile, in inches and seconds.
+     */
+    public static class Constraints {
+        public final double maxVelocity;
+        public final double maxAcceleration;
+        /**
+         * 0 for no jerk limit, a trapezoidal profile.
+         */
+        public final double maxJerk;
+        public double startVelocity = 0;
+        public double endVelocity = 0;
+        /**
+         * Sideways acceleration allowed in turns, v^2 * curvature. 0 to drive corners at maxVelocity.
+         */
+        public double maxLateralAcceleration = 0;
+
+        public Constraints(double maxVelocity, double maxAcceleration) {
+            this(maxVelocity, maxAcceleration, 0);
+        }
+
+        /**
+         * @throws IllegalArgumentException if velocity or acceleration aren't positive, or jerk is negative
+         */
+        public Constraints(double maxVelocity, double maxAcceleration, double maxJerk) {
+            if (maxVelocity <= 0 || maxAcceleration <= 0 || maxJerk < 0) {
+                throw new IllegalArgumentException("Motion constraints must be positive, were velocity " + maxVelocity
+                        + " acceleration " + maxAcceleration + " jerk " + maxJerk);
+            }
+            this.maxVelocity = maxVelocity;
+            this.maxAcceleration = maxAcceleration;
+            this.maxJerk = maxJerk;
+        }
+
+        public Constraints setStartVelocity(double startVelocity) {
+            this.startVelocity = startVelocity;
+            return this;
+        }
+
+        public Constraints setEndVelocity(double endVelocity) {
+            this.endVelocity = endVelocity;
+            return this;
+        }
+
+        public Constraints setMaxLateralAcceleration(double maxLateralAcceleration) {
+            this.maxLateralAcceleration = maxLateralAcceleration;
+            return this;
+        }
+    }
+}
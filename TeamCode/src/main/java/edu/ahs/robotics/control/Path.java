@@ -1,77 +1,141 @@
 package edu.ahs.robotics.control;
 
-import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A path for followPath, with the state of how far along it the robot is. The geometry and power profile are held in a CompiledPath.
+ */
 public class Path {
     static final double LOOK_AHEAD_DISTANCE = 6.0; /*Package visible for testing*/
-    private final ArrayList<PointAtDistance> pointAtDistance;
-    private final double[][] powers;
-    private double totalDistance = 0;
+    private static final double MAX_INTERSECTION_SEARCH = 3; //look ahead distances along the path, see intersectLookAhead()
+    private final CompiledPath compiled;
+    private MotionProfile profile; //null when driven by the power table
+    private MotionProfile.Constraints constraints; //what profile was built with, null when driven by the power table
+    private double[] powerLimits; //per point, null unless limitCornerSpeed() is called
+    private PathSimplifier.Result simplification; //null unless built by simplified()
 
     private int iCurrentBound = 0;
-    private double initialPower;
 
+    //off path recovery, off unless enableRecovery() is called
+    private SegmentIndex segmentIndex;
+    private double offPathDistance;
+    private double relockMargin;
+    private int relockTicks;
+    private int iRelockCandidate = -1;
+    private int relockCount = 0;
+
+    /**
+     * @param flipToBlue Follow the path mirrored across the y axis. The points themselves are left alone, see CompiledPath.mirrored()
+     */
     public Path(List<Point> points, boolean flipToBlue, double initialPower, double finalPower, double[][] powers) {
-        int finalPowerIndex = powers.length;
-        this.powers = new double[finalPowerIndex + 1][2];
-        this.initialPower = initialPower;
-
-        if (flipToBlue) {
-            for (int i = 0; i < points.size(); i++) {
-                Point current = points.get(i);
-                current.x = -1.0 * current.x;
-            }
-        }
+        CompiledPath red = CompiledPath.compile(points, initialPower, finalPower, powers);
+        compiled = flipToBlue ? red.mirrored() : red;
+    }
 
-        pointAtDistance = new ArrayList<>();
-        pointAtDistance.add(new PointAtDistance(points.get(0), 0, 0, 0, 0));
+    /**
+     * A path that was already compiled, such as one loaded from a PathFile or a template from PathTemplates.
+     * Compiled paths are immutable, so any number of Paths can share one.
+     */
+    public Path(CompiledPath compiled) {
+        this.compiled = compiled;
+    }
 
-        for (int i = 1; i < points.size(); i++) {
-            Point current = points.get(i);
-            Point previous = points.get(i - 1);
+    public Path(CompiledPath compiled, MotionProfile.Constraints constraints) {
+        this(compiled);
+        this.constraints = constraints;
+        profile = MotionProfile.generate(compiled, constraints);
+    }
 
-            if (current.x == previous.x && current.y == previous.y) {
-                continue;
-            }
+    /**
+     * A power table path with points within simplifyTolerance inches of the path dropped first, see PathSimplifier.
+     * How many were dropped is in getSimplification().
+     */
+    public static Path simplified(List<Point> points, boolean flipToBlue, double simplifyTolerance, double initialPower, double finalPower, double[][] powers) {
+        PathSimplifier.Result result = PathSimplifier.simplify(points, simplifyTolerance);
+        Path path = new Path(result.points.toPoints(), flipToBlue, initialPower, finalPower, powers);
+        path.simplification = result;
+        return path;
+    }
 
-            double distanceFromPrevious = current.distanceTo(previous);
-            totalDistance += distanceFromPrevious;
+    /**
+     * A path driven by a motion profile instead of a power table. Locations carry a target velocity and acceleration,
+     * which followPath turns into power with the feedforward gains in MotionConfig.
+     */
+    public Path(List<Point> points, boolean flipToBlue, MotionProfile.Constraints constraints) {
+        this(points, flipToBlue, 0, 0, new double[0][]);
+        this.constraints = constraints;
+        profile = MotionProfile.generate(compiled, constraints);
+    }
 
-            pointAtDistance.add(new PointAtDistance(current, totalDistance, current.x - previous.x, current.y - previous.y, distanceFromPrevious));
-        }
+    public CompiledPath getCompiledPath() {
+        return compiled;
+    }
 
-        //Add final power to the end of the powers array
-        for (int i = 0; i < powers.length; i++) {
-            if (powers[i].length != 2) {
-                throw new IllegalArgumentException("Length of powers array was not equal to 2");
-            }
-            this.powers[i] = powers[i];
+    /**
+     * @return What simplification removed, or null if this path wasn't simplified
+     */
+    public PathSimplifier.Result getSimplification() {
+        return simplification;
+    }
+
+    /**
+     * @return The profile, or null if this path uses a power table
+     */
+    public MotionProfile getMotionProfile() {
+        return profile;
+    }
+
+    /**
+     * Lets the follower find its place again after being knocked off the path or backing up, which the forward only search can't.
+     * Once the robot is more than offPathDistance from its current segment, the nearest segment anywhere on the path is looked up in a
+     * SegmentIndex. The follower only moves there if that segment is at least relockMargin closer, and stays the nearest for relockTicks
+     * checks in a row, so it doesn't jump back and forth where the path passes close to itself.
+     */
+    public void enableRecovery(double offPathDistance, double relockMargin, int relockTicks) {
+        if (segmentIndex == null) {
+            segmentIndex = new SegmentIndex(compiled);
         }
-        this.powers[finalPowerIndex][0] = totalDistance;
-        this.powers[finalPowerIndex][1] = finalPower;
+        this.offPathDistance = offPathDistance;
+        this.relockMargin = relockMargin;
+        this.relockTicks = relockTicks;
+    }
 
-        //Check that the distances go in increasing order
-        double previousDistanceAtPower = powers[0][0];
-        for (int i = 1; i < powers.length; i++) {
-            double currentDistAtPower = powers[i][0];
-            if (currentDistAtPower < previousDistanceAtPower){
-                throw new IllegalArgumentException("Powers supplied to path must be in increasing order. Previous was "+ previousDistanceAtPower +" Current is "+currentDistAtPower);
-            }
-            previousDistanceAtPower = currentDistAtPower;
+    /**
+     * Caps the power table so corners are taken slower than straights. Each point's speed is limited so the sideways acceleration
+     * around its curve stays under maxLateralAcceleration, and the points before a corner are limited so the robot can slow down
+     * to it at maxDeceleration. Power is assumed proportional to speed, with full power at maxSpeed.
+     * Profiled paths take the lateral limit in their Constraints instead.
+     * @param maxSpeed Inches per second at full power
+     */
+    public void limitCornerSpeed(double maxSpeed, double maxLateralAcceleration, double maxDeceleration) {
+        powerLimits = compiled.getSpeedLimits(maxSpeed, maxLateralAcceleration, maxDeceleration);
+        for (int i = 0; i < powerLimits.length; i++) {
+            powerLimits[i] /= maxSpeed;
         }
     }
 
+    /**
+     * Index of the path point behind the robot, the start of the segment being followed.
+     */
+    public int getCurrentBound() {
+        return iCurrentBound;
+    }
+
     public PointAtDistance getPoint(int index) {
-        return pointAtDistance.get(index);
+        return new PointAtDistance(compiled.getX(index), compiled.getY(index), compiled.getDistance(index),
+                compiled.getDeltaX(index), compiled.getDeltaY(index), compiled.getSegmentLength(index));
     }
 
     public boolean isFinished(Position robotPosition) {
         updateFirstBoundingPoint(robotPosition);
-        if (iCurrentBound < pointAtDistance.size()-2) {
+        return isFinishedAtBound(robotPosition);
+    }
+
+    private boolean isFinishedAtBound(Position robotPosition) {
+        if (iCurrentBound < compiled.size()-2) {
             return false;
         } else {
-            double componentAlongPath = getComponentAlongPath(robotPosition, pointAtDistance.get(pointAtDistance.size() - 1));
+            double componentAlongPath = compiled.componentAlongPath(compiled.size() - 1, robotPosition.x, robotPosition.y);
             return componentAlongPath <= 0;
         }
     }
@@ -82,95 +146,198 @@ public class Path {
      * @return Returns a location
      */
     public Location getTargetLocation(Position robotPosition, double lookAheadDistance) {
+        Location loc = new Location();
+        query(robotPosition, lookAheadDistance, loc);
+        return loc;
+    }
+
+    /**
+     * Everything a follower needs each loop in one pass, written into a Location the caller keeps, so a control loop allocates nothing.
+     * The closest point is the robot projected onto the current segment. Projections are clamped to interior segments but may run
+     * past the ends of the first and last ones, so distances keep growing as the robot overshoots the end of the path.
+     * @param out Overwritten with the result, including finished
+     * @return Whether the path is finished, the same as isFinished(robotPosition)
+     */
+    public boolean query(Position robotPosition, double lookAheadDistance, Location out) {
         //Find closest bounding point behind robot
         updateFirstBoundingPoint(robotPosition);
+        int iFirst = iCurrentBound;
+        int iSecond = iCurrentBound + 1;
 
-        //Find the 2 closest bounding points
-        PointAtDistance first = getPoint(iCurrentBound);
+        double firstX = compiled.getX(iFirst), firstY = compiled.getY(iFirst);
+        double deltaX = compiled.getDeltaX(iSecond), deltaY = compiled.getDeltaY(iSecond);
+        double segmentLength = compiled.getSegmentLength(iSecond);
 
-        PointAtDistance second = getPoint(iCurrentBound + 1);
-
-        Location loc = new Location(second);
+        //Project robot onto the segment, as a fraction of the way from first to second
+        double t = ((robotPosition.x - firstX) * deltaX + (robotPosition.y - firstY) * deltaY) / (deltaX * deltaX + deltaY * deltaY);
+        if (iFirst > 0 && t < 0) {
+            t = 0;
+        }
+        if (iSecond < compiled.size() - 1 && t > 1) {
+            t = 1;
+        }
+        out.closestPoint.x = firstX + t * deltaX;
+        out.closestPoint.y = firstY + t * deltaY;
 
-        //Find closest point on line to robot
-        Line pathLine = new Line(first, second);
-        loc.closestPoint = pathLine.getClosestPointOnLine(robotPosition);
+        out.pathDeltaX = deltaX;
+        out.pathDeltaY = deltaY;
+        out.pathSegmentLength = segmentLength;
 
         //Calculate distance to end and distance from start of path
-        double distanceToSecond = loc.closestPoint.distanceTo(second);
-        loc.distanceToEnd = (totalDistance - second.distanceFromStart) + distanceToSecond;
-        loc.distanceFromStart = first.distanceFromStart + loc.closestPoint.distanceTo(first);
+        double distanceToSecond = Math.abs(1 - t) * segmentLength;
+        out.distanceToEnd = (compiled.getTotalDistance() - compiled.getDistance(iSecond)) + distanceToSecond;
+        out.distanceFromStart = compiled.getDistance(iFirst) + Math.abs(t) * segmentLength;
 
         //Calculate power at location
-        loc.power = getTargetPower(loc.distanceFromStart);
+        out.power = compiled.getPower(out.distanceFromStart);
+        if (powerLimits != null) {
+            //squared speed changes linearly with distance at constant deceleration
+            double fraction = Math.max(0, Math.min(1, t));
+            double first = powerLimits[iFirst], second = powerLimits[iSecond];
+            double limit = Math.sqrt(first * first + (second * second - first * first) * fraction);
+            out.power = Math.min(out.power, limit);
+        }
+        out.profiled = profile != null;
 
         //Calculate a future point given a look ahead distance
-        loc.futurePoint = getFuturePoint(distanceToSecond, lookAheadDistance);
+        setFuturePoint(distanceToSecond, lookAheadDistance, out.futurePoint);
 
-        return loc;
+        out.finished = isFinishedAtBound(robotPosition);
+        return out.finished;
     }
 
-    private Point getFuturePoint(double distanceToSecond, double lookAheadDistance){
-        double totalDistance = distanceToSecond;
-        int iFutureBound = iCurrentBound + 1;
-
+    /**
+     * Moves a location's future point to a different look ahead distance, for a follower that picks its look ahead from where
+     * query() found the robot. Must come right after the query() that filled location.
+     */
+    public void setLookAhead(double lookAheadDistance, Location location) {
+        int iSecond = iCurrentBound + 1;
+        double distanceToSecond = location.distanceToEnd - (compiled.getTotalDistance() - compiled.getDistance(iSecond));
+        setFuturePoint(distanceToSecond, lookAheadDistance, location.futurePoint);
+    }
 
-        // Look for a point on the path that is at least lookAheadDistance from the robot position
-        while (totalDistance < lookAheadDistance && iFutureBound < pointAtDistance.size()-1) {
-            iFutureBound ++;
-            PointAtDistance current = getPoint(iFutureBound);
-            totalDistance += current.distanceToPrevious;
+    /**
+     * Rebuilds a profiled path's profile to start at the robot's speed, for entering it without stopping, such as from the path
+     * before it in a chain. Otherwise the profile expects the robot stopped at the start and slows it to a stop at the junction.
+     * Does nothing for paths without a profile.
+     * @param distanceFromStart Where the robot already is on the path
+     * @return Seconds into the new profile the robot is at distanceFromStart, to add to the time given to setProfileTargets()
+     */
+    public double enterProfile(double speed, double distanceFromStart) {
+        if (profile == null) {
+            return 0;
         }
+        MotionProfile.Constraints entry = new MotionProfile.Constraints(constraints.maxVelocity, constraints.maxAcceleration, constraints.maxJerk)
+                .setStartVelocity(getEntryVelocity(speed))
+                .setEndVelocity(constraints.endVelocity)
+                .setMaxLateralAcceleration(constraints.maxLateralAcceleration);
+        profile = MotionProfile.generate(compiled, entry);
+        return profile.getTimeAtDistance(distanceFromStart);
+    }
 
-        // If we ran out of points, return the last point in the path
-        if (totalDistance < lookAheadDistance) {
-            return getPoint(iFutureBound);
+    /**
+     * Velocity enterProfile() starts the profile at for a speed, or 0 for paths without a profile.
+     */
+    public double getEntryVelocity(double speed) {
+        if (profile == null) {
+            return 0;
         }
-
-        // Otherwise, interpolate a point before iFutureBound
-        PointAtDistance futureBound = getPoint(iFutureBound);
-        double distanceBack = totalDistance - lookAheadDistance;
-        double ratio = distanceBack/futureBound.distanceToPrevious;
-
-        return new Point(futureBound.x - (ratio * futureBound.pathDeltaX), futureBound.y - (ratio * futureBound.pathDeltaY));
+        return Math.min(speed, constraints.maxVelocity);
     }
 
-    private double getTargetPower(double distanceFromStart) {
+    /**
+     * Fills a profiled location's targets for a time since the path started. The profile is indexed by time rather than by the
+     * distance covered, since it is stopped at the start of the path and the robot would never get going.
+     * Does nothing for paths without a profile.
+     * @param seconds Time since the robot started this path, plus what enterProfile() returned if it was entered moving
+     */
+    public void setProfileTargets(double seconds, Location out) {
+        if (profile == null) {
+            return;
+        }
+        out.targetVelocity = profile.getVelocityAtTime(seconds);
+        out.targetAcceleration = profile.getAccelerationAtTime(seconds);
+        out.targetDistance = profile.getDistanceAtTime(seconds);
+    }
 
-        double interpolatedPower = initialPower;
-        double currentPower;
-        for (int i = 0; i < powers.length; i++) {
-            if (powers[i][0] > distanceFromStart) {
-                break;
-            } else {
-                currentPower = powers[i][1];
+    /**
+     * Moves a queried location's future point to where a circle of radius lookAheadDistance around the robot first leaves the path
+     * going forward, the pure pursuit look ahead point. Segments are searched from the current one until the path is more than
+     * MAX_INTERSECTION_SEARCH look ahead distances past the robot. If the end of the path is inside the circle the future point is
+     * the end. If the circle never crosses the path, because the robot is further than that from it, the future point is left as
+     * query() set it.
+     * @param location Filled by query() for the same robot position
+     * @return Whether the future point was moved
+     */
+    public boolean intersectLookAhead(Position robotPosition, double lookAheadDistance, Location location) {
+        double squaredRadius = lookAheadDistance * lookAheadDistance;
+        double searchLimit = location.distanceFromStart + MAX_INTERSECTION_SEARCH * lookAheadDistance;
+        for (int i = iCurrentBound + 1; i < compiled.size() && compiled.getDistance(i - 1) <= searchLimit; i++) {
+            double deltaX = compiled.getDeltaX(i), deltaY = compiled.getDeltaY(i);
+            double startX = compiled.getX(i) - deltaX - robotPosition.x, startY = compiled.getY(i) - deltaY - robotPosition.y;
+
+            //|start + t * delta| = radius, the larger root is where the segment leaves the circle
+            double a = deltaX * deltaX + deltaY * deltaY;
+            double b = startX * deltaX + startY * deltaY;
+            double c = startX * startX + startY * startY - squaredRadius;
+            double discriminant = b * b - a * c;
+            if (discriminant < 0) {
+                continue;
             }
-            double nextPower;
-            double nextDistance;
-            //Check if we are at end
-            if (i == powers.length-1) {
-                nextPower = powers[i][1];
-                nextDistance = powers[i][0];
-            } else {
-                nextPower = powers[i+1][1];
-                nextDistance = powers[i+1][0];
+            double t = (-b + Math.sqrt(discriminant)) / a;
+            if (t >= 0 && t <= 1) {
+                location.futurePoint.x = robotPosition.x + startX + t * deltaX;
+                location.futurePoint.y = robotPosition.y + startY + t * deltaY;
+                return true;
             }
-            double powerDifference = nextPower - currentPower;
+        }
 
-            double currentDistance = distanceFromStart - powers[i][0];
+        int last = compiled.size() - 1;
+        double endX = compiled.getX(last) - robotPosition.x, endY = compiled.getY(last) - robotPosition.y;
+        if (endX * endX + endY * endY <= squaredRadius) {
+            location.futurePoint.x = compiled.getX(last);
+            location.futurePoint.y = compiled.getY(last);
+            return true;
+        }
+        return false;
+    }
 
-            double distanceDifference = nextDistance - powers[i][0];
-            double distanceRatio;
-            if (distanceDifference == 0) {
-                distanceRatio = 0;
-            } else {
-                distanceRatio = currentDistance/distanceDifference;
-            }
+    /**
+     * Point a distance along the path from its start, clamped to the ends.
+     */
+    public void getPointAtDistance(double distanceFromStart, Point out) {
+        int i = compiled.findPointAtOrAfter(distanceFromStart, 0);
+        if (i == 0 || compiled.getDistance(i) <= distanceFromStart) {
+            out.x = compiled.getX(i);
+            out.y = compiled.getY(i);
+            return;
+        }
+        double ratio = (compiled.getDistance(i) - distanceFromStart) / compiled.getSegmentLength(i);
+        out.x = compiled.getX(i) - ratio * compiled.getDeltaX(i);
+        out.y = compiled.getY(i) - ratio * compiled.getDeltaY(i);
+    }
+
+    /**
+     * Searches for the first point at least lookAheadDistance along the path from the robot, measured past the second bounding point.
+     */
+    private void setFuturePoint(double distanceToSecond, double lookAheadDistance, Point futurePoint){
+        int iSecond = iCurrentBound + 1;
+        double targetDistance = compiled.getDistance(iSecond) + lookAheadDistance - distanceToSecond;
+        int iFutureBound = compiled.findPointAtOrAfter(targetDistance, iSecond);
 
-            interpolatedPower = currentPower + (powerDifference * distanceRatio);
+        // If we ran out of points, return the last point in the path
+        if (compiled.getDistance(iFutureBound) < targetDistance) {
+            futurePoint.x = compiled.getX(iFutureBound);
+            futurePoint.y = compiled.getY(iFutureBound);
+            return;
         }
 
-        return interpolatedPower;
+        // Otherwise, interpolate a point before iFutureBound
+        double distanceBack = compiled.getDistance(iFutureBound) - targetDistance;
+        double ratio = distanceBack/compiled.getSegmentLength(iFutureBound);
+
+        futurePoint.x = compiled.getX(iFutureBound) - (ratio * compiled.getDeltaX(iFutureBound));
+        futurePoint.y = compiled.getY(iFutureBound) - (ratio * compiled.getDeltaY(iFutureBound));
     }
 
     /**
@@ -178,10 +345,12 @@ public class Path {
      * @param robotPosition
      */
     private void updateFirstBoundingPoint(Position robotPosition) {
+        if (segmentIndex != null) {
+            recover(robotPosition);
+        }
 
-        for (int i = iCurrentBound; i < pointAtDistance.size()-1; i++) {
-            PointAtDistance current = getPoint(i);
-            double componentToCurrent = getComponentAlongPath(robotPosition, current);
+        for (int i = iCurrentBound; i < compiled.size()-1; i++) {
+            double componentToCurrent = compiled.componentAlongPath(i, robotPosition.x, robotPosition.y);
             if (componentToCurrent > 0) {
                 break;
             } else {
@@ -191,16 +360,30 @@ public class Path {
     }
 
     /**
-     * Takes a position and a path point and finds the component of the distance along the path between the position and the path point
-     * @param robotPosition
-     * @param pathPoint
-     * @return Non-normalized dotProduct
+     * Moves iCurrentBound to the globally nearest segment when the robot has clearly left the current one, see enableRecovery()
      */
-    private double getComponentAlongPath(Position robotPosition, PointAtDistance pathPoint) {
-        double robotDeltaX = pathPoint.x - robotPosition.x;
-        double robotDeltaY = pathPoint.y - robotPosition.y;
+    private void recover(Position robotPosition) {
+        double currentDistance = Math.sqrt(compiled.squaredDistanceToSegment(iCurrentBound + 1, robotPosition.x, robotPosition.y));
+        if (currentDistance <= offPathDistance) {
+            relockCount = 0;
+            return;
+        }
+
+        int nearest = segmentIndex.findNearest(robotPosition.x, robotPosition.y);
+        if (nearest == iCurrentBound + 1 || segmentIndex.getNearestDistance() + relockMargin > currentDistance) {
+            relockCount = 0;
+            return;
+        }
 
-        return (robotDeltaX * pathPoint.pathDeltaX) + (robotDeltaY * pathPoint.pathDeltaY);
+        if (nearest != iRelockCandidate) {
+            iRelockCandidate = nearest;
+            relockCount = 0;
+        }
+        relockCount++;
+        if (relockCount >= relockTicks) {
+            iCurrentBound = nearest - 1;
+            relockCount = 0;
+        }
     }
 
     public static class PointAtDistance extends Point {
@@ -225,14 +408,31 @@ public class Path {
     }
 
     public static class Location {
-        public Point closestPoint;
+        public Point closestPoint = new Point(0, 0);
         public double pathDeltaX;
         public double pathDeltaY;
         public double distanceToEnd;
         public double distanceFromStart;
         public double pathSegmentLength;
         public double power;
-        public Point futurePoint;
+        /**
+         * Whether the path has a motion profile. If so, the targets are set by setProfileTargets() instead of a useful power.
+         */
+        public boolean profiled;
+        public double targetVelocity;
+        public double targetAcceleration;
+        /**
+         * How far along the path the profile expects the robot to be.
+         */
+        public double targetDistance;
+        public Point futurePoint = new Point(0, 0);
+        public boolean finished;
+
+        /**
+         * Empty location to be filled by Path.query()
+         */
+        public Location() {
+        }
 
         public Location(PointAtDistance pointAtDistance) {
             pathDeltaX = pointAtDistance.pathDeltaX;
@@ -0,0 +1,104 @@
+package edu.ahs.robotics.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paths driven back to back by MecanumChassis.followPathChain() without stopping between them. Near the end of a path the look
+ * ahead point carries on into the next one, so the robot rounds the junction and switches to the next path's MotionConfig as it
+ * finishes the first. Each path keeps its own power to its end unless its link is marked with carryPower(). The robot only stops
+ * after links marked with stop(), and runs a link's action, like closing a gripper, once that link is done.
+ * <pre>
+ * new PathChain()
+ *         .add(quarry, quarryConfig)
+ *         .add(toFoundation, toFoundationConfig).stop()
+ *         .add(pull, pullConfig).then(releaseFoundation);
+ * </pre>
+ */
+public class PathChain {
+    private List<Link> links = new ArrayList<>();
+
+    public PathChain add(Path path, MotionConfig motionConfig) {
+        links.add(new Link(path, motionConfig));
+        return this;
+    }
+
+    /**
+     * Stops the robot at the end of the last added path instead of blending into the next.
+     */
+    public PathChain stop() {
+        last().stopAtEnd = true;
+        return this;
+    }
+
+    /**
+     * Keeps at least the next path's starting power over the end of the last added path, so the robot doesn't slow down for
+     * the junction. Only for paths whose slow finish isn't needed, like one that slows down only because it used to stop.
+     */
+    public PathChain carryPower() {
+        last().carryPower = true;
+        return this;
+    }
+
+    /**
+     * Runs an action once the last added path is done, after stopping if it stops.
+     */
+    public PathChain then(Runnable action) {
+        last().action = action;
+        return this;
+    }
+
+    public int size() {
+        return links.size();
+    }
+
+    public Link get(int i) {
+        return links.get(i);
+    }
+
+    /**
+     * @return The path after link i that it blends into, or null if link i stops or is the last
+     */
+    public Path getBlendTarget(int i) {
+        Link link = links.get(i);
+        if (link.stopAtEnd || i == links.size() - 1) {
+            return null;
+        }
+        return links.get(i + 1).path;
+    }
+
+    private Link last() {
+        if (links.isEmpty()) {
+            throw new IllegalStateException("Add a path to the chain first");
+        }
+        return links.get(links.size() - 1);
+    }
+
+    public static class Link {
+        public final Path path;
+        public final MotionConfig motionConfig;
+        private boolean stopAtEnd = false;
+        private boolean carryPower = false;
+        private Runnable action;
+
+        Link(Path path, MotionConfig motionConfig) {
+            this.path = path;
+            this.motionConfig = motionConfig;
+        }
+
+        public boolean stopsAtEnd() {
+            return stopAtEnd;
+        }
+
+        public boolean carriesPower() {
+            return carryPower;
+        }
+
+        /**
+         * @return What to run when the link is done, or null
+         */
+        public Runnable getAction() {
+            return action;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package edu.ahs.robotics.control;
+
+import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.util.GCodeReader;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Paths compiled ahead of time into one little endian binary file, so init maps a single file instead of parsing a csv per
+ * route and recomputing every distance. Compile offline with main() or write(), load on the robot with load().
+ * Layout: magic, version and path count as ints, then each path as written by CompiledPath.writeTo().
+ */
+public class PathFile {
+    public static final int MAGIC = 0x48545041; //"APTH" in little endian
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 3 * 4;
+
+    /**
+     * Loads from the log directory, see FTCUtilities.getLogDirectory()
+     */
+    public static List<CompiledPath> load(String fileName) {
+        File file = new File(FTCUtilities.getLogDirectory(), fileName);
+        try {
+            return load(file);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new Warning("Loading path file " + fileName + " threw exception" + e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the file rather than streaming it, so the whole thing is one read.
+     */
+    public static List<CompiledPath> load(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file); FileChannel channel = in.getChannel()) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the buffer isn't a path file of this version or is cut short
+     */
+    public static List<CompiledPath> read(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Not a path file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Path file is version " + version + ", expected " + VERSION);
+        }
+        int count = buffer.getInt();
+        List<CompiledPath> paths = new ArrayList<>(Math.max(0, count));
+        for (int i = 0; i < count; i++) {
+            paths.add(CompiledPath.readFrom(buffer));
+        }
+        return paths;
+    }
+
+    public static ByteBuffer toBytes(List<CompiledPath> paths) {
+        int bytes = HEADER_BYTES;
+        for (CompiledPath path : paths) {
+            bytes += path.byteSize();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(paths.size());
+        for (CompiledPath path : paths) {
+            path.writeTo(buffer);
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    public static void write(List<CompiledPath> paths, File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(paths, out);
+        }
+    }
+
+    public static void write(List<CompiledPath> paths, OutputStream out) throws IOException {
+        ByteBuffer buffer = toBytes(paths);
+        out.write(buffer.array(), buffer.arrayOffset(), buffer.remaining());
+    }
+
+    /**
+     * Compiles a GCodeReader csv on a computer.
+     * Usage: PathFile [-simplify tolerance] input.csv output.path [initialPower,finalPower[,distance:power...]]...
+     * One power spec per path in the csv, in order. Paths without one run at full power.
+     * With -simplify, points within tolerance inches of the path are dropped first, see PathSimplifier.
+     */
+    public static void main(String[] args) throws IOException {
+        double tolerance = -1;
+        int first = 0;
+        if (args.length > 1 && args[0].equals("-simplify")) {
+            tolerance = Double.parseDouble(args[1]);
+            first = 2;
+        }
+        if (args.length - first < 2) {
+            System.err.println("Usage: PathFile [-simplify tolerance] input.csv output.path [initialPower,finalPower[,distance:power...]]...");
+            System.exit(1);
+        }
+
+        List<List<Point>> routes;
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[first]))) {
+            routes = GCodeReader.read(reader);
+        }
+
+        List<CompiledPath> paths = new ArrayList<>();
+        for (int i = 0; i < routes.size(); i++) {
+            int specIndex = first + 2 + i;
+            String spec = specIndex < args.length ? args[specIndex] : "1,1";
+            String[] parts = spec.split(",");
+            if (parts.length < 2) {
+                throw new IllegalArgumentException("Power spec for path " + i + " needs an initial and final power, was " + spec);
+            }
+            double[][] powers = new double[parts.length - 2][];
+            for (int j = 2; j < parts.length; j++) {
+                String[] pair = parts[j].split(":");
+                powers[j - 2] = new double[pair.length];
+                for (int k = 0; k < pair.length; k++) {
+                    powers[j - 2][k] = Double.parseDouble(pair[k]);
+                }
+            }
+
+            List<Point> points = routes.get(i);
+            if (tolerance >= 0) {
+                PathSimplifier.Result simplified = PathSimplifier.simplify(points, tolerance);
+                System.out.println("Path " + i + ": " + simplified);
+                points = simplified.points.toPoints();
+            }
+            paths.add(CompiledPath.compile(points, Double.parseDouble(parts[0]), Double.parseDouble(parts[1]), powers));
+        }
+
+        write(paths, new File(args[first + 1]));
+        System.out.println("Wrote " + paths.size() + " paths to " + args[first + 1]);
+    }
+}
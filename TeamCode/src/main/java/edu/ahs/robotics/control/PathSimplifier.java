@@ -0,0 +1,121 @@
+package edu.ahs.robotics.control;
+
+import java.util.List;
+
+/**
+ * Drops points that don't change a path's shape by more than a tolerance, with Ramer-Douglas-Peucker. CAD exports are full of
+ * collinear points, and every extra point is one more step for the follower to search through each loop.
+ * A span is kept as a single segment when every point between its ends is within tolerance of it, otherwise it is split at the
+ * furthest point. Distances are to the segment, not the infinite line, so a path that doubles back on itself keeps its turn.
+ */
+public class PathSimplifier {
+
+    public static Result simplify(List<Point> points, double tolerance) {
+        PointBuffer buffer = new PointBuffer(points.size());
+        for (Point point : points) {
+            buffer.add(point.x, point.y);
+        }
+        return simplify(buffer, tolerance);
+    }
+
+    /**
+     * @param tolerance Furthest, in inches, any dropped point may be from the simplified path
+     * @throws IllegalArgumentException if tolerance is negative
+     */
+    public static Result simplify(PointBuffer points, double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("Simplification tolerance can't be negative, was " + tolerance);
+        }
+        int count = points.size();
+        if (count < 3) {
+            PointBuffer copy = new PointBuffer(count);
+            for (int i = 0; i < count; i++) {
+                copy.add(points.getX(i), points.getY(i));
+            }
+            return new Result(copy, count, 0);
+        }
+
+        boolean[] keep = new boolean[count];
+        keep[0] = true;
+        keep[count - 1] = true;
+        double maxDeviation = 0;
+
+        //spans still to check, as a stack so a long path can't overflow the call stack
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = count - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+
+            int furthest = -1;
+            double furthestDistance = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distance = squaredDistanceToSegment(points, i, first, last);
+                if (distance > furthestDistance) {
+                    furthestDistance = distance;
+                    furthest = i;
+                }
+            }
+            if (furthest < 0) {
+                continue;
+            }
+
+            if (furthestDistance > tolerance * tolerance) {
+                keep[furthest] = true;
+                if (top + 4 > stack.length) {
+                    int[] larger = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, larger, 0, top);
+                    stack = larger;
+                }
+                stack[top++] = first;
+                stack[top++] = furthest;
+                stack[top++] = furthest;
+                stack[top++] = last;
+            } else {
+                maxDeviation = Math.max(maxDeviation, Math.sqrt(furthestDistance));
+            }
+        }
+
+        PointBuffer simplified = new PointBuffer(count);
+        for (int i = 0; i < count; i++) {
+            if (keep[i]) {
+                simplified.add(points.getX(i), points.getY(i));
+            }
+        }
+        return new Result(simplified, count, maxDeviation);
+    }
+
+    private static double squaredDistanceToSegment(PointBuffer points, int i, int first, int last) {
+        double startX = points.getX(first), startY = points.getY(first);
+        double deltaX = points.getX(last) - startX, deltaY = points.getY(last) - startY;
+        double px = points.getX(i) - startX, py = points.getY(i) - startY;
+        double lengthSquared = deltaX * deltaX + deltaY * deltaY;
+        double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * deltaX + py * deltaY) / lengthSquared));
+        double dx = px - t * deltaX, dy = py - t * deltaY;
+        return dx * dx + dy * dy;
+    }
+
+    public static class Result {
+        public final PointBuffer points;
+        public final int originalCount;
+        public final int removed;
+        /**
+         * Furthest any dropped point is from the simplified path, in inches.
+         */
+        public final double maxDeviation;
+
+        Result(PointBuffer points, int originalCount, double maxDeviation) {
+            this.points = points;
+            this.originalCount = originalCount;
+            this.removed = originalCount - points.size();
+            this.maxDeviation = maxDeviation;
+        }
+
+        @Override
+        public String toString() {
+            return "kept " + points.size() + " of " + originalCount + " points, removed " + removed + ", max deviation " + maxDeviation + " in";
+        }
+    }
+}
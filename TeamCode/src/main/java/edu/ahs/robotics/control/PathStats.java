@@ -0,0 +1,52 @@
+package edu.ahs.robotics.control;
+
+/**
+ * How well the last followPath went, for comparing follower tuning. Tracking error is the robot's distance from the path.
+ */
+public class PathStats {
+    public int loops;
+    public long durationMillis;
+    /**
+     * False if the path timed out or was cut short by an OBMCommand.
+     */
+    public boolean finished;
+    public double maxTrackingError;
+    public double meanTrackingError;
+    public double rmsTrackingError;
+    public double meanLookAhead;
+
+    private double errorSum, errorSquaredSum, lookAheadSum;
+
+    public void reset() {
+        loops = 0;
+        durationMillis = 0;
+        finished = false;
+        maxTrackingError = meanTrackingError = rmsTrackingError = meanLookAhead = 0;
+        errorSum = errorSquaredSum = lookAheadSum = 0;
+    }
+
+    /**
+     * Adds one control loop.
+     */
+    public void record(double trackingError, double lookAhead) {
+        loops++;
+        errorSum += trackingError;
+        errorSquaredSum += trackingError * trackingError;
+        lookAheadSum += lookAhead;
+        maxTrackingError = Math.max(maxTrackingError, trackingError);
+        meanTrackingError = errorSum / loops;
+        rmsTrackingError = Math.sqrt(errorSquaredSum / loops);
+        meanLookAhead = lookAheadSum / loops;
+    }
+
+    public void finish(long durationMillis, boolean finished) {
+        this.durationMillis = durationMillis;
+        this.finished = finished;
+    }
+
+    @Override
+    public String toString() {
+        return (finished ? "finished" : "stopped early") + " in " + durationMillis + " ms over " + loops + " loops, tracking error mean "
+                + meanTrackingError + " rms " + rmsTrackingError + " max " + maxTrackingError + " in, mean look ahead " + meanLookAhead + " in";
+    }
+}
@@ -0,0 +1,108 @@
+package edu.ahs.robotics.control;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.ahs.robotics.util.GCodeReader;
+
+/**
+ * Compiled paths cached by name for the life of the app, so red and blue autos built from the same routes parse and compile
+ * each path once. Templates are stored as written, the red side, and handed out as is or as their mirror, which costs nothing.
+ * Wrap a template in a new Path for each run, since Paths track progress but CompiledPaths never change.
+ */
+public class PathTemplates {
+    private static final Map<String, List<List<Point>>> routes = new HashMap<>();
+    private static final Map<String, Template> templates = new HashMap<>();
+
+    /**
+     * Builds the template for a name the first time it's asked for, and returns the same one every time after.
+     * @param flipToBlue Return the template mirrored across the y axis
+     */
+    public static synchronized CompiledPath get(String name, boolean flipToBlue, Source source) {
+        Template template = templates.get(name);
+        if (template == null) {
+            template = new Template(source.compile(), null);
+            templates.put(name, template);
+        }
+        return orient(template.path, flipToBlue);
+    }
+
+    /**
+     * One path of a GCodeReader csv in the log directory, with a power profile. The csv is read once however many of its paths are used.
+     * @param index Which path in the file, from 0
+     * @throws IllegalArgumentException if this path was already built with a different power profile, or the file has no such path
+     */
+    public static synchronized CompiledPath fromRoute(String fileName, int index, boolean flipToBlue, double initialPower, double finalPower, double[][] powers) {
+        String name = fileName + "#" + index;
+        double[] spec = powerSpec(initialPower, finalPower, powers);
+        Template template = templates.get(name);
+        if (template == null) {
+            List<List<Point>> route = routes.get(fileName);
+            if (route == null) {
+                route = GCodeReader.openFile(fileName);
+                routes.put(fileName, route);
+            }
+            if (index < 0 || index >= route.size()) {
+                throw new IllegalArgumentException(fileName + " has " + route.size() + " paths, asked for path " + index);
+            }
+            template = new Template(CompiledPath.compile(route.get(index), initialPower, finalPower, powers), spec);
+            templates.put(name, template);
+        } else if (!Arrays.equals(spec, template.powerSpec)) {
+            throw new IllegalArgumentException("Path " + name + " was already built with a different power profile");
+        }
+        return orient(template.path, flipToBlue);
+    }
+
+    /**
+     * Drops every cached route and template, such as after new csvs are copied to the robot.
+     */
+    public static synchronized void clear() {
+        routes.clear();
+        templates.clear();
+    }
+
+    /*Package visible for testing*/
+    static synchronized void addRoute(String fileName, List<List<Point>> route) {
+        routes.put(fileName, route);
+    }
+
+    private static CompiledPath orient(CompiledPath path, boolean flipToBlue) {
+        return flipToBlue ? path.mirrored() : path;
+    }
+
+    /**
+     * Everything that went into a power profile in one array, to compare against.
+     */
+    private static double[] powerSpec(double initialPower, double finalPower, double[][] powers) {
+        double[] spec = new double[2 + 2 * powers.length];
+        spec[0] = initialPower;
+        spec[1] = finalPower;
+        for (int i = 0; i < powers.length; i++) {
+            if (powers[i].length != 2) {
+                throw new IllegalArgumentException("Length of powers array was not equal to 2");
+            }
+            spec[2 + 2 * i] = powers[i][0];
+            spec[3 + 2 * i] = powers[i][1];
+        }
+        return spec;
+    }
+
+    /**
+     * Compiles a template the first time its name is used.
+     */
+    public interface Source {
+        CompiledPath compile();
+    }
+
+    private static class Template {
+        final CompiledPath path;
+        final double[] powerSpec; //null when built from a Source
+
+        Template(CompiledPath path, double[] powerSpec) {
+            this.path = path;
+            this.powerSpec = powerSpec;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package edu.ahs.robotics.control;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of points kept as two double arrays, so building a long path doesn't allocate a Point per point.
+ */
+public class PointBuffer {
+    private double[] x, y;
+    private int size = 0;
+
+    public PointBuffer() {
+        this(64);
+    }
+
+    public PointBuffer(int capacity) {
+        x = new double[Math.max(1, capacity)];
+        y = new double[Math.max(1, capacity)];
+    }
+
+    public void add(double px, double py) {
+        if (size == x.length) {
+            x = Arrays.copyOf(x, size * 2);
+            y = Arrays.copyOf(y, size * 2);
+        }
+        x[size] = px;
+        y[size] = py;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int i) {
+        return x[i];
+    }
+
+    public double getY(int i) {
+        return y[i];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public List<Point> toPoints() {
+        List<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(x[i], y[i]));
+        }
+        return points;
+    }
+
+    public CompiledPath compile(double initialPower, double finalPower, double[][] powers) {
+        return CompiledPath.compile(x, y, size, initialPower, finalPower, powers);
+    }
+}
@@ -0,0 +1,163 @@
+package edu.ahs.robotics.control;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over a CompiledPath's segments, for finding the segment nearest a point anywhere on the field without checking them all.
+ * Each cell lists the segments whose bounding boxes touch it. A lookup searches rings of cells outward from the point and stops
+ * once no unsearched cell could hold anything closer, so it only looks at the segments near the point.
+ * Lookups allocate nothing. Not thread safe - lookups share a scratch array.
+ */
+public final class SegmentIndex {
+    private static final int MAX_CELLS_PER_SEGMENT = 4; //caps memory on paths that are spread out but sparse
+
+    private final CompiledPath path;
+    private final double minX, minY;
+    private final double cellSize;
+    private final int columns, rows;
+    private final int[] cellStart; //segments of cell c are cellSegments[cellStart[c]] until cellStart[c + 1]
+    private final int[] cellSegments;
+
+    private final int[] lastSeen; //query a segment was last checked in, so segments in several cells are checked once
+    private int query = 0;
+
+    private int nearestSegment;
+    private double nearestDistance;
+
+    public SegmentIndex(CompiledPath path) {
+        this.path = path;
+        int segments = path.size() - 1;
+        if (segments < 1) {
+            throw new IllegalArgumentException("Path needs at least one segment to index");
+        }
+
+        double lowX = Double.POSITIVE_INFINITY, lowY = Double.POSITIVE_INFINITY;
+        double highX = Double.NEGATIVE_INFINITY, highY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < path.size(); i++) {
+            lowX = Math.min(lowX, path.getX(i));
+            lowY = Math.min(lowY, path.getY(i));
+            highX = Math.max(highX, path.getX(i));
+            highY = Math.max(highY, path.getY(i));
+        }
+        double width = highX - lowX, height = highY - lowY;
+
+        //about one segment per cell, and cells no smaller than a typical segment so each segment only lands in a few
+        double size = Math.max(path.getTotalDistance() / segments, Math.sqrt(width * height / segments));
+        size = Math.max(size, 1e-6);
+        while ((Math.floor(width / size) + 1) * (Math.floor(height / size) + 1) > (double) MAX_CELLS_PER_SEGMENT * segments) {
+            size *= 2;
+        }
+        cellSize = size;
+        minX = lowX;
+        minY = lowY;
+        columns = (int) (width / size) + 1;
+        rows = (int) (height / size) + 1;
+
+        //count, then fill, so every cell's list is one slice of a single array
+        cellStart = new int[columns * rows + 1];
+        for (int i = 1; i <= segments; i++) {
+            forEachCell(i, null, 0);
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellSegments = new int[cellStart[columns * rows]];
+        int[] fill = new int[columns * rows];
+        for (int i = 1; i <= segments; i++) {
+            forEachCell(i, fill, i);
+        }
+
+        lastSeen = new int[path.size()];
+    }
+
+    /**
+     * Counts segment i into every cell its bounding box touches when fill is null, otherwise writes it into them.
+     */
+    private void forEachCell(int i, int[] fill, int segment) {
+        double endX = path.getX(i), endY = path.getY(i);
+        double startX = endX - path.getDeltaX(i), startY = endY - path.getDeltaY(i);
+        int lowColumn = column(Math.min(startX, endX)), highColumn = column(Math.max(startX, endX));
+        int lowRow = row(Math.min(startY, endY)), highRow = row(Math.max(startY, endY));
+        for (int r = lowRow; r <= highRow; r++) {
+            for (int c = lowColumn; c <= highColumn; c++) {
+                int cell = r * columns + c;
+                if (fill == null) {
+                    cellStart[cell + 1]++;
+                } else {
+                    cellSegments[cellStart[cell] + fill[cell]++] = segment;
+                }
+            }
+        }
+    }
+
+    private int column(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - minX) / cellSize)));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - minY) / cellSize)));
+    }
+
+    /**
+     * Finds the segment closest to (x, y). Read the result with getNearestSegment() and getNearestDistance().
+     * @return Index of the point ending the nearest segment, so the segment runs from that index - 1 to it
+     */
+    public int findNearest(double x, double y) {
+        if (++query == 0) { //wrapped, stale stamps could now collide
+            Arrays.fill(lastSeen, 0);
+            query = 1;
+        }
+        int centerColumn = column(x), centerRow = row(y);
+        double best = Double.POSITIVE_INFINITY;
+        int bestSegment = 1;
+        int maxRing = Math.max(Math.max(centerColumn, columns - 1 - centerColumn), Math.max(centerRow, rows - 1 - centerRow));
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            int lowRow = centerRow - ring, highRow = centerRow + ring;
+            int lowColumn = centerColumn - ring, highColumn = centerColumn + ring;
+            for (int r = Math.max(0, lowRow); r <= Math.min(rows - 1, highRow); r++) {
+                boolean edgeRow = r == lowRow || r == highRow;
+                for (int c = Math.max(0, lowColumn); c <= Math.min(columns - 1, highColumn); c++) {
+                    if (!edgeRow && c != lowColumn && c != highColumn) {
+                        c = highColumn - 1; //inside of the ring was searched already, skip to its right edge
+                        continue;
+                    }
+                    int cell = r * columns + c;
+                    for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                        int segment = cellSegments[k];
+                        if (lastSeen[segment] == query) {
+                            continue;
+                        }
+                        lastSeen[segment] = query;
+                        double distance = path.squaredDistanceToSegment(segment, x, y);
+                        if (distance < best || (distance == best && segment < bestSegment)) {
+                            best = distance;
+                            bestSegment = segment;
+                        }
+                    }
+                }
+            }
+            //anything not searched yet is at least ring whole cells away
+            double reach = ring * cellSize;
+            if (best <= reach * reach) {
+                break;
+            }
+        }
+
+        nearestSegment = bestSegment;
+        nearestDistance = Math.sqrt(best);
+        return bestSegment;
+    }
+
+    public int getNearestSegment() {
+        return nearestSegment;
+    }
+
+    public double getNearestDistance() {
+        return nearestDistance;
+    }
+
+    public int getCellCount() {
+        return columns * rows;
+    }
+}
@@ -0,0 +1,223 @@
+package edu.ahs.robotics.control;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds smooth paths from a few waypoints instead of a dense csv. Neighboring waypoints are joined by quintic Hermite splines,
+ * with zero second derivative at each waypoint, so the path is continuous in heading and curvature through every waypoint.
+ * Sampling is adaptive. Spans are split until each chord is within tolerance of the curve and turns less than maxTurn,
+ * so straights come out as a few points and tight turns as many.
+ */
+public class SplineBuilder {
+    public static final double DEFAULT_TOLERANCE = .05; //inches
+    public static final double DEFAULT_MAX_TURN = Math.toRadians(5);
+    public static final double DEFAULT_MAX_SEGMENT_LENGTH = 24;
+    private static final int MAX_DEPTH = 16;
+
+    private List<Waypoint> waypoints = new ArrayList<>();
+    private double tolerance = DEFAULT_TOLERANCE;
+    private double maxTurn = DEFAULT_MAX_TURN;
+    private double maxSegmentLength = DEFAULT_MAX_SEGMENT_LENGTH;
+    private double tangentScale = 1;
+
+    /**
+     * Adds a waypoint the path must pass through heading a given direction.
+     * @param heading Direction of travel through the waypoint in radians, counterclockwise from the x axis
+     */
+    public SplineBuilder addWaypoint(double x, double y, double heading) {
+        waypoints.add(new Waypoint(x, y, heading, true));
+        return this;
+    }
+
+    /**
+     * Adds a waypoint whose direction is taken from its neighbors, pointing from the previous waypoint toward the next.
+     */
+    public SplineBuilder addWaypoint(double x, double y) {
+        waypoints.add(new Waypoint(x, y, 0, false));
+        return this;
+    }
+
+    /**
+     * @param tolerance Furthest, in inches, the sampled path may stray from the spline
+     */
+    public SplineBuilder setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * @param maxTurn Most the direction may change across one sampled segment, in radians
+     */
+    public SplineBuilder setMaxTurn(double maxTurn) {
+        this.maxTurn = maxTurn;
+        return this;
+    }
+
+    public SplineBuilder setMaxSegmentLength(double maxSegmentLength) {
+        this.maxSegmentLength = maxSegmentLength;
+        return this;
+    }
+
+    /**
+     * Tangent length at each waypoint, as a multiple of the distance to the next waypoint. Larger values make wider, rounder turns.
+     */
+    public SplineBuilder setTangentScale(double tangentScale) {
+        this.tangentScale = tangentScale;
+        return this;
+    }
+
+    public Path build(boolean flipToBlue, double initialPower, double finalPower, double[][] powers) {
+        return new Path(sample(), flipToBlue, initialPower, finalPower, powers);
+    }
+
+    public Path build(boolean flipToBlue, MotionProfile.Constraints constraints) {
+        return new Path(sample(), flipToBlue, constraints);
+    }
+
+    /**
+     * @return The sampled points, starting and ending exactly on the first and last waypoints
+     */
+    public List<Point> sample() {
+        if (waypoints.size() < 2) {
+            throw new IllegalArgumentException("A spline needs at least 2 waypoints, has " + waypoints.size());
+        }
+
+        int count = waypoints.size();
+        double[] directionX = new double[count], directionY = new double[count];
+        for (int i = 0; i < count; i++) {
+            Waypoint waypoint = waypoints.get(i);
+            if (waypoint.hasHeading) {
+                directionX[i] = Math.cos(waypoint.heading);
+                directionY[i] = Math.sin(waypoint.heading);
+            } else {
+                Waypoint before = waypoints.get(Math.max(0, i - 1));
+                Waypoint after = waypoints.get(Math.min(count - 1, i + 1));
+                double dx = after.x - before.x, dy = after.y - before.y;
+                double length = Math.hypot(dx, dy);
+                directionX[i] = length == 0 ? 1 : dx / length;
+                directionY[i] = length == 0 ? 0 : dy / length;
+            }
+        }
+
+        List<Point> points = new ArrayList<>();
+        points.add(new Point(waypoints.get(0).x, waypoints.get(0).y));
+        Span span = new Span();
+        for (int i = 0; i < count - 1; i++) {
+            Waypoint start = waypoints.get(i), end = waypoints.get(i + 1);
+            double chord = Math.hypot(end.x - start.x, end.y - start.y);
+            if (chord == 0) {
+                continue;
+            }
+            double scale = chord * tangentScale;
+            span.set(start.x, start.y, directionX[i] * scale, directionY[i] * scale, end.x, end.y, directionX[i + 1] * scale, directionY[i + 1] * scale);
+            subdivide(span, 0, 1, 0, points);
+            points.add(new Point(end.x, end.y)); //exactly, not as evaluated
+        }
+        return points;
+    }
+
+    /**
+     * Adds the points strictly between t0 and t1 that keep each chord within tolerance, turn and length limits.
+     */
+    private void subdivide(Span span, double t0, double t1, int depth, List<Point> points) {
+        double middle = (t0 + t1) / 2;
+        if (depth < MAX_DEPTH && needsSplit(span, t0, t1)) {
+            subdivide(span, t0, middle, depth + 1, points);
+            points.add(new Point(span.x(middle), span.y(middle)));
+            subdivide(span, middle, t1, depth + 1, points);
+        }
+    }
+
+    private boolean needsSplit(Span span, double t0, double t1) {
+        double x0 = span.x(t0), y0 = span.y(t0);
+        double x1 = span.x(t1), y1 = span.y(t1);
+        double chordX = x1 - x0, chordY = y1 - y0;
+        double chord = Math.hypot(chordX, chordY);
+        if (chord > maxSegmentLength) {
+            return true;
+        }
+
+        double turn = Math.abs(angleBetween(span.dx(t0), span.dy(t0), span.dx(t1), span.dy(t1)));
+        if (turn > maxTurn) {
+            return true;
+        }
+
+        //the quarter points catch S bends, where the middle can sit right on the chord
+        for (int quarter = 1; quarter <= 3; quarter++) {
+            double t = t0 + (t1 - t0) * quarter / 4;
+            double px = span.x(t) - x0, py = span.y(t) - y0;
+            double deviation = chord == 0 ? Math.hypot(px, py) : Math.abs(px * chordY - py * chordX) / chord;
+            if (deviation > tolerance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double angleBetween(double ax, double ay, double bx, double by) {
+        return Math.atan2(ax * by - ay * bx, ax * bx + ay * by);
+    }
+
+    private static class Waypoint {
+        final double x, y, heading;
+        final boolean hasHeading;
+
+        Waypoint(double x, double y, double heading, boolean hasHeading) {
+            this.x = x;
+            this.y = y;
+            this.heading = heading;
+            this.hasHeading = hasHeading;
+        }
+    }
+
+    /**
+     * One quintic Hermite span with zero second derivatives at both ends, reused across spans.
+     */
+    private static class Span {
+        private double x0, y0, vx0, vy0, x1, y1, vx1, vy1;
+
+        void set(double x0, double y0, double vx0, double vy0, double x1, double y1, double vx1, double vy1) {
+            this.x0 = x0;
+            this.y0 = y0;
+            this.vx0 = vx0;
+            this.vy0 = vy0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.vx1 = vx1;
+            this.vy1 = vy1;
+        }
+
+        double x(double t) {
+            return position(t, x0, vx0, x1, vx1);
+        }
+
+        double y(double t) {
+            return position(t, y0, vy0, y1, vy1);
+        }
+
+        double dx(double t) {
+            return derivative(t, x0, vx0, x1, vx1);
+        }
+
+        double dy(double t) {
+            return derivative(t, y0, vy0, y1, vy1);
+        }
+
+        private static double position(double t, double p0, double v0, double p1, double v1) {
+            double t3 = t * t * t, t4 = t3 * t, t5 = t4 * t;
+            return (1 - 10 * t3 + 15 * t4 - 6 * t5) * p0
+                    + (t - 6 * t3 + 8 * t4 - 3 * t5) * v0
+                    + (-4 * t3 + 7 * t4 - 3 * t5) * v1
+                    + (10 * t3 - 15 * t4 + 6 * t5) * p1;
+        }
+
+        private static double derivative(double t, double p0, double v0, double p1, double v1) {
+            double t2 = t * t, t3 = t2 * t, t4 = t3 * t;
+            return (-30 * t2 + 60 * t3 - 30 * t4) * p0
+                    + (1 - 18 * t2 + 32 * t3 - 15 * t4) * v0
+                    + (-12 * t2 + 28 * t3 - 15 * t4) * v1
+                    + (30 * t2 - 60 * t3 + 30 * t4) * p1;
+        }
+    }
+}
@@ -63,6 +63,11 @@ public class BlockGripper implements OBMCommand {
         state = State.INITIAL;
     }
 
+    @Override
+    public void finish() {
+        //nothing to release
+    }
+
     @Override
     public boolean isFinished() {
         return state == State.FINISHED;
@@ -3,6 +3,7 @@ package edu.ahs.robotics.control.obm;
 import edu.ahs.robotics.control.MotionConfig;
 import edu.ahs.robotics.control.Path;
 import edu.ahs.robotics.hardware.sensors.OdometrySystem;
+import edu.ahs.robotics.hardware.sensors.PoseTrigger;
 import edu.ahs.robotics.hardware.sensors.TriggerDistanceSensor;
 import edu.ahs.robotics.seasonrobots.Ardennes;
 
@@ -16,6 +17,7 @@ public class FoundationFinder implements OBMCommand {
 
     private Ardennes ardennes;
     private TriggerDistanceSensor foundationTrigger;
+    private PoseTrigger lookTrigger; //watches for startLookingY at odometry rate
     private Path path;
 
     private State state = State.INITIAL;
@@ -36,6 +38,13 @@ public class FoundationFinder implements OBMCommand {
         } else {
             this.foundationTrigger = ardennes.getFoundationTriggerLeft();
         }
+
+        lookTrigger = new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                return state.position.y >= startLookingY;
+            }
+        }; //listens from the first check(), so ticks from before this command's path started don't count
     }
 
     @Override
@@ -44,8 +53,10 @@ public class FoundationFinder implements OBMCommand {
             case FINISHED:
                 return true;
             case INITIAL:
-                if (robotState.position.y >= startLookingY){
+                lookTrigger.listen(ardennes.getOdometrySystem());
+                if (lookTrigger.isTriggered() || robotState.position.y >= startLookingY){
                     state = State.LOOKING;
+                    lookTrigger.stopListening();
                 }
                 break;
             case LOOKING:
@@ -61,6 +72,12 @@ public class FoundationFinder implements OBMCommand {
     @Override
     public void reset() {
         state = State.INITIAL;
+        lookTrigger.stopListening();
+    }
+
+    @Override
+    public void finish() {
+        lookTrigger.stopListening(); //the path can end before startLookingY is reached
     }
 
     @Override
@@ -18,6 +18,11 @@ public class NullCommand implements OBMCommand {
         //do nothing
     }
 
+    @Override
+    public void finish() {
+        //nothing to release
+    }
+
     @Override
     public boolean isFinished() {
         return true;
@@ -15,5 +15,10 @@ public interface OBMCommand {
      */
     boolean check(OdometrySystem.State robotState);
     void reset();
+
+    /**
+     * Called once when the path running this command ends, however it ends. Releases anything check() set up.
+     */
+    void finish();
     boolean isFinished();
 }
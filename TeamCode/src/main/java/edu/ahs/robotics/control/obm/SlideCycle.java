@@ -103,6 +103,11 @@ public class SlideCycle implements OBMCommand{
         state = State.INITIAL;
     }
 
+    @Override
+    public void finish() {
+        //nothing to release
+    }
+
     public boolean isFinished(){
         return state == State.FINISHED;
     }
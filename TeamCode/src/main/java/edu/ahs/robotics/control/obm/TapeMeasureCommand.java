@@ -53,6 +53,11 @@ public class TapeMeasureCommand implements OBMCommand {
         state = State.INITIAL;
     }
 
+    @Override
+    public void finish() {
+        //nothing to release
+    }
+
     @Override
     public boolean isFinished() {
         return state == State.FINISHED;
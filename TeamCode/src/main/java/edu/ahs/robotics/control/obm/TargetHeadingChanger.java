@@ -2,6 +2,7 @@ package edu.ahs.robotics.control.obm;
 
 import edu.ahs.robotics.control.MotionConfig;
 import edu.ahs.robotics.hardware.sensors.OdometrySystem;
+import edu.ahs.robotics.hardware.sensors.PoseTrigger;
 
 /**
  * Takes MotionConfig in use and changes the targetHeading at a specific location on the field.
@@ -13,6 +14,8 @@ public class TargetHeadingChanger implements OBMCommand {
     private double turnY;
     private double idealHeading;
     private boolean finished = false;
+    private PoseTrigger turnTrigger; //null when polling
+    private OdometrySystem odometrySystem;
 
     public TargetHeadingChanger(MotionConfig motionConfig, double idealHeading, double turnY) {
         this.motionConfig = motionConfig;
@@ -20,12 +23,30 @@ public class TargetHeadingChanger implements OBMCommand {
         this.turnY = turnY;
     }
 
+    /**
+     * Watches for turnY on every odometry update instead of only when check() runs. Watching starts on the first check(),
+     * so ticks from before this command's path started don't count, and stops once the heading has changed.
+     */
+    public TargetHeadingChanger(MotionConfig motionConfig, double idealHeading, double turnY, OdometrySystem odometrySystem) {
+        this(motionConfig, idealHeading, turnY);
+        this.odometrySystem = odometrySystem;
+        turnTrigger = PoseTrigger.yAbove(turnY);
+    }
+
     @Override
     public boolean check(OdometrySystem.State robotState) {
         if(!finished){
-            if(robotState.position.y > turnY){ //kind of static logic, can be changed if need be
+            boolean reached = robotState.position.y > turnY;
+            if (turnTrigger != null) {
+                turnTrigger.listen(odometrySystem);
+                reached = reached || turnTrigger.isTriggered();
+            }
+            if(reached){ //kind of static logic, can be changed if need be
                 motionConfig.idealHeading = idealHeading;
                 finished = true;
+                if (turnTrigger != null) {
+                    turnTrigger.stopListening();
+                }
             }
         }
         return false;
@@ -34,6 +55,16 @@ public class TargetHeadingChanger implements OBMCommand {
     @Override
     public void reset() {
         finished = false;
+        if (turnTrigger != null) {
+            turnTrigger.stopListening();
+        }
+    }
+
+    @Override
+    public void finish() {
+        if (turnTrigger != null) {
+            turnTrigger.stopListening(); //the path can end before turnY is reached
+        }
     }
 
     @Override
@@ -0,0 +1,139 @@
+package edu.ahs.robotics.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+/**
+ * Wrapper for a DcMotor that remembers what it last sent, so control loops can set the same power, mode or target every loop
+ * and only changes reach the hub. Powers within epsilon of the last one are skipped, except that stopping, a power of exactly 0,
+ * always goes through. Modes and targets are read back from the cache instead of the hub.
+ * Everything that drives the motor should go through one wrapper, otherwise the cache can't be trusted, see invalidate().
+ */
+public class CachedMotor {
+    public static final double DEFAULT_EPSILON = .001;
+
+    private final DcMotor motor;
+    private final double epsilon;
+
+    private double lastPower = Double.NaN; //NaN until written, so the first write always goes through
+    private DcMotor.RunMode lastMode; //null until written or read
+    private int lastTargetPosition;
+    private boolean hasTargetPosition = false;
+
+    private int writes = 0;
+    private int skippedWrites = 0;
+
+    public CachedMotor(DcMotor motor) {
+        this(motor, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param epsilon Smallest change in power that is written
+     */
+    public CachedMotor(DcMotor motor, double epsilon) {
+        this.motor = motor;
+        this.epsilon = epsilon;
+    }
+
+    public void setPower(double power) {
+        boolean stopping = power == 0 && lastPower != 0;
+        if (!stopping && Math.abs(power - lastPower) < epsilon) {
+            skippedWrites++;
+            return;
+        }
+        motor.setPower(power);
+        lastPower = power;
+        writes++;
+    }
+
+    /**
+     * Last power written, or NaN if none has been.
+     */
+    public double getPower() {
+        return lastPower;
+    }
+
+    /**
+     * STOP_AND_RESET_ENCODER is always written since it does something every time, and it stops the motor,
+     * so the next power is written even if it's the same as before.
+     */
+    public void setMode(DcMotor.RunMode mode) {
+        if (mode == lastMode && mode != DcMotor.RunMode.STOP_AND_RESET_ENCODER) {
+            skippedWrites++;
+            return;
+        }
+        motor.setMode(mode);
+        lastMode = mode;
+        writes++;
+        if (mode == DcMotor.RunMode.STOP_AND_RESET_ENCODER) {
+            lastPower = Double.NaN;
+        }
+    }
+
+    /**
+     * Mode last written, only reading the motor if none has been.
+     */
+    public DcMotor.RunMode getMode() {
+        if (lastMode == null) {
+            lastMode = motor.getMode();
+        }
+        return lastMode;
+    }
+
+    public void setTargetPosition(int position) {
+        if (hasTargetPosition && position == lastTargetPosition) {
+            skippedWrites++;
+            return;
+        }
+        motor.setTargetPosition(position);
+        lastTargetPosition = position;
+        hasTargetPosition = true;
+        writes++;
+    }
+
+    /**
+     * Target last written, only reading the motor if none has been.
+     */
+    public int getTargetPosition() {
+        if (!hasTargetPosition) {
+            lastTargetPosition = motor.getTargetPosition();
+            hasTargetPosition = true;
+        }
+        return lastTargetPosition;
+    }
+
+    /**
+     * Set once at init, so these are written straight through.
+     */
+    public void setDirection(DcMotorSimple.Direction direction) {
+        motor.setDirection(direction);
+    }
+
+    public void setZeroPowerBehavior(DcMotor.ZeroPowerBehavior behavior) {
+        motor.setZeroPowerBehavior(behavior);
+    }
+
+    /**
+     * Forgets everything cached, for when something outside this wrapper has changed the motor.
+     */
+    public void invalidate() {
+        lastPower = Double.NaN;
+        lastMode = null;
+        hasTargetPosition = false;
+    }
+
+    /**
+     * The wrapped motor, for reading encoders. Writing to it directly goes around the cache.
+     */
+    public DcMotor getMotor() {
+        return motor;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    public int getSkippedWrites() {
+        return skippedWrites;
+    }
+}
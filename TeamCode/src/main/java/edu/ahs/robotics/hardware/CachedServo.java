@@ -0,0 +1,72 @@
+package edu.ahs.robotics.hardware;
+
+import com.qualcomm.robotcore.hardware.Servo;
+
+/**
+ * Wrapper for a Servo that skips positions within epsilon of the last one written, the servo version of CachedMotor.
+ * Positions are read back from the cache instead of the hub.
+ */
+public class CachedServo {
+    public static final double DEFAULT_EPSILON = .001;
+
+    private final Servo servo;
+    private final double epsilon;
+
+    private double lastPosition = Double.NaN; //NaN until written
+
+    private int writes = 0;
+    private int skippedWrites = 0;
+
+    public CachedServo(Servo servo) {
+        this(servo, DEFAULT_EPSILON);
+    }
+
+    /**
+     * @param epsilon Smallest change in position that is written
+     */
+    public CachedServo(Servo servo, double epsilon) {
+        this.servo = servo;
+        this.epsilon = epsilon;
+    }
+
+    public void setPosition(double position) {
+        if (Math.abs(position - lastPosition) < epsilon) {
+            skippedWrites++;
+            return;
+        }
+        servo.setPosition(position);
+        lastPosition = position;
+        writes++;
+    }
+
+    /**
+     * Position last written, only reading the servo if none has been.
+     */
+    public double getPosition() {
+        if (Double.isNaN(lastPosition)) {
+            return servo.getPosition();
+        }
+        return lastPosition;
+    }
+
+    public void setDirection(Servo.Direction direction) {
+        servo.setDirection(direction);
+        lastPosition = Double.NaN;
+    }
+
+    /**
+     * Rescaling moves the servo for the same position, so the next position is always written.
+     */
+    public void scaleRange(double min, double max) {
+        servo.scaleRange(min, max);
+        lastPosition = Double.NaN;
+    }
+
+    public int getWrites() {
+        return writes;
+    }
+
+    public int getSkippedWrites() {
+        return skippedWrites;
+    }
+}
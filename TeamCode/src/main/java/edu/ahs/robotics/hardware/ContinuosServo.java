@@ -1,15 +1,28 @@
 package edu.ahs.robotics.hardware;
 
+import com.qualcomm.robotcore.hardware.CRServo;
+
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 
+/**
+ * A continuous rotation servo that skips powers within epsilon of the last one written, like CachedMotor. Stopping always goes through.
+ */
 public class ContinuosServo {
-    private com.qualcomm.robotcore.hardware.CRServo servo;
+    public static final double DEFAULT_EPSILON = .001;
+
+    private CRServo servo;
+    private double lastPower = Double.NaN; //NaN until written
 
     public ContinuosServo(String deviceName) {
         servo = FTCUtilities.getCRServo(deviceName);
     }
 
     public void setPower(double power){
+        boolean stopping = power == 0 && lastPower != 0;
+        if (!stopping && Math.abs(power - lastPower) < DEFAULT_EPSILON) {
+            return;
+        }
         servo.setPower(power);
+        lastPower = power;
     }
 }
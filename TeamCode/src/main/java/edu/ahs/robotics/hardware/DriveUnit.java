@@ -11,12 +11,12 @@ public abstract class DriveUnit {
     protected Config config;
     protected double wheelCircumference;
     protected String deviceName;
-    protected DcMotor motor;
+    protected CachedMotor motor;
 
 
 
     public DriveUnit(String deviceName, Config config, boolean flipped) {
-        motor = FTCUtilities.getMotor(deviceName);
+        motor = FTCUtilities.getCachedMotor(deviceName);
         wheelCircumference = config.wheelDiameter * Math.PI;
         this.config = config;
         this.flipped = flipped;
@@ -8,14 +8,14 @@ import edu.ahs.robotics.hardware.sensors.TriggerDistanceSensor;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 
 public class Intake { //todo make a one or two motor alternate to intake class
-    private DcMotor leftMotor;
-    private DcMotor rightMotor;
+    private CachedMotor leftMotor;
+    private CachedMotor rightMotor;
     private double motorPower;
     //private BlockMonitor blockMonitor;
 
     public Intake(double motorPower) {
-        leftMotor = FTCUtilities.getMotor("intakeL");
-        rightMotor = FTCUtilities.getMotor("intakeR");
+        leftMotor = FTCUtilities.getCachedMotor("intakeL");
+        rightMotor = FTCUtilities.getCachedMotor("intakeR");
 
         leftMotor.setDirection(DcMotorSimple.Direction.REVERSE);
         rightMotor.setDirection(DcMotorSimple.Direction.FORWARD);
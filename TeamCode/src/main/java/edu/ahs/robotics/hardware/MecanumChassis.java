@@ -5,8 +5,11 @@ import com.qualcomm.robotcore.util.Range;
 
 import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
 
+import edu.ahs.robotics.control.AdaptiveLookAhead;
 import edu.ahs.robotics.control.MotionConfig;
 import edu.ahs.robotics.control.Path;
+import edu.ahs.robotics.control.PathChain;
+import edu.ahs.robotics.control.PathStats;
 import edu.ahs.robotics.control.Vector;
 import edu.ahs.robotics.control.pid.PositionPID;
 import edu.ahs.robotics.control.Position;
@@ -28,6 +31,9 @@ public class MecanumChassis extends Chassis {
     private static final double LEFT_INITIAL_SHIFT = 0;
     private static final double LEFT_INITIAL_SCALE = 1;
     public static final double RIGHT_AMPLIFIER = 1;
+    //added before the first line so they make the header, filled once per path by logPathStats()
+    private static final String[] PATH_STATS_CATEGORIES = {"path finished", "path millis", "path loops",
+            "mean tracking error", "rms tracking error", "max tracking error", "mean look ahead"};
 
     //Logger logger = new Logger("Mecanum Chassis Old Code", "mecanumChassis");
     private DataLogger logger;
@@ -48,6 +54,13 @@ public class MecanumChassis extends Chassis {
     private Odometer leftOdometer;
     private Odometer rightOdometer;
 
+    //reused by control loops so polling odometry doesn't allocate. kept separate so driveTowardsPoint can't overwrite a loop's snapshot
+    private OdometrySystem.State loopState = new OdometrySystem.State();
+    private OdometrySystem.State driveState = new OdometrySystem.State();
+    private Path.Location loopLocation = new Path.Location(); //refilled by Path.query() every followPath loop
+    private AdaptiveLookAhead adaptiveLookAhead = new AdaptiveLookAhead();
+    private PathStats lastPathStats = new PathStats();
+
 
     public MecanumChassis(DriveUnit.Config driveUnitConfig, OdometrySystem odometrySystem) {
         super();
@@ -170,7 +183,7 @@ public class MecanumChassis extends Chassis {
     }
 
     public void driveTowardsPoint(Point target, double power, MotionConfig motionConfig){
-        Position robotPosition = odometrySystem.getState().position;
+        Position robotPosition = odometrySystem.getState(driveState).position;
 
         DriveCommand d = getDriveTowardsPointCommands(target, power, robotPosition, motionConfig);
 
@@ -191,10 +204,28 @@ public class MecanumChassis extends Chassis {
         v.scale(power);
 
         double turnOutput;
+        double curvature = 0; //only for pure pursuit, logged either way so the columns line up
 
         double distanceToTarget = target.distanceTo(robotPosition);
         if(distanceToTarget < motionConfig.turnCutoff){
             turnOutput = 0.0;
+        } else if (motionConfig.followerMode == MotionConfig.FollowerMode.PURE_PURSUIT) {
+            curvature = getPurePursuitCurvature(localAngleToPoint, distanceToTarget, motionConfig);
+            v = Vector.makeUnitVector(getPurePursuitDirection(localAngleToPoint, curvature, power, motionConfig));
+            v.scale(power);
+            turnOutput = getPurePursuitTurn(curvature, power, motionConfig);
+
+            //keep the ratio of turn to travel, which is the arc, when the wheels can't do both
+            double scale = 1;
+            if (Math.abs(turnOutput) > motionConfig.turnPower) {
+                scale = motionConfig.turnPower / Math.abs(turnOutput);
+            }
+            double wheelPower = (Math.abs(v.x) + Math.abs(v.y) + Math.abs(turnOutput)) * scale;
+            if (wheelPower > 1) {
+                scale /= wheelPower;
+            }
+            v.scale(scale);
+            turnOutput *= scale;
         } else {
             double angleError = FTCMath.ensureIdealAngle(localAngleToPoint - motionConfig.idealHeading);
             turnOutput = Range.clip(angleError * motionConfig.turnAggression,-1,1) * motionConfig.turnPower; // local angle to point can be interpreted as error
@@ -209,6 +240,7 @@ public class MecanumChassis extends Chassis {
         logger.append("turn output", String.valueOf(turnOutput));
         logger.append("global angle to point", String.valueOf(globalAngleToPoint));
         logger.append("local angle to point", String.valueOf(localAngleToPoint));
+        logger.append("curvature", String.valueOf(curvature));
 
         logger.writeLine();
 
@@ -216,6 +248,37 @@ public class MecanumChassis extends Chassis {
         return new DriveCommand(v,turnOutput);
     }
 
+    /**
+     * Pure pursuit curvature, 1 over the radius of the arc that leaves the robot along idealHeading and passes through the target.
+     * Positive curves counterclockwise. A target more than 90 degrees off the direction of travel gets the tightest arc toward it,
+     * as the arc through it would wrap away from the target.
+     * @param localAngleToPoint Angle to the target relative to the robot's heading
+     */
+    static double getPurePursuitCurvature(double localAngleToPoint, double distanceToTarget, MotionConfig motionConfig) {
+        double angleOffTravel = FTCMath.ensureIdealAngle(localAngleToPoint - motionConfig.idealHeading);
+        double lateral = Math.abs(angleOffTravel) < Math.PI / 2 ? Math.sin(angleOffTravel) : Math.signum(angleOffTravel);
+        return 2 * lateral / distanceToTarget;
+    }
+
+    /**
+     * Local direction to translate in, the arc's direction purePursuitLead seconds along it, so the wheels are already turning
+     * into the arc by the time the drive catches up. Never past the straight line to the target, which is the arc's direction halfway.
+     */
+    static double getPurePursuitDirection(double localAngleToPoint, double curvature, double power, MotionConfig motionConfig) {
+        double angleOffTravel = Math.abs(FTCMath.ensureIdealAngle(localAngleToPoint - motionConfig.idealHeading));
+        double turned = curvature * (power / motionConfig.kV) * motionConfig.purePursuitLead;
+        return motionConfig.idealHeading + Range.clip(turned, -angleOffTravel, angleOffTravel);
+    }
+
+    /**
+     * Turn power that rotates the robot at speed * curvature, so the direction of travel follows the arc.
+     * Speed comes from power through kV, which is 1 over the speed at full power.
+     */
+    static double getPurePursuitTurn(double curvature, double power, MotionConfig motionConfig) {
+        double speed = power / motionConfig.kV;
+        return speed * curvature / motionConfig.maxTurnRate;
+    }
+
     /**
      * Contains driving info for testability for driveTowardsPoint
      * Protected for testing
@@ -372,12 +435,13 @@ public class MecanumChassis extends Chassis {
     public void globalPointTurn(double targetAngle, double turnAggression, long timeOut){
         final double TURN_POWER_MINIMUM = 0.3;
 
-        double turnError = Math.abs(targetAngle - getState().position.heading);
+        double turnError = Math.abs(targetAngle - odometrySystem.getState(loopState).position.heading);
         double startTime = FTCUtilities.getCurrentTimeMillis();
 
         while (turnError > 0.05 && FTCUtilities.getCurrentTimeMillis() - startTime < timeOut && FTCUtilities.opModeIsActive()){
-            turnError = Math.abs(targetAngle - getState().position.heading);
-            int turnSign = (int) Math.signum(targetAngle - getState().position.heading);
+            double heading = odometrySystem.getState(loopState).position.heading;
+            turnError = Math.abs(targetAngle - heading);
+            int turnSign = (int) Math.signum(targetAngle - heading);
             double errorTurnPower = (turnError * turnAggression);
 
             double turnPower = turnSign * Math.max(errorTurnPower, TURN_POWER_MINIMUM);
@@ -464,31 +528,144 @@ public class MecanumChassis extends Chassis {
     }
 
     public void followPath(Path path, MotionConfig motionConfig) {
-        long startTime = FTCUtilities.getCurrentTimeMillis();
-        OdometrySystem.State state;
-        Path.Location location;
+        setDataLogger("partialPursuit");
+
+        if(!logger.isWriting()) {
+            logger.startWriting();
+        }
+        for (String category : PATH_STATS_CATEGORIES) {
+            logger.addCategory(category);
+        }
 
+        followLink(path, motionConfig, false, null, null);
+    }
+
+    /**
+     * Follows each path in a chain in turn. Paths blend into the next without stopping unless the chain says to stop, see PathChain.
+     */
+    public void followPathChain(PathChain chain) {
         setDataLogger("partialPursuit");
 
         if(!logger.isWriting()) {
             logger.startWriting();
         }
+        for (String category : PATH_STATS_CATEGORIES) {
+            logger.addCategory(category);
+        }
+
+        for (int i = 0; i < chain.size() && FTCUtilities.opModeIsActive(); i++) {
+            PathChain.Link link = chain.get(i);
+            boolean entering = i > 0 && chain.getBlendTarget(i - 1) != null;
+            Path next = chain.getBlendTarget(i);
+            MotionConfig nextConfig = next == null || !link.carriesPower() ? null : chain.get(i + 1).motionConfig;
+            followLink(link.path, link.motionConfig, entering, next, nextConfig);
+            if (link.stopsAtEnd()) {
+                stopMotors();
+            }
+            if (link.getAction() != null) {
+                link.getAction().run();
+            }
+        }
+    }
+
+    /**
+     * The followPath loop. If next isn't null, the look ahead point runs on into it near the end of path, and if nextConfig
+     * isn't null the robot keeps at least next's starting power through the junction, otherwise path's own power.
+     * @param entering The robot comes in moving from the path before, so a profiled path's profile starts at its speed
+     */
+    private void followLink(Path path, MotionConfig motionConfig, boolean entering, Path next, MotionConfig nextConfig) {
+        long startTime = FTCUtilities.getCurrentTimeMillis();
+        OdometrySystem.State state;
+        Path.Location location = loopLocation;
+        boolean finished;
+        boolean brokenByCommand = false;
+        boolean firstLoop = true;
+        double profileStartSeconds = 0;
+        adaptiveLookAhead.reset();
+        lastPathStats.reset();
 
         do{
-            state = odometrySystem.getState();
-            location = path.getTargetLocation(state.position, motionConfig.lookAheadDistance);
+            state = odometrySystem.getState(loopState);
+            finished = path.query(state.position, motionConfig.lookAheadDistance, location);
+            double lookAheadDistance = adaptiveLookAhead.update(motionConfig, path.getCompiledPath(), location.distanceFromStart,
+                    state.velocity.speed(), FTCUtilities.getCurrentTimeMillis());
+            if (motionConfig.adaptiveLookAhead) {
+                path.setLookAhead(lookAheadDistance, location); //the look ahead depends on where query() found the robot
+            }
+            if (motionConfig.followerMode == MotionConfig.FollowerMode.PURE_PURSUIT) {
+                path.intersectLookAhead(state.position, lookAheadDistance, location);
+            }
 
             double power = location.power;
+            if (location.profiled) {
+                if (firstLoop && entering) {
+                    profileStartSeconds = path.enterProfile(state.velocity.speed(), location.distanceFromStart);
+                }
+                path.setProfileTargets(profileStartSeconds + (FTCUtilities.getCurrentTimeMillis() - startTime) / 1000.0, location);
+                power = motionConfig.getProfiledPower(location.targetVelocity, location.targetAcceleration,
+                        location.targetDistance - location.distanceFromStart);
+            }
+
+            if (next != null && location.distanceToEnd < lookAheadDistance) {
+                next.getPointAtDistance(lookAheadDistance - Math.max(0, location.distanceToEnd), location.futurePoint);
+                if (nextConfig != null) {
+                    power = Math.max(power, getStartingPower(next, nextConfig, state.velocity.speed()));
+                }
+            }
 
-            logger.append("isFinished", String.valueOf(path.isFinished(state.position)));
+            double trackingError = Math.hypot(state.position.x - location.closestPoint.x, state.position.y - location.closestPoint.y);
+            lastPathStats.record(trackingError, lookAheadDistance);
+
+            logger.append("isFinished", String.valueOf(finished));
+            logger.append("target velocity", String.valueOf(location.targetVelocity));
+            logger.append("look ahead", String.valueOf(lookAheadDistance));
 
             driveTowardsPoint(location.futurePoint, power, motionConfig);
+            odometrySystem.addTelemetry(); //the op modes that follow paths don't send telemetry themselves
+            FTCUtilities.updateOpLogger();
 
             if (motionConfig.checkOBMCommands(state)){ //OBMCommands can break the loop. also checks all obmCommands.
+                brokenByCommand = true;
                 break;
             }
+            firstLoop = false;
 
-        } while (!path.isFinished(state.position) && FTCUtilities.opModeIsActive() && FTCUtilities.getCurrentTimeMillis() - startTime < motionConfig.timeOut);
+        } while (!finished && FTCUtilities.opModeIsActive() && FTCUtilities.getCurrentTimeMillis() - startTime < motionConfig.timeOut);
+        motionConfig.finishOBMCommands();
+
+        lastPathStats.finish(FTCUtilities.getCurrentTimeMillis() - startTime, finished && !brokenByCommand);
+        logPathStats();
+    }
+
+    /**
+     * Writes lastPathStats as a line of its own, blank in the loop's columns.
+     */
+    private void logPathStats() {
+        logger.append(PATH_STATS_CATEGORIES[0], String.valueOf(lastPathStats.finished));
+        logger.append(PATH_STATS_CATEGORIES[1], String.valueOf(lastPathStats.durationMillis));
+        logger.append(PATH_STATS_CATEGORIES[2], String.valueOf(lastPathStats.loops));
+        logger.append(PATH_STATS_CATEGORIES[3], String.valueOf(lastPathStats.meanTrackingError));
+        logger.append(PATH_STATS_CATEGORIES[4], String.valueOf(lastPathStats.rmsTrackingError));
+        logger.append(PATH_STATS_CATEGORIES[5], String.valueOf(lastPathStats.maxTrackingError));
+        logger.append(PATH_STATS_CATEGORIES[6], String.valueOf(lastPathStats.meanLookAhead));
+        logger.writeLine();
+    }
+
+    /**
+     * Stats from the most recent followPath, or the last path of the most recent followPathChain. Overwritten by the next one.
+     */
+    public PathStats getLastPathStats() {
+        return lastPathStats;
+    }
+
+    /**
+     * Power path starts at when entered at a speed. A profiled path starts at the speed it's entered with, see Path.enterProfile().
+     */
+    private double getStartingPower(Path path, MotionConfig motionConfig, double speed) {
+        if (path.getMotionProfile() != null) {
+            return motionConfig.getFeedforwardPower(path.getEntryVelocity(speed), 0);
+        }
+        return path.getCompiledPath().getPower(0);
     }
 
     /**
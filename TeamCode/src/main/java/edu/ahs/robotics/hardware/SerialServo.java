@@ -10,7 +10,7 @@ import edu.ahs.robotics.util.ftc.FTCUtilities;
  * @see Servo
  */
 public class SerialServo {
-    private Servo servo;
+    private CachedServo servo;
 
     private TimeControlState state;
 
@@ -28,7 +28,7 @@ public class SerialServo {
     }
 
     public SerialServo(String deviceName, boolean reverse) {
-        servo = FTCUtilities.getSerialServo(deviceName);
+        servo = new CachedServo(FTCUtilities.getSerialServo(deviceName));
         if(reverse){
             servo.setDirection(Servo.Direction.REVERSE);
         } else {
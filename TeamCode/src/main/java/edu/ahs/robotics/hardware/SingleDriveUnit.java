@@ -6,10 +6,13 @@ import com.qualcomm.robotcore.util.Range;
 
 import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
 
+import edu.ahs.robotics.hardware.sensors.Encoder;
 import edu.ahs.robotics.util.MotorHashService;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
 
 
 public class SingleDriveUnit extends DriveUnit{
+    private Encoder encoder;
 
     public SingleDriveUnit(String deviceName ,Config config, boolean flipped) {
         super(deviceName, config, flipped);
@@ -25,6 +28,8 @@ public class SingleDriveUnit extends DriveUnit{
         else{motor.setDirection(DcMotorSimple.Direction.FORWARD);
         }
 
+        encoder = FTCUtilities.getEncoder(motor.getMotor());
+
     }
 
     public void setPower(double motorPower){
@@ -34,6 +39,7 @@ public class SingleDriveUnit extends DriveUnit{
     public void zeroDistance(){
         motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        FTCUtilities.getBulkReadCache().invalidate(); //don't serve ticks from before the reset
     }
 
     public void setZeroPowerBehavior(DcMotor.ZeroPowerBehavior behavior){
@@ -42,7 +48,7 @@ public class SingleDriveUnit extends DriveUnit{
 
     public double getDistance (){
         double ticksPerRotation = MotorHashService.getTicks(config.getMotorType());
-        double rotations = motor.getCurrentPosition()/ticksPerRotation;
+        double rotations = encoder.getCurrentPosition()/ticksPerRotation;
         double rotationsAfterGears = rotations*config.getGearRatio().getRatioAsDouble();
         double inchesTraveled = wheelCircumference * rotationsAfterGears;
         return inchesTraveled;
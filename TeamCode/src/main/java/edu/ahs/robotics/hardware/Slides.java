@@ -3,11 +3,11 @@ package edu.ahs.robotics.hardware;
 import android.os.Debug;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
-import com.qualcomm.robotcore.hardware.DcMotorEx;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.Gamepad;
 import com.qualcomm.robotcore.util.Range;
 
+import edu.ahs.robotics.hardware.sensors.Encoder;
 import edu.ahs.robotics.hardware.sensors.LimitSwitch;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 import edu.ahs.robotics.util.ftc.Switch;
@@ -17,8 +17,9 @@ import edu.ahs.robotics.util.ftc.Switch;
  */
 public class Slides {
 
-    private DcMotorEx leftMotor;
-    private DcMotorEx rightMotor;
+    private CachedMotor leftMotor;
+    private CachedMotor rightMotor;
+    private Encoder leftEncoder, rightEncoder; //both slide motors share a hub, so reading both costs one bulk read
     private LimitSwitch limitSwitch;
     private LimitSwitch limitSwitch2;
 
@@ -92,8 +93,8 @@ public class Slides {
      */
 
     public Slides (){
-        leftMotor = FTCUtilities.getMotorEx("slideL");
-        rightMotor = FTCUtilities.getMotorEx("slideR");
+        leftMotor = FTCUtilities.getCachedMotor(FTCUtilities.getMotorEx("slideL"));
+        rightMotor = FTCUtilities.getCachedMotor(FTCUtilities.getMotorEx("slideR"));
 
         leftMotor.setDirection(DcMotorSimple.Direction.REVERSE);
         rightMotor.setDirection(DcMotorSimple.Direction.FORWARD);
@@ -104,6 +105,9 @@ public class Slides {
         leftMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         rightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
 
+        leftEncoder = FTCUtilities.getEncoder(leftMotor.getMotor());
+        rightEncoder = FTCUtilities.getEncoder(rightMotor.getMotor());
+
         limitSwitch = new LimitSwitch("limitSwitch", true);
         limitSwitch2 = new LimitSwitch("limitSwitch2", true);
 
@@ -132,10 +136,8 @@ public class Slides {
     }
 
     private void resetSlidesMode() {
-        if(leftMotor.getMode() != DcMotor.RunMode.RUN_WITHOUT_ENCODER){
-            leftMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-            rightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
-        }
+        leftMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER); //cached, only written when the mode changes
+        rightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
     }
 
     /**
@@ -149,6 +151,7 @@ public class Slides {
         rightMotor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         leftMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
         rightMotor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        FTCUtilities.getBulkReadCache().invalidate(); //don't serve ticks from before the reset
     }
 
     /**
@@ -191,7 +194,7 @@ public class Slides {
      * @return returns average slide height calculated by motor encoders.
      */
     public int getCurrentPosition() {
-        return (leftMotor.getCurrentPosition() + rightMotor.getCurrentPosition())/2; //note integer division
+        return (leftEncoder.getCurrentPosition() + rightEncoder.getCurrentPosition())/2; //note integer division
     }
 
     /**
@@ -245,14 +248,10 @@ public class Slides {
     }
 
     private void autoControl(int targetPosition){
-        if(leftMotor.getTargetPosition() != targetPosition){
-            setTargetPositions(targetPosition);
-        }
-
-        if(leftMotor.getMode() != DcMotor.RunMode.RUN_TO_POSITION){
-            leftMotor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-            rightMotor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
-        }
+        //all cached, so holding a level every loop writes nothing
+        setTargetPositions(targetPosition);
+        leftMotor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
+        rightMotor.setMode(DcMotor.RunMode.RUN_TO_POSITION);
 
         leftMotor.setPower(.7);
         rightMotor.setPower(.7);
@@ -0,0 +1,117 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Reads a HeadingSensor on its own thread so a slow I2C read never stalls the odometry loop.
+ * Each reading is stamped with the middle of the read and left in a single slot mailbox, newer readings replace older ones.
+ * The mailbox is a seqlock like OdometrySystemImpl's, so the odometry thread never blocks on it.
+ */
+public class AsyncHeadingReader {
+    private HeadingSensor sensor;
+    private long periodMillis;
+
+    private volatile int sequence = 0;
+    private volatile double heading; //radians
+    private volatile long timeNanos;
+    private volatile long sampleCount = 0;
+
+    private long lastPolledCount = 0; //only touched by the polling thread
+
+    private ReaderThread readerThread;
+
+    /**
+     * @param sensor Sensor to read
+     * @param periodMillis Time between reads. The BNO055 updates at 100 hz, so there is little point going below 10.
+     */
+    public AsyncHeadingReader(HeadingSensor sensor, long periodMillis) {
+        this.sensor = sensor;
+        this.periodMillis = periodMillis;
+    }
+
+    public void start() {
+        readerThread = new ReaderThread();
+        readerThread.start();
+    }
+
+    public void stop() {
+        if (readerThread != null) {
+            readerThread.end();
+        }
+    }
+
+    /**
+     * Reads the sensor once on the calling thread and posts the result.
+     */
+    public void read() {
+        long before = FTCUtilities.getCurrentTimeNanos();
+        double degrees = sensor.getHeading();
+        long after = FTCUtilities.getCurrentTimeNanos();
+        post(Math.toRadians(degrees), before + (after - before) / 2);
+    }
+
+    /**
+     * Puts a reading in the mailbox. Only one thread may post.
+     * @param headingRadians Heading, counterclockwise positive
+     * @param timeNanos When the heading was measured, from FTCUtilities.getCurrentTimeNanos()
+     */
+    public void post(double headingRadians, long timeNanos) {
+        sequence++;
+        heading = headingRadians;
+        this.timeNanos = timeNanos;
+        sampleCount++;
+        sequence++;
+    }
+
+    /**
+     * Takes the newest reading if there has been one since the last poll. Only one thread may poll.
+     * @param out Filled with the reading if there is a new one
+     * @return true if out was filled
+     */
+    public boolean poll(Sample out) {
+        int start;
+        long count;
+        do {
+            start = sequence;
+            count = sampleCount;
+            out.heading = heading;
+            out.timeNanos = timeNanos;
+        } while ((start & 1) != 0 || start != sequence);
+
+        if (count == lastPolledCount) {
+            return false;
+        }
+        lastPolledCount = count;
+        return true;
+    }
+
+    /**
+     * A timestamped heading reading, reused between polls.
+     */
+    public static class Sample {
+        public double heading;
+        public long timeNanos;
+    }
+
+    private class ReaderThread extends Thread {
+        private volatile boolean running;
+
+        @Override
+        public void run() {
+            running = true;
+            while (running) {
+                read();
+                try {
+                    Thread.sleep(periodMillis);
+                } catch (InterruptedException e) {
+                    return; //stop() interrupts to cut the sleep short
+                }
+            }
+        }
+
+        private void end() {
+            running = false;
+            interrupt();
+        }
+    }
+}
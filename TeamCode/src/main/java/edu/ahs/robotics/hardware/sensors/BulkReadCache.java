@@ -0,0 +1,155 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+import com.qualcomm.robotcore.hardware.DcMotorController;
+import com.qualcomm.robotcore.hardware.DcMotorSimple;
+
+import org.firstinspires.ftc.robotcore.external.navigation.Rotation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-cycle snapshot of every encoder port on every hub. The first read after invalidate() reads the whole hub once,
+ * and every other encoder on that hub is served from the snapshot until the next invalidate().
+ * Call invalidate() once at the top of each control loop. As a safety net, a snapshot older than the max age is also refreshed,
+ * so loops that never invalidate still see fresh values.
+ * Threadsafe, the odometry thread and the op mode loop share one cache.
+ */
+public class BulkReadCache {
+    public static final long DEFAULT_MAX_AGE_NANOS = 10_000_000L;
+
+    private final long maxAgeNanos;
+
+    private List<EncoderHub> hubs = new ArrayList<>();
+    private List<int[]> snapshots = new ArrayList<>();
+    private boolean[] fresh = new boolean[0];
+    private long[] readTimes = new long[0];
+    private Map<DcMotorController, Integer> hubsByController = new HashMap<>();
+
+    private long hardwareReads = 0;
+    private long invalidations = 0;
+
+    public BulkReadCache() {
+        this(DEFAULT_MAX_AGE_NANOS);
+    }
+
+    /**
+     * @param maxAgeNanos Oldest a snapshot can get before it is refreshed without an invalidate(). Long.MAX_VALUE to only refresh on invalidate().
+     */
+    public BulkReadCache(long maxAgeNanos) {
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    /**
+     * Registers a hub with the cache.
+     * @return Index used to read from the hub
+     */
+    public synchronized int addHub(EncoderHub hub) {
+        hubs.add(hub);
+        snapshots.add(new int[hub.getPortCount()]);
+
+        boolean[] newFresh = new boolean[hubs.size()];
+        long[] newReadTimes = new long[hubs.size()];
+        System.arraycopy(fresh, 0, newFresh, 0, fresh.length);
+        System.arraycopy(readTimes, 0, newReadTimes, 0, readTimes.length);
+        fresh = newFresh;
+        readTimes = newReadTimes;
+
+        return hubs.size() - 1;
+    }
+
+    /**
+     * Creates an encoder for a motor's port, served from a bulk read of the hub the motor is plugged into.
+     */
+    public synchronized Encoder getEncoder(DcMotor motor) {
+        DcMotorController controller = motor.getController();
+        Integer hub = hubsByController.get(controller);
+        if (hub == null) {
+            hub = addHub(new LynxEncoderHub(controller));
+            hubsByController.put(controller, hub);
+        }
+        return new CachedEncoder(hub, motor.getPortNumber(), motor);
+    }
+
+    /**
+     * Creates an encoder reading the raw value of a port. No motor direction is applied.
+     */
+    public Encoder getEncoder(int hub, int port) {
+        return new CachedEncoder(hub, port, null);
+    }
+
+    /**
+     * Raw position of a port from this cycle's snapshot, reading the hub if it hasn't been read yet this cycle.
+     */
+    public synchronized int getPosition(int hub, int port) {
+        long now = System.nanoTime();
+        if (!fresh[hub] || now - readTimes[hub] > maxAgeNanos) {
+            hubs.get(hub).readAll(snapshots.get(hub));
+            fresh[hub] = true;
+            readTimes[hub] = now;
+            hardwareReads++;
+        }
+        return snapshots.get(hub)[port];
+    }
+
+    /**
+     * Starts a new cycle. The next read from each hub goes to hardware.
+     */
+    public synchronized void invalidate() {
+        for (int i = 0; i < fresh.length; i++) {
+            fresh[i] = false;
+        }
+        invalidations++;
+    }
+
+    /**
+     * @return Total number of hub reads, for checking how many reads a loop actually costs
+     */
+    public synchronized long getHardwareReadCount() {
+        return hardwareReads;
+    }
+
+    public synchronized long getInvalidationCount() {
+        return invalidations;
+    }
+
+    public synchronized int getHubCount() {
+        return hubs.size();
+    }
+
+    private class CachedEncoder implements Encoder {
+        private final int hub;
+        private final int port;
+        private final DcMotor motor; //null for raw ports
+
+        private CachedEncoder(int hub, int port, DcMotor motor) {
+            this.hub = hub;
+            this.port = port;
+            this.motor = motor;
+        }
+
+        @Override
+        public int getCurrentPosition() {
+            int position = getPosition(hub, port);
+            return isReversed() ? -position : position;
+        }
+
+        /**
+         * Mirrors DcMotorImpl - the controller reports raw ticks, the motor flips them for REVERSE and for motor types that spin CCW.
+         * Checked on every read since direction is often set after the encoder is created.
+         */
+        private boolean isReversed() {
+            if (motor == null) {
+                return false;
+            }
+            boolean reversed = motor.getDirection() == DcMotorSimple.Direction.REVERSE;
+            if (motor.getMotorType() != null && motor.getMotorType().getOrientation() == Rotation.CCW) {
+                reversed = !reversed;
+            }
+            return reversed;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * A source of encoder ticks, so consumers don't care whether a value comes straight from a DcMotor or from a bulk read.
+ */
+public interface Encoder {
+    /**
+     * @return Encoder position in ticks, with the motor's direction applied the same way DcMotor.getCurrentPosition() does.
+     */
+    int getCurrentPosition();
+}
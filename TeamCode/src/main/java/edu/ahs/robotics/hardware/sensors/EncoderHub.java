@@ -0,0 +1,15 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * A group of encoder ports that can all be read in a single hardware transaction, like the four motor ports on a hub.
+ * Interface to enable mocking in BulkReadCache tests.
+ */
+public interface EncoderHub {
+    int getPortCount();
+
+    /**
+     * Reads every port at once. Raw values, no motor direction applied.
+     * @param positions Filled with one value per port, at least getPortCount() long
+     */
+    void readAll(int[] positions);
+}
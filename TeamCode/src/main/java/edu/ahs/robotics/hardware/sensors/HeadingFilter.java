@@ -0,0 +1,86 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * One dimensional Kalman filter for heading. Wheel odometry drives the prediction and grows the uncertainty as the robot turns and drives,
+ * absolute heading measurements (IMU) pull the estimate back and shrink it.
+ * The filter only tracks variance - OdometrySystemImpl owns the heading itself and applies the corrections this returns.
+ * The variances are the tuning knobs. Bigger wheel variance trusts the IMU more, bigger measurement variance trusts the wheels more.
+ */
+public class HeadingFilter {
+    /**
+     * Defaults tuned for dead wheels and a BNO055. All variances in radians squared.
+     */
+    public static final double DEFAULT_WHEEL_VARIANCE_PER_RADIAN = 1e-3;
+    public static final double DEFAULT_WHEEL_VARIANCE_PER_SECOND = 1e-6;
+    public static final double DEFAULT_MEASUREMENT_VARIANCE = Math.pow(Math.toRadians(1), 2);
+
+    private double wheelVariancePerRadian;
+    private double wheelVariancePerSecond;
+    private double measurementVariance;
+
+    private double variance = 0; //robot starts exactly where setPosition put it
+
+    public HeadingFilter() {
+        this(DEFAULT_WHEEL_VARIANCE_PER_RADIAN, DEFAULT_WHEEL_VARIANCE_PER_SECOND, DEFAULT_MEASUREMENT_VARIANCE);
+    }
+
+    /**
+     * @param wheelVariancePerRadian Uncertainty added per radian of wheel measured turning, models slip
+     * @param wheelVariancePerSecond Uncertainty added per second regardless of motion, models drift
+     * @param measurementVariance Noise of a single absolute heading measurement
+     */
+    public HeadingFilter(double wheelVariancePerRadian, double wheelVariancePerSecond, double measurementVariance) {
+        if (wheelVariancePerRadian < 0 || wheelVariancePerSecond < 0 || !(measurementVariance > 0)) {
+            throw new IllegalArgumentException("Variances must be non-negative, and measurement variance must be positive");
+        }
+        this.wheelVariancePerRadian = wheelVariancePerRadian;
+        this.wheelVariancePerSecond = wheelVariancePerSecond;
+        this.measurementVariance = measurementVariance;
+    }
+
+    /**
+     * Grows the uncertainty for one odometry update.
+     * @param dHeading Heading change measured by the wheels, in radians
+     * @param dtSeconds Time since the last update
+     */
+    public void predict(double dHeading, double dtSeconds) {
+        variance += wheelVariancePerRadian * Math.abs(dHeading) + wheelVariancePerSecond * Math.max(0, dtSeconds);
+    }
+
+    /**
+     * Folds in an absolute measurement.
+     * @param innovation Measured heading minus the estimated heading at the time of the measurement, in radians
+     * @return Correction to add to the current heading estimate
+     */
+    public double correct(double innovation) {
+        double gain = variance / (variance + measurementVariance);
+        variance *= (1 - gain);
+        return gain * innovation;
+    }
+
+    /**
+     * Sets the uncertainty directly, for instance back to 0 when the robot is placed at a known heading.
+     */
+    public void setVariance(double variance) {
+        this.variance = variance;
+    }
+
+    /**
+     * @return Current heading variance in radians squared
+     */
+    public double getVariance() {
+        return variance;
+    }
+
+    public void setWheelVariancePerRadian(double wheelVariancePerRadian) {
+        this.wheelVariancePerRadian = wheelVariancePerRadian;
+    }
+
+    public void setWheelVariancePerSecond(double wheelVariancePerSecond) {
+        this.wheelVariancePerSecond = wheelVariancePerSecond;
+    }
+
+    public void setMeasurementVariance(double measurementVariance) {
+        this.measurementVariance = measurementVariance;
+    }
+}
@@ -0,0 +1,11 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * Anything that reports absolute robot heading, namely the IMU. Interface so the heading fusion can be tested without one.
+ */
+public interface HeadingSensor {
+    /**
+     * @return Heading in degrees, counterclockwise positive. Should not wrap at 180 or 360.
+     */
+    double getHeading();
+}
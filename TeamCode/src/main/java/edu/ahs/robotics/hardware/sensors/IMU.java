@@ -11,7 +11,7 @@ import org.firstinspires.ftc.robotcore.external.navigation.Orientation;
  * Wrapper class to manage the FTC BNO055IMU class and facilitate mocking in the future
  * @author Alex Appleby
  */
-public class IMU {
+public class IMU implements HeadingSensor {
     private BNO055IMU imu;
     double correction;
     private Orientation lastAngles = new Orientation();
@@ -34,6 +34,7 @@ public class IMU {
      * Gets the IMU Heading. Oversteps the internal IMU behavior that returns degrees between 180 and -180, meaning this method can return beyond 360 and -360
      * @return Heading in degrees
      */
+    @Override
     public double getHeading(){
         Orientation angles = imu.getAngularOrientation(AxesReference.INTRINSIC,AxesOrder.ZYX,AngleUnit.DEGREES);
 
@@ -0,0 +1,25 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * How OdometrySystemImpl turns one update's wheel deltas into a change in field position.
+ */
+public enum IntegrationMethod {
+    /**
+     * The original constant curvature update, computed from the turning radii of the x and y motion.
+     * Very small heading changes, where the radii blow up, use the series form of the same arc.
+     */
+    ARC,
+
+    /**
+     * SE(2) exponential map - constant local velocity and turning rate over the update.
+     * Describes the same motion as ARC but is written in terms of sin(dHeading)/dHeading and (1 - cos(dHeading))/dHeading,
+     * which are taken from their series near zero so there is no straight line special case.
+     */
+    POSE_EXPONENTIAL,
+
+    /**
+     * Second order Runge-Kutta (midpoint) - the local motion is applied along the heading halfway through the update.
+     * Cheapest of the three, exact for straight lines and pure turns, slightly off on arcs.
+     */
+    RUNGE_KUTTA_2
+}
@@ -0,0 +1,29 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import com.qualcomm.robotcore.hardware.DcMotorController;
+
+/**
+ * EncoderHub backed by the motor controller of a REV hub. Relies on the hub being in AUTO bulk caching mode,
+ * where the first port read fetches all four in one bulk command and the other three are answered from that.
+ */
+public class LynxEncoderHub implements EncoderHub {
+    private static final int PORT_COUNT = 4;
+
+    private DcMotorController controller;
+
+    public LynxEncoderHub(DcMotorController controller) {
+        this.controller = controller;
+    }
+
+    @Override
+    public int getPortCount() {
+        return PORT_COUNT;
+    }
+
+    @Override
+    public void readAll(int[] positions) {
+        for (int port = 0; port < PORT_COUNT; port++) {
+            positions[port] = controller.getMotorCurrentPosition(port);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+/**
+ * Encoder that reads straight from a DcMotor, one hardware call per read. Used in test mode, where there are no hubs to bulk read.
+ */
+public class MotorEncoder implements Encoder {
+    private DcMotor motor;
+
+    public MotorEncoder(DcMotor motor) {
+        this.motor = motor;
+    }
+
+    @Override
+    public int getCurrentPosition() {
+        return motor.getCurrentPosition();
+    }
+}
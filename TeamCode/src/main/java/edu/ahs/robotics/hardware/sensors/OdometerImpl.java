@@ -2,6 +2,7 @@ package edu.ahs.robotics.hardware.sensors;
 
 import com.qualcomm.robotcore.hardware.DcMotor;
 
+import edu.ahs.robotics.hardware.CachedMotor;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 
 /**
@@ -10,7 +11,8 @@ import edu.ahs.robotics.util.ftc.FTCUtilities;
  * @author Alex Appleby
  */
 public class OdometerImpl implements Odometer {
-    private DcMotor motor; //we use the crappy DcMotor class from FTC to access encoder values. Kind of a hack, but that's how it be.
+    private CachedMotor motor; //shared with whatever drives the port, since resetting the encoder stops the motor
+    private Encoder encoder; //reads come from the hub's bulk read instead of a round trip per call
     private double wheelCircumference;// in inches, used to be in mm
     private double ticksPerRotation; //specific to our S4T encoders. May be in need of change for other S4T models or different encoders.
     private int direction = 1; //enables canFlip. only 1 or -1. //*** IMPORTANT *** setDirection() method on DcMotor changes encoder direction
@@ -21,7 +23,8 @@ public class OdometerImpl implements Odometer {
      * @param flip Whether or not this returns flipped values. Probably determine this by experimentation.
      */
     public OdometerImpl(String deviceName, double wheelDiameter, boolean flip, double ticksPerRotation) {
-        motor = FTCUtilities.getMotor(deviceName);
+        motor = FTCUtilities.getCachedMotor(deviceName);
+        encoder = FTCUtilities.getEncoder(motor.getMotor());
         reset();
         wheelCircumference = wheelDiameter*Math.PI;
         if(flip){
@@ -35,7 +38,7 @@ public class OdometerImpl implements Odometer {
      */
     @Override
     public double getDistance(){
-        int ticks = motor.getCurrentPosition();
+        int ticks = encoder.getCurrentPosition();
         double distance = (ticks*wheelCircumference) / ticksPerRotation; // rotations / ticks per rotation but combined for optimization
         return direction*distance;
     }
@@ -47,9 +50,10 @@ public class OdometerImpl implements Odometer {
     public void reset(){
         motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
         motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        FTCUtilities.getBulkReadCache().invalidate(); //don't serve ticks from before the reset
     }
     public double getRotations(){
-        int ticks = motor.getCurrentPosition();
+        int ticks = encoder.getCurrentPosition();
         double rotations = ticks/ ticksPerRotation;
         return direction*rotations;
     }
@@ -0,0 +1,314 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Solves for odometry geometry from runs of known motion instead of hand tuning it.
+ * Each run is the total wheel travel over one motion: a spin through a measured angle, a straight push of a measured distance,
+ * or a strafe push of a measured distance. Straights fit the x wheel scales, strafes the y wheel scale, and spins the distance
+ * between the x wheels and yInchesPerDegree. Every parameter is a least squares fit over all runs of its kind.
+ * Runs can come straight from "odometrySystem" DataLogger csvs, where the last line holds the totals.
+ */
+public class OdometryCalibrator {
+    public static final String DEFAULT_FILE = "odometryCalibration.properties";
+
+    /**
+     * yInchesPerDegree and the strafe correction depend on each other, so they are fit in turns. Converges in two or three.
+     */
+    private static final int PASSES = 5;
+
+    public enum Motion {
+        /**
+         * Turned in place, amount in radians counterclockwise.
+         */
+        SPIN,
+        /**
+         * Pushed straight forward, amount in inches.
+         */
+        STRAIGHT,
+        /**
+         * Pushed straight left, amount in inches.
+         */
+        STRAFE
+    }
+
+    private List<Run> runs = new ArrayList<>();
+
+    /**
+     * @param xR Total distance read by the right x odometer, in inches at its current diameter
+     * @param xL Total distance read by the left x odometer
+     * @param yReading Total distance read by the y odometer
+     * @param amount How far the robot actually moved, see Motion
+     */
+    public void addRun(Motion motion, double amount, double xR, double xL, double yReading) {
+        if (amount == 0) {
+            throw new IllegalArgumentException("A " + motion + " run needs a non zero amount");
+        }
+        runs.add(new Run(motion, amount, xR, xL, yReading));
+    }
+
+    /**
+     * Adds a run from an odometry log in the log directory, see FTCUtilities.getLogDirectory()
+     */
+    public void addRun(Motion motion, double amount, String fileName) {
+        File file = new File(FTCUtilities.getLogDirectory(), fileName);
+        try (Reader reader = new FileReader(file)) {
+            addRun(motion, amount, reader);
+        } catch (IOException e) {
+            throw new Warning("Reading calibration log " + fileName + " threw exception" + e.getMessage());
+        }
+    }
+
+    public void addRun(Motion motion, double amount, Reader csv) throws IOException {
+        OdometryReplay.Log log = OdometryReplay.parse(new BufferedReader(csv));
+        if (log.size == 0) {
+            throw new Warning("Calibration log has no readings");
+        }
+        int last = log.size - 1; //encoders are reset before logging starts, so the last line is the total
+        addRun(motion, amount, log.xR[last], log.xL[last], log.yReading[last]);
+    }
+
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * For runs logged with a calibration already loaded. Those readings already include its scales, so the fit is a correction
+     * on top of them, and the returned scales are the two multiplied together. Saving the result keeps the earlier correction.
+     * @param recordedWith Calibration the odometers were running with when the runs were logged
+     */
+    public Calibration solve(Calibration recordedWith) {
+        Calibration correction = solve();
+        Calibration calibration = new Calibration(correction.distanceBetweenYWheels, correction.yInchesPerDegree,
+                correction.xRScale * recordedWith.xRScale, correction.xLScale * recordedWith.xLScale, correction.yScale * recordedWith.yScale);
+        calibration.residual = correction.residual;
+        calibration.runs = correction.runs;
+        return calibration;
+    }
+
+    /**
+     * For runs logged at the configured wheel diameters, with no calibration loaded.
+     * @throws IllegalArgumentException if there are no spins, which are the only runs that say anything about the wheel spacing
+     */
+    public Calibration solve() {
+        double xRScale = fitScale(true);
+        double xLScale = fitScale(false);
+
+        //spins: xRScale * xR - xLScale * xL = distanceBetweenYWheels * angle
+        double turnSum = 0, angleSquaredSum = 0;
+        for (Run run : runs) {
+            if (run.motion == Motion.SPIN) {
+                turnSum += run.amount * (xRScale * run.xR - xLScale * run.xL);
+                angleSquaredSum += run.amount * run.amount;
+            }
+        }
+        if (angleSquaredSum == 0) {
+            throw new IllegalArgumentException("Calibration needs at least one spin");
+        }
+        double distanceBetweenYWheels = turnSum / angleSquaredSum;
+
+        //strafes: yScale * yReading = amount + yInchesPerDegree * degrees turned, spins: yScale * yReading = yInchesPerDegree * degrees
+        double yScale = 1;
+        double yInchesPerDegree = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            double degreesYSum = 0, degreesSquaredSum = 0;
+            for (Run run : runs) {
+                if (run.motion == Motion.SPIN) {
+                    double degrees = Math.toDegrees(run.amount);
+                    degreesYSum += degrees * yScale * run.yReading;
+                    degreesSquaredSum += degrees * degrees;
+                }
+            }
+            yInchesPerDegree = degreesYSum / degreesSquaredSum;
+
+            double readingTargetSum = 0, readingSquaredSum = 0;
+            for (Run run : runs) {
+                if (run.motion == Motion.STRAFE) {
+                    double degrees = Math.toDegrees((xRScale * run.xR - xLScale * run.xL) / distanceBetweenYWheels);
+                    readingTargetSum += run.yReading * (run.amount + yInchesPerDegree * degrees);
+                    readingSquaredSum += run.yReading * run.yReading;
+                }
+            }
+            if (readingSquaredSum == 0) {
+                break; //no strafes, the y wheel keeps its current diameter
+            }
+            yScale = readingTargetSum / readingSquaredSum;
+        }
+
+        Calibration calibration = new Calibration(distanceBetweenYWheels, yInchesPerDegree, xRScale, xLScale, yScale);
+        calibration.residual = residual(calibration);
+        calibration.runs = runs.size();
+        return calibration;
+    }
+
+    /**
+     * Straights: scale * reading = amount. 1 if there are none.
+     */
+    private double fitScale(boolean right) {
+        double readingTargetSum = 0, readingSquaredSum = 0;
+        for (Run run : runs) {
+            if (run.motion == Motion.STRAIGHT) {
+                double reading = right ? run.xR : run.xL;
+                readingTargetSum += reading * run.amount;
+                readingSquaredSum += reading * reading;
+            }
+        }
+        return readingSquaredSum == 0 ? 1 : readingTargetSum / readingSquaredSum;
+    }
+
+    /**
+     * Root mean square of how far each run's motion, computed with the calibration, is from what was measured.
+     * Spins are compared in inches of wheel travel so every run is in the same units.
+     */
+    private double residual(Calibration calibration) {
+        double sum = 0;
+        for (Run run : runs) {
+            double xR = calibration.xRScale * run.xR;
+            double xL = calibration.xLScale * run.xL;
+            double yReading = calibration.yScale * run.yReading;
+            double error;
+            switch (run.motion) {
+                case SPIN:
+                    error = (xR - xL) - calibration.distanceBetweenYWheels * run.amount;
+                    break;
+                case STRAIGHT:
+                    error = (xR + xL) / 2 - run.amount;
+                    break;
+                case STRAFE:
+                default:
+                    double degrees = Math.toDegrees((xR - xL) / calibration.distanceBetweenYWheels);
+                    error = yReading - calibration.yInchesPerDegree * degrees - run.amount;
+                    break;
+            }
+            sum += error * error;
+        }
+        return Math.sqrt(sum / runs.size());
+    }
+
+    private static class Run {
+        final Motion motion;
+        final double amount, xR, xL, yReading;
+
+        Run(Motion motion, double amount, double xR, double xL, double yReading) {
+            this.motion = motion;
+            this.amount = amount;
+            this.xR = xR;
+            this.xL = xL;
+            this.yReading = yReading;
+        }
+    }
+
+    /**
+     * Odometry geometry, saved as a properties file. The scales multiply each odometer's configured wheel diameter,
+     * not whatever diameter a previous calibration left it at, see solve(Calibration).
+     */
+    public static class Calibration {
+        private static final String DISTANCE_BETWEEN_Y_WHEELS = "distanceBetweenYWheels", Y_INCHES_PER_DEGREE = "yInchesPerDegree",
+                X_R_SCALE = "xRScale", X_L_SCALE = "xLScale", Y_SCALE = "yScale", RESIDUAL = "residual", RUNS = "runs";
+
+        public final double distanceBetweenYWheels;
+        public final double yInchesPerDegree;
+        public final double xRScale, xLScale, yScale;
+        /**
+         * RMS error of the fit over its runs in inches, NaN if these values weren't solved for.
+         */
+        public double residual = Double.NaN;
+        public int runs = 0;
+
+        public Calibration(double distanceBetweenYWheels, double yInchesPerDegree, double xRScale, double xLScale, double yScale) {
+            this.distanceBetweenYWheels = distanceBetweenYWheels;
+            this.yInchesPerDegree = yInchesPerDegree;
+            this.xRScale = xRScale;
+            this.xLScale = xLScale;
+            this.yScale = yScale;
+        }
+
+        /**
+         * Y wheel's distance from the center of rotation, the same information as yInchesPerDegree.
+         */
+        public double getYWheelOffset() {
+            return Math.toDegrees(yInchesPerDegree);
+        }
+
+        /**
+         * Saves to the log directory, see FTCUtilities.getLogDirectory()
+         */
+        public void save(String fileName) {
+            File file = new File(FTCUtilities.getLogDirectory(), fileName);
+            try (Writer writer = new FileWriter(file)) {
+                save(writer);
+            } catch (IOException e) {
+                throw new Warning("Saving odometry calibration " + fileName + " threw exception" + e.getMessage());
+            }
+        }
+
+        public void save(Writer writer) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty(DISTANCE_BETWEEN_Y_WHEELS, String.valueOf(distanceBetweenYWheels));
+            properties.setProperty(Y_INCHES_PER_DEGREE, String.valueOf(yInchesPerDegree));
+            properties.setProperty(X_R_SCALE, String.valueOf(xRScale));
+            properties.setProperty(X_L_SCALE, String.valueOf(xLScale));
+            properties.setProperty(Y_SCALE, String.valueOf(yScale));
+            properties.setProperty(RESIDUAL, String.valueOf(residual));
+            properties.setProperty(RUNS, String.valueOf(runs));
+            properties.store(writer, "Odometry calibration, written by OdometryCalibrator");
+        }
+
+        /**
+         * Loads from the log directory.
+         * @param fallback Returned if the file doesn't exist or can't be read, so a robot without a calibration still runs
+         */
+        public static Calibration load(String fileName, Calibration fallback) {
+            File file = new File(FTCUtilities.getLogDirectory(), fileName);
+            if (!file.exists()) {
+                return fallback;
+            }
+            try (Reader reader = new FileReader(file)) {
+                return load(reader, fallback);
+            } catch (IOException | NumberFormatException e) {
+                return fallback;
+            }
+        }
+
+        /**
+         * @param fallback Supplies any value missing from the file
+         */
+        public static Calibration load(Reader reader, Calibration fallback) throws IOException {
+            Properties properties = new Properties();
+            properties.load(reader);
+            Calibration calibration = new Calibration(
+                    read(properties, DISTANCE_BETWEEN_Y_WHEELS, fallback.distanceBetweenYWheels),
+                    read(properties, Y_INCHES_PER_DEGREE, fallback.yInchesPerDegree),
+                    read(properties, X_R_SCALE, fallback.xRScale),
+                    read(properties, X_L_SCALE, fallback.xLScale),
+                    read(properties, Y_SCALE, fallback.yScale));
+            calibration.residual = read(properties, RESIDUAL, Double.NaN);
+            calibration.runs = (int) read(properties, RUNS, 0);
+            return calibration;
+        }
+
+        private static double read(Properties properties, String key, double fallback) {
+            String value = properties.getProperty(key);
+            return value == null ? fallback : Double.parseDouble(value.trim());
+        }
+
+        @Override
+        public String toString() {
+            return "distanceBetweenYWheels " + distanceBetweenYWheels + ", yInchesPerDegree " + yInchesPerDegree
+                    + ", scales xR " + xRScale + " xL " + xLScale + " y " + yScale + ", residual " + residual + " in over " + runs + " runs";
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Plays a recorded "odometrySystem" DataLogger csv back through OdometrySystemImpl's integration math as fast as possible.
+ * Meant to be run off the robot, for regression testing odometry changes against real match data and for benchmarking integration.
+ * The file is parsed up front so the timing only covers integration.
+ */
+public class OdometryReplay {
+    private static final String TIME = "Time", X_R = "xR", X_L = "xL", Y_READING = "yReading", X = "x", Y = "y";
+
+    private double yInchesPerDegree;
+    private double distanceBetweenYWheels;
+    private double startX = 0, startY = 0, startHeading = 0;
+
+    /**
+     * @param yInchesPerDegree Same constant the log was recorded with, unless testing a new one
+     * @param distanceBetweenYWheels Same constant the log was recorded with, unless testing a new one
+     */
+    public OdometryReplay(double yInchesPerDegree, double distanceBetweenYWheels) {
+        this.yInchesPerDegree = yInchesPerDegree;
+        this.distanceBetweenYWheels = distanceBetweenYWheels;
+    }
+
+    /**
+     * Pose the robot was set to before the log started. Defaults to the origin.
+     */
+    public void setStartPosition(double x, double y, double heading) {
+        startX = x;
+        startY = y;
+        startHeading = heading;
+    }
+
+    /**
+     * Replays a log from the log directory, see FTCUtilities.getLogDirectory()
+     */
+    public Result replay(String fileName) {
+        File file = new File(FTCUtilities.getLogDirectory(), fileName);
+        try (Reader reader = new FileReader(file)) {
+            return replay(reader);
+        } catch (IOException e) {
+            throw new Warning("Replaying odometry log " + fileName + " threw exception" + e.getMessage());
+        }
+    }
+
+    public Result replay(Reader csv) throws IOException {
+        long parseStart = System.nanoTime();
+        Log log = parse(new BufferedReader(csv));
+        long parseNanos = System.nanoTime() - parseStart;
+
+        ReplayOdometer xR = new ReplayOdometer();
+        ReplayOdometer xL = new ReplayOdometer();
+        ReplayOdometer y = new ReplayOdometer();
+        OdometrySystemImpl odometrySystem = new OdometrySystemImpl(xR, xL, y, yInchesPerDegree, distanceBetweenYWheels);
+        odometrySystem.setReporting(false);
+        odometrySystem.setPosition(startX, startY, startHeading);
+        odometrySystem.resetEncoders(); //live runs reset before the first logged line, so the baseline is 0
+
+        Result result = new Result(log.size);
+        OdometrySystem.State state = new OdometrySystem.State();
+
+        long integrationStart = System.nanoTime();
+        for (int i = 0; i < log.size; i++) {
+            xR.distance = log.xR[i];
+            xL.distance = log.xL[i];
+            y.distance = log.yReading[i];
+            odometrySystem.updatePosition(log.timeMillis[i] * 1_000_000L);
+
+            odometrySystem.getState(state);
+            result.x[i] = state.position.x;
+            result.y[i] = state.position.y;
+            result.heading[i] = state.position.heading;
+        }
+        result.integrationNanos = System.nanoTime() - integrationStart;
+
+        result.timeMillis = log.timeMillis;
+        result.parseNanos = parseNanos;
+        result.skippedLines = log.skippedLines;
+        if (log.hasLoggedPosition) {
+            for (int i = 0; i < log.size; i++) {
+                double error = Math.hypot(result.x[i] - log.x[i], result.y[i] - log.y[i]);
+                result.maxDeviationFromLog = Math.max(result.maxDeviationFromLog, error);
+            }
+        } else {
+            result.maxDeviationFromLog = Double.NaN;
+        }
+        return result;
+    }
+
+    static Log parse(BufferedReader reader) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new Warning("Odometry log is empty");
+        }
+        String[] columns = header.split(",");
+        int time = indexOf(columns, TIME, true);
+        int xR = indexOf(columns, X_R, true);
+        int xL = indexOf(columns, X_L, true);
+        int yReading = indexOf(columns, Y_READING, true);
+        int x = indexOf(columns, X, false);
+        int y = indexOf(columns, Y, false);
+
+        Log log = new Log();
+        log.hasLoggedPosition = x >= 0 && y >= 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] cells = line.split(",");
+            try {
+                long t = Long.parseLong(cells[time].trim());
+                double r = Double.parseDouble(cells[xR].trim());
+                double l = Double.parseDouble(cells[xL].trim());
+                double yr = Double.parseDouble(cells[yReading].trim());
+                double lx = log.hasLoggedPosition ? Double.parseDouble(cells[x].trim()) : 0;
+                double ly = log.hasLoggedPosition ? Double.parseDouble(cells[y].trim()) : 0;
+                log.add(t, r, l, yr, lx, ly);
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                log.skippedLines++; //DataLogger writes blanks for categories that weren't appended on a line
+            }
+        }
+        return log;
+    }
+
+    private static int indexOf(String[] columns, String name, boolean required) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].trim().equals(name)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new Warning("Odometry log is missing the " + name + " column");
+        }
+        return -1;
+    }
+
+    /**
+     * Reconstructed trajectory plus timing. Arrays are indexed by log line.
+     */
+    public static class Result {
+        public final int samples;
+        public long[] timeMillis;
+        public final double[] x, y, heading;
+        public long parseNanos;
+        public long integrationNanos;
+        public int skippedLines;
+        /**
+         * Largest distance between the replayed position and the position recorded in the log, NaN if the log had no x and y columns.
+         */
+        public double maxDeviationFromLog;
+
+        private Result(int samples) {
+            this.samples = samples;
+            x = new double[samples];
+            y = new double[samples];
+            heading = new double[samples];
+        }
+
+        public double getSamplesPerSecond() {
+            return integrationNanos > 0 ? samples * 1e9 / integrationNanos : 0;
+        }
+
+        public double getNanosPerSample() {
+            return samples > 0 ? (double) integrationNanos / samples : 0;
+        }
+
+        /**
+         * Writes the trajectory as csv with the same time column as the source log.
+         */
+        public void writeTrajectory(Writer writer) throws IOException {
+            writer.append("Time, x, y, heading\n");
+            for (int i = 0; i < samples; i++) {
+                writer.append(String.valueOf(timeMillis[i])).append(", ")
+                        .append(String.valueOf(x[i])).append(", ")
+                        .append(String.valueOf(y[i])).append(", ")
+                        .append(String.valueOf(heading[i])).append("\n");
+            }
+            writer.flush();
+        }
+
+        @Override
+        public String toString() {
+            return samples + " samples, " + skippedLines + " lines skipped, " + getNanosPerSample() + " ns/sample (" + getSamplesPerSecond() + " samples/s), "
+                    + "parse " + parseNanos / 1e6 + " ms, max deviation from log " + maxDeviationFromLog + " in";
+        }
+    }
+
+    /**
+     * Parsed columns, grown by doubling so nothing gets boxed. Also read by OdometryCalibrator.
+     */
+    static class Log {
+        int size = 0;
+        int skippedLines = 0;
+        boolean hasLoggedPosition;
+        long[] timeMillis = new long[256];
+        double[] xR = new double[256], xL = new double[256], yReading = new double[256], x = new double[256], y = new double[256];
+
+        void add(long t, double r, double l, double yr, double lx, double ly) {
+            if (size == timeMillis.length) {
+                int capacity = size * 2;
+                timeMillis = Arrays.copyOf(timeMillis, capacity);
+                xR = Arrays.copyOf(xR, capacity);
+                xL = Arrays.copyOf(xL, capacity);
+                yReading = Arrays.copyOf(yReading, capacity);
+                x = Arrays.copyOf(x, capacity);
+                y = Arrays.copyOf(y, capacity);
+            }
+            timeMillis[size] = t;
+            xR[size] = r;
+            xL[size] = l;
+            yReading[size] = yr;
+            x[size] = lx;
+            y[size] = ly;
+            size++;
+        }
+    }
+
+    /**
+     * Odometer that reports whatever the replay loop last set.
+     */
+    private static class ReplayOdometer implements Odometer {
+        double distance = 0;
+
+        @Override
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = 0;
+        }
+    }
+}
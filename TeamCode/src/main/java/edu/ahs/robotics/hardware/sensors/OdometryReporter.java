@@ -0,0 +1,144 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+import edu.ahs.robotics.util.ftc.FixedRateScheduler;
+import edu.ahs.robotics.util.ftc.SampleRing;
+import edu.ahs.robotics.util.loggers.DataLogger;
+
+/**
+ * Consumer side of the odometry sample ring. Does the string formatting and csv logging that used to run inside every odometry
+ * update, on its own thread and at its own pace. Every sample is logged. Telemetry belongs to the op mode thread, so this only
+ * keeps the newest sample for addTelemetry() to show from there, along with the odometry thread's timing.
+ */
+class OdometryReporter {
+    //sample columns
+    static final int TIME_NANOS = 0, X_R = 1, X_L = 2, Y_READING = 3, D_HEADING = 4, DY_BEFORE_FACTOR_OUT = 5, DY_EXPECTED = 6, DY = 7,
+            X = 8, Y = 9, HEADING = 10, DY_SUM = 11, PERIOD_NANOS = 12, EXECUTION_NANOS = 13;
+    static final int WIDTH = 14;
+
+    private static final int CAPACITY = 1024; //a couple seconds at the fastest odometry rate
+    private static final long DRAIN_PERIOD_MILLIS = 50;
+
+    private SampleRing ring;
+    private DataLogger logger;
+    private FixedRateScheduler scheduler;
+    private double[] sample = new double[WIDTH];
+    private volatile double[] latest; //newest sample drained, replaced rather than written to, null until there is one
+
+    private long nanosToWallMillis; //odometry is stamped with nanoTime, the logger wants wall clock millis
+
+    private ReporterThread reporterThread;
+
+    /**
+     * @param scheduler Paces the odometry thread, its stats are read for telemetry
+     */
+    OdometryReporter(DataLogger logger, FixedRateScheduler scheduler) {
+        this.logger = logger;
+        this.scheduler = scheduler;
+        ring = new SampleRing(CAPACITY, WIDTH);
+        nanosToWallMillis = System.currentTimeMillis() - System.nanoTime() / 1_000_000L;
+    }
+
+    /**
+     * Producer side, for the odometry thread.
+     */
+    SampleRing getRing() {
+        return ring;
+    }
+
+    void start() {
+        reporterThread = new ReporterThread();
+        reporterThread.start();
+    }
+
+    /**
+     * Stops the thread and logs whatever is left.
+     */
+    void stop() {
+        if (reporterThread != null) {
+            reporterThread.end();
+            try {
+                reporterThread.join(DRAIN_PERIOD_MILLIS * 4);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Logs every waiting sample and keeps the newest for telemetry.
+     * @return Number of samples handled
+     */
+    synchronized int drain() {
+        int count = 0;
+        while (ring.poll(sample)) {
+            log(sample);
+            count++;
+        }
+        if (count > 0) {
+            latest = sample.clone(); //one small copy per drain, not per sample
+        }
+        return count;
+    }
+
+    private void log(double[] sample) {
+        logger.append("xR", String.valueOf(sample[X_R]));
+        logger.append("xL", String.valueOf(sample[X_L]));
+        logger.append("yReading", String.valueOf(sample[Y_READING]));
+        logger.append("dHeading", String.valueOf(sample[D_HEADING]));
+        logger.append("dyBeforeFactorOut", String.valueOf(sample[DY_BEFORE_FACTOR_OUT]));
+        logger.append("dyExpected", String.valueOf(sample[DY_EXPECTED]));
+        logger.append("dy", String.valueOf(sample[DY]));
+
+        logger.append("x", String.valueOf(sample[X]));
+        logger.append("y", String.valueOf(sample[Y]));
+        logger.append("period ms", String.valueOf(sample[PERIOD_NANOS] / 1e6));
+        logger.append("execution ms", String.valueOf(sample[EXECUTION_NANOS] / 1e6));
+        logger.writeLine((long) sample[TIME_NANOS] / 1_000_000L + nanosToWallMillis);
+    }
+
+    /**
+     * Adds the newest drained sample and the odometry thread's timing to telemetry. For the op mode thread, which also sends the telemetry. Never waits on the reporter.
+     * @return false if nothing has been drained yet
+     */
+    boolean addTelemetry() {
+        double[] sample = latest;
+        if (sample == null) {
+            return false;
+        }
+        FTCUtilities.addData("dySum", sample[DY_SUM]);
+        FTCUtilities.addData("heading", sample[HEADING]);
+        FTCUtilities.addData("YWheelRaw", sample[Y_READING]);
+        FTCUtilities.addData("XWheelLRaw", sample[X_L]);
+        FTCUtilities.addData("XWheelRRaw", sample[X_R]);
+        FTCUtilities.addData("dropped samples", ring.getDropped());
+        FTCUtilities.addData("odometry period ms", scheduler.getAveragePeriodNanos() / 1e6);
+        FTCUtilities.addData("odometry max jitter ms", scheduler.getMaxJitterNanos() / 1e6);
+        FTCUtilities.addData("odometry max execution ms", scheduler.getMaxExecutionNanos() / 1e6);
+        FTCUtilities.addData("odometry missed deadlines", scheduler.getMissedDeadlines());
+        return true;
+    }
+
+    private class ReporterThread extends Thread {
+        private volatile boolean running;
+
+        @Override
+        public void run() {
+            running = true;
+            while (running) {
+                drain();
+                try {
+                    Thread.sleep(DRAIN_PERIOD_MILLIS);
+                } catch (InterruptedException e) {
+                    return; //stop() drains one last time
+                }
+            }
+        }
+
+        private void end() {
+            running = false;
+            interrupt();
+        }
+    }
+}
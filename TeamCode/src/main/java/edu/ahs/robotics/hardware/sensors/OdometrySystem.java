@@ -10,6 +10,27 @@ import edu.ahs.robotics.control.Velocity;
 public interface OdometrySystem {
     State getState();
 
+    /**
+     * Fills a caller-owned State with the latest published pose instead of allocating a new one.
+     * Prefer this in control loops.
+     * @param reuse State to overwrite
+     * @return the same reuse instance, for chaining
+     */
+    State getState(State reuse);
+
+    /**
+     * Looks up the state at an earlier time, so a measurement can be paired with the pose from when it was taken.
+     * @param timeNanos Time from FTCUtilities.getCurrentTimeNanos()
+     */
+    State getStateAt(long timeNanos);
+
+    /**
+     * Allocation free version of getStateAt(long).
+     * @param reuse State to overwrite
+     * @return the same reuse instance, for chaining
+     */
+    State getStateAt(long timeNanos, State reuse);
+
     void start();
 
     void stop();
@@ -18,26 +39,86 @@ public interface OdometrySystem {
 
     void setPosition(double x, double y, double heading);
 
+    /**
+     * Registers a listener to be called with the new state on every odometry update, on the odometry thread.
+     * Safe to call from any thread, including from inside a listener.
+     */
+    void addPoseListener(PoseListener listener);
+
+    void removePoseListener(PoseListener listener);
+
     Odometer getX1Odometer();
 
     Odometer getX2Odometer();
 
+    /**
+     * Adds the latest odometry readings to telemetry. Only call from the op mode thread, which sends the telemetry.
+     */
+    void addTelemetry();
+
     /**
      * Contains atomic and threadsafe information on the current state of the odometry system.
-     * <b>Currently Stripped down to only contain Position information.</b>
-     * Ideal for containing any other info that could be determined by the OdometrySystem
+     * Every field comes from the same odometry update.
      */
     class State {
-       public Position position;
-       //public Velocity velocity;
-       //public double acceleration;
+        public Position position;
+        /**
+         * Field relative velocity in inches/second.
+         */
+        public Velocity velocity;
+        /**
+         * Robot relative velocity in inches/second. dx is along the x odometers (forward), dy along the y odometer (strafe).
+         */
+        public Velocity localVelocity;
+        /**
+         * Rate of change of heading in radians/second, counterclockwise positive.
+         */
+        public double angularVelocity;
+        /**
+         * Rate of change of speed in inches/second^2.
+         */
+        public double acceleration;
+        /**
+         * Rate of change of angular velocity in radians/second^2.
+         */
+        public double angularAcceleration;
+        /**
+         * Uncertainty of position.heading in radians squared, from the heading filter.
+         */
+        public double headingVariance;
+        /**
+         * FTCUtilities.getCurrentTimeNanos() of the update that produced this state.
+         */
+        public long timeNanos;
 
 
         public State(Position position) {
             this.position = new Position(position);
+            this.velocity = Velocity.makeVelocity(0, 0);
+            this.localVelocity = Velocity.makeVelocity(0, 0);
+        }
+
+        /**
+         * Creates an empty State at the origin, intended to be filled by getState(State reuse).
+         */
+        public State() {
+            this(new Position(0, 0, 0));
+        }
 
-            //this.acceleration = acceleration;
-            //this.velocity = new Velocity(velocity);
+        /**
+         * Copies every field of another state into this one without allocating.
+         */
+        public void copyFrom(State other) {
+            position.copyFrom(other.position);
+            velocity.dx = other.velocity.dx;
+            velocity.dy = other.velocity.dy;
+            localVelocity.dx = other.localVelocity.dx;
+            localVelocity.dy = other.localVelocity.dy;
+            angularVelocity = other.angularVelocity;
+            acceleration = other.acceleration;
+            angularAcceleration = other.angularAcceleration;
+            headingVariance = other.headingVariance;
+            timeNanos = other.timeNanos;
         }
     }
 }
@@ -1,11 +1,15 @@
 package edu.ahs.robotics.hardware.sensors;
 
-import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
 
 import edu.ahs.robotics.control.Position;
 import edu.ahs.robotics.control.Velocity;
 import edu.ahs.robotics.util.loggers.DataLogger;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
+import edu.ahs.robotics.util.ftc.FixedRateScheduler;
+import edu.ahs.robotics.util.ftc.SampleRing;
+import edu.ahs.robotics.util.ftc.WindowedDerivative;
 import edu.ahs.robotics.util.loggers.Logger;
 import edu.ahs.robotics.util.loggers.MockDataLogger;
 
@@ -19,20 +23,21 @@ import edu.ahs.robotics.util.loggers.MockDataLogger;
 public class OdometrySystemImpl implements OdometrySystem {
     private Position position;
     private Velocity velocity;
-    //private double acceleration;
+    private Velocity localVelocity;
+    private double angularVelocity;
+    private double acceleration;
+    private double angularAcceleration;
+    private long timeNanos;
+    private long lastUpdateNanos;
+    private boolean hasUpdated = false;
     //private double radius = 0; // only measured in x
 
     private Odometer xR, xL, y;
 
-    private static final int DISTANCE_TIME_BUFFER_SIZE = 10;
-    //private RingBuffer<Double> distanceBuffer;
-    //private RingBuffer<Long> velocityTimeBuffer;
-
-    //private static final int SPEED_TIME_BUFFER_SIZE = 10;
-    //private RingBuffer<Double> speedBuffer;
-    //private RingBuffer<Long> accelerationTimeBuffer;
-
-    //private double distance = 0.0;
+    private static final int VELOCITY_WINDOW = 5; //samples, 100 ms at the default 50 hz
+    private static final int ACCELERATION_WINDOW = 5;
+    private WindowedDerivative xDerivative, yDerivative, headingDerivative;
+    private WindowedDerivative speedDerivative, angularVelocityDerivative;
 
     private double dySum = 0;
 
@@ -41,9 +46,48 @@ public class OdometrySystemImpl implements OdometrySystem {
     private double distanceBetweenYWheels;
     private Position lastPosition;
 
+    private IntegrationMethod integrationMethod = IntegrationMethod.ARC;
+    private static final double SMALL_ANGLE = 1e-3; //radians, below this dHeading terms come from their series
+    private static final int TRIG_RESYNC_INTERVAL = 256;
+    private double cosHeading = 1, sinHeading = 0;
+    private int updatesSinceTrigSync = 0;
+
+    private volatile PoseListener[] listeners = new PoseListener[0];
+    private final Object listenerLock = new Object(); //not this, so registering never waits on an update
+    private State listenerState = new State();
+
+    private HeadingFilter headingFilter;
+    private AsyncHeadingReader headingReader; //null unless heading fusion is enabled
+    private AsyncHeadingReader.Sample headingSample = new AsyncHeadingReader.Sample();
+    private State historyScratch = new State();
+    private double headingOffset; //sensor heading + offset = odometry heading
+    private boolean headingOffsetSet = false;
+
+    public static final double MIN_UPDATE_RATE = 50; //hz
+    public static final double MAX_UPDATE_RATE = 500;
+    private static final double DEFAULT_UPDATE_RATE = 50; //matches the old fixed 20 ms sleep
+
     private OdometerThread odometerThread;
+    private FixedRateScheduler scheduler;
 
     private DataLogger logger;
+    private OdometryReporter reporter;
+    private static volatile OdometrySystemImpl running; //started last and not stopped, see addRunningTelemetry()
+    private boolean reporting = true;
+
+    /*
+     * Seqlock guarding the published snapshot below. Only the integrator writes (under this object's monitor),
+     * and readers never take the monitor - they just retry if the sequence was odd or moved while they read.
+     */
+    private volatile int publishSequence = 0;
+    private volatile double publishedX, publishedY, publishedHeading;
+    private volatile double publishedVelocityX, publishedVelocityY, publishedLocalVelocityX, publishedLocalVelocityY;
+    private volatile double publishedAngularVelocity, publishedAcceleration, publishedAngularAcceleration;
+    private volatile double publishedHeadingVariance;
+    private volatile long publishedTimeNanos;
+
+    private static final int HISTORY_CAPACITY = 512; //~10 s at 50 hz, 1 s at 500 hz
+    private PoseHistory history; //locks itself, the seqlock only covers the fields above
 
     /**
      * @param xR               The 'first' odometer measuring in the X direction. Should be on the right side of the robot.
@@ -58,44 +102,125 @@ public class OdometrySystemImpl implements OdometrySystem {
         this.y = y;
 
         position = new Position(0, 0, 0);
-        velocity = Velocity.makeVelocityFromSpeedDirection(0, 0);
+        velocity = Velocity.makeVelocity(0, 0);
+        localVelocity = Velocity.makeVelocity(0, 0);
         lastPosition = new Position(0, 0, 0);
 
         this.yInchesPerDegree = yInchesPerDegree;
         this.distanceBetweenYWheels = distanceBetweenYWheels;
 
+        scheduler = new FixedRateScheduler(DEFAULT_UPDATE_RATE, FixedRateScheduler.OverrunPolicy.SKIP);
+        xDerivative = new WindowedDerivative(VELOCITY_WINDOW);
+        yDerivative = new WindowedDerivative(VELOCITY_WINDOW);
+        headingDerivative = new WindowedDerivative(VELOCITY_WINDOW);
+        speedDerivative = new WindowedDerivative(ACCELERATION_WINDOW);
+        angularVelocityDerivative = new WindowedDerivative(ACCELERATION_WINDOW);
+
+        history = new PoseHistory(HISTORY_CAPACITY);
+        headingFilter = new HeadingFilter();
+
         odometerThread = new OdometerThread();
 
         logger = (DataLogger) Logger.getLogger("odometrySystem");
         if(logger == null){ //create a mock/empty logger if one hasn't been created higher up, so as to not have null pointers. this way we don't log unless specified.
             logger = new MockDataLogger("odometrySystem");
         }
-
-//        distanceBuffer = new RingBuffer<>(DISTANCE_TIME_BUFFER_SIZE, 0.0);
-//        velocityTimeBuffer = new RingBuffer<>(DISTANCE_TIME_BUFFER_SIZE, 0L);//type is long
-//
-//        speedBuffer = new RingBuffer<>(SPEED_TIME_BUFFER_SIZE, 0.0);
-//        accelerationTimeBuffer = new RingBuffer<>(SPEED_TIME_BUFFER_SIZE, 0L);
+        reporter = new OdometryReporter(logger, scheduler);
     }
 
     /**
      * starts thread continuously monitoring position
      */
     public void start() {
+        running = this;
         logger.startWriting();
         resetEncoders();
+        if (headingReader != null) {
+            headingReader.start();
+        }
         odometerThread.start();
         logger.startWriting();
+        reporter.start();
     }
 
     public synchronized void stop() {
+        if (running == this) {
+            running = null;
+        }
         odometerThread.end();
+        if (headingReader != null) {
+            headingReader.stop();
+        }
+        reporter.stop();
         logger.stopWriting();
     }
 
-    public void setPosition(double x, double y, double heading) {
+    public synchronized void setPosition(double x, double y, double heading) {
         position.setPosition(x, y, heading);
         lastPosition.copyFrom(position);
+        syncHeadingTrig();
+        resetDerivatives(); //a teleport isn't motion
+        headingFilter.setVariance(0);
+        headingOffsetSet = false; //line the sensor back up with the new heading on its next reading
+        publishState(true);
+    }
+
+    /**
+     * Fuses an absolute heading sensor (the IMU) with the wheel heading through a HeadingFilter. Call before start().
+     * The first reading after start or setPosition only lines the sensor up with the odometry heading, later readings correct it.
+     * @param headingReader Source of timestamped headings, started and stopped along with the odometry thread
+     */
+    public synchronized void enableHeadingFusion(AsyncHeadingReader headingReader) {
+        this.headingReader = headingReader;
+        headingOffsetSet = false;
+    }
+
+    /**
+     * Selects how wheel deltas are turned into field motion. ARC by default.
+     */
+    public synchronized void setIntegrationMethod(IntegrationMethod integrationMethod) {
+        this.integrationMethod = integrationMethod;
+    }
+
+    public IntegrationMethod getIntegrationMethod() {
+        return integrationMethod;
+    }
+
+    /**
+     * The filter weighting wheel heading against the heading sensor. Tune it with its variance setters.
+     */
+    public HeadingFilter getHeadingFilter() {
+        return headingFilter;
+    }
+
+    /**
+     * Sets how often the odometry thread integrates. May be changed while running.
+     * @param rateHz Updates per second, between MIN_UPDATE_RATE and MAX_UPDATE_RATE
+     */
+    public void setUpdateRate(double rateHz) {
+        if (!(rateHz >= MIN_UPDATE_RATE && rateHz <= MAX_UPDATE_RATE)) {
+            throw new IllegalArgumentException("Odometry update rate must be between " + MIN_UPDATE_RATE + " and " + MAX_UPDATE_RATE + " hz, was " + rateHz);
+        }
+        scheduler.setRate(rateHz);
+    }
+
+    public double getUpdateRate() {
+        return scheduler.getRate();
+    }
+
+    /**
+     * Whether a late update keeps every missed tick (CATCH_UP) or drops them (SKIP, the default).
+     */
+    public void setOverrunPolicy(FixedRateScheduler.OverrunPolicy policy) {
+        scheduler.setPolicy(policy);
+    }
+
+    /**
+     * Timing of the odometry thread - achieved period, jitter, execution time and missed deadlines. Safe to read from any thread.
+     * addTelemetry() shows the totals, and each csv line has the period and execution time.
+     */
+    public FixedRateScheduler getUpdateScheduler() {
+        return scheduler;
     }
 
     @Override
@@ -108,6 +233,13 @@ public class OdometrySystemImpl implements OdometrySystem {
         return xL;
     }
 
+    /**
+     * Turns per-update csv logging and the readings for addTelemetry() on or off. Package Protected so OdometryReplay can integrate without even the hand off to the reporter.
+     */
+    void setReporting(boolean reporting) {
+        this.reporting = reporting;
+    }
+
     /**
      * Resets encoders and sets lasts. Package Protected for testing access.
      */
@@ -123,10 +255,16 @@ public class OdometrySystemImpl implements OdometrySystem {
     /**
      * Runs central odom math, called continuously by thread and accessible in package for unit testing
      */
-    synchronized void updatePosition() {
+    void updatePosition() {
+        updatePosition(FTCUtilities.getCurrentTimeNanos());
+    }
+
+    /**
+     * @param timeNanos When the encoders were read, used to turn deltas into rates
+     */
+    synchronized void updatePosition(long timeNanos) {
         double xRReading, xLReading, yReading;
         double dxR, dxL, dyBeforeFactorOut, dyExpected, dy, dx;
-        double dxLocal, dyLocal, dyGlobal, dxGlobal;
         double dHeading;
 
 
@@ -157,50 +295,36 @@ public class OdometrySystemImpl implements OdometrySystem {
         dy = dyBeforeFactorOut - dyExpected;
 
 
-        if (dHeading != 0) {//courtesy of 11115, thanks gluten free
-            double xRadius = dx / dHeading; // arc length - l = theta*r
-            double yRadius = dy / dHeading;
-
-            //find the x and y components of each arc
-            dxLocal = (xRadius * Math.sin(dHeading)) - (yRadius * (1 - Math.cos(dHeading)));
-            dyLocal = (xRadius * (1 - Math.cos(dHeading))) + (yRadius * Math.sin(dHeading));
-
-
-        } else { //curve with infinite radius, aka robot moves in a straight line
-            dxLocal = dx;
-            dyLocal = dy;
-        }
-
-        dxGlobal = -Math.sin(position.heading) * dyLocal + Math.cos(position.heading) * dxLocal; //convert to global coords. Recall that 0 rads is in direction of y axis
-        dyGlobal = Math.cos(position.heading) * dyLocal + Math.sin(position.heading) * dxLocal;
-
-        position.heading += dHeading;//apply our heading change.
-
-        position.x += dxGlobal;
-        position.y += dyGlobal;
-
-        FTCUtilities.addData("dySum", dySum);
-        FTCUtilities.addData("heading", position.heading);
-        FTCUtilities.addData("YWheelRaw", yReading);
-        FTCUtilities.addData("XWheelLRaw", xLReading);
-        FTCUtilities.addData("XWheelRRaw", xRReading);
+        integrate(dx, dy, dHeading);
 
+        fuseHeading(dHeading, timeNanos);
 
-        FTCUtilities.updateOpLogger();
+        updateDerivatives(timeNanos);
 
+        publishState(false);
 
-        logger.append("xR", String.valueOf(xRReading));
-        logger.append("xL", String.valueOf(xLReading));
-        logger.append("yReading", String.valueOf(yReading));
-        logger.append("dHeading", String.valueOf(dHeading));
-        logger.append("dyBeforeFactorOut", String.valueOf(dyBeforeFactorOut));
-        logger.append("dyExpected", String.valueOf(dyExpected));
-        logger.append("dy", String.valueOf(dy));
+        notifyListeners();
 
-        //logger.append("direction of travel", String.valueOf(velocity.direction()));
-        logger.append("x" , String.valueOf(position.x));
-        logger.append("y" , String.valueOf(position.y));
-        logger.writeLine();
+        if (reporting) { //formatting and I/O happen on the reporter's thread, this only copies numbers
+            SampleRing ring = reporter.getRing();
+            if (ring.tryClaim()) {
+                ring.put(OdometryReporter.TIME_NANOS, timeNanos);
+                ring.put(OdometryReporter.X_R, xRReading);
+                ring.put(OdometryReporter.X_L, xLReading);
+                ring.put(OdometryReporter.Y_READING, yReading);
+                ring.put(OdometryReporter.D_HEADING, dHeading);
+                ring.put(OdometryReporter.DY_BEFORE_FACTOR_OUT, dyBeforeFactorOut);
+                ring.put(OdometryReporter.DY_EXPECTED, dyExpected);
+                ring.put(OdometryReporter.DY, dy);
+                ring.put(OdometryReporter.X, position.x);
+                ring.put(OdometryReporter.Y, position.y);
+                ring.put(OdometryReporter.HEADING, position.heading);
+                ring.put(OdometryReporter.DY_SUM, dySum);
+                ring.put(OdometryReporter.PERIOD_NANOS, scheduler.getLastPeriodNanos()); //this tick's, measured when it began
+                ring.put(OdometryReporter.EXECUTION_NANOS, scheduler.getLastExecutionNanos()); //the tick before, this one isn't done
+                ring.publish();
+            }
+        }
     }
 
 //    /**
@@ -228,38 +352,295 @@ public class OdometrySystemImpl implements OdometrySystem {
 //        }
 //    }
 
-//    private void updateVelocity(long currentTime) {
-//        double distanceTraveled = position.distanceTo(lastPosition); //distance travelled between last point and this point
-//        distance += distanceTraveled; // running sum of distances
-//
-//        double oldDistance = distanceBuffer.insert(distance);
-//        long oldTime = velocityTimeBuffer.insert(currentTime);
-//
-//        double deltaDistance = distance - oldDistance;
-//        long deltaTime = currentTime - oldTime;
-//
-//        double power = deltaDistance * 1000 / (double) deltaTime;
-//
-//        double direction = lastPosition.angleTo(position);
-//        velocity.setVelocityFromSpeedDirection(power, direction);
-//
-//        lastPosition.copyFrom(position);
-//
-//        updateAcceleration(currentTime);
-//    }
-//
-//    private void updateAcceleration(long currentTime){
-//        double oldTime = accelerationTimeBuffer.insert(currentTime);
-//        double oldSpeed = speedBuffer.insert(velocity.power());
-//
-//        double dv = velocity.power() - oldSpeed;
-//        double dt = currentTime - oldTime;
-//
-//        acceleration = dv/dt;
-//    }
+    /**
+     * Moves position by one update's local motion using the selected IntegrationMethod.
+     * The sin and cos of the heading are carried along between updates by rotating them by dHeading, instead of being recomputed
+     * from the heading every time.
+     * @param dx Local forward motion
+     * @param dy Local strafe motion, rotation already factored out
+     * @param dHeading Change in heading
+     */
+    private void integrate(double dx, double dy, double dHeading) {
+        double dxLocal, dyLocal;
+        boolean small = Math.abs(dHeading) < SMALL_ANGLE;
+        double squared = dHeading * dHeading;
+
+        double sinD, cosD; //of dHeading
+        double a, b; //sin(dHeading)/dHeading and (1 - cos(dHeading))/dHeading
+        if (small) {
+            a = 1 - squared / 6 * (1 - squared / 20);
+            b = dHeading / 2 * (1 - squared / 12 * (1 - squared / 30));
+            sinD = dHeading * a;
+            cosD = 1 - dHeading * b;
+        } else {
+            sinD = Math.sin(dHeading);
+            cosD = Math.cos(dHeading);
+            a = sinD / dHeading;
+            b = (1 - cosD) / dHeading;
+        }
 
-    public synchronized State getState() {
-        return new State(position);
+        switch (integrationMethod) {
+            case POSE_EXPONENTIAL:
+                dxLocal = a * dx - b * dy;
+                dyLocal = b * dx + a * dy;
+                break;
+            case RUNGE_KUTTA_2: {
+                double half = dHeading / 2;
+                double sinHalf, cosHalf;
+                if (small) {
+                    sinHalf = half * (1 - half * half / 6);
+                    cosHalf = 1 - half * half / 2;
+                } else {
+                    sinHalf = Math.sin(half);
+                    cosHalf = Math.cos(half);
+                }
+                dxLocal = cosHalf * dx - sinHalf * dy;
+                dyLocal = sinHalf * dx + cosHalf * dy;
+                break;
+            }
+            case ARC:
+            default:
+                if (!small) {//courtesy of 11115, thanks gluten free
+                    double xRadius = dx / dHeading; // arc length - l = theta*r
+                    double yRadius = dy / dHeading;
+
+                    //find the x and y components of each arc
+                    dxLocal = (xRadius * sinD) - (yRadius * (1 - cosD));
+                    dyLocal = (xRadius * (1 - cosD)) + (yRadius * sinD);
+                } else { //radius blows up as dHeading goes to 0, so use the series form of the same arc
+                    dxLocal = a * dx - b * dy;
+                    dyLocal = b * dx + a * dy;
+                }
+                break;
+        }
+
+        //convert to global coords. Recall that 0 rads is in direction of y axis
+        position.x += cosHeading * dxLocal - sinHeading * dyLocal;
+        position.y += sinHeading * dxLocal + cosHeading * dyLocal;
+
+        position.heading += dHeading;//apply our heading change.
+
+        if (++updatesSinceTrigSync >= TRIG_RESYNC_INTERVAL) { //rotating over and over slowly piles up rounding error
+            syncHeadingTrig();
+        } else {
+            double cos = cosHeading * cosD - sinHeading * sinD;
+            sinHeading = sinHeading * cosD + cosHeading * sinD;
+            cosHeading = cos;
+        }
+    }
+
+    /**
+     * Recomputes the cached sin and cos of the heading. Needed whenever the heading changes outside of integrate().
+     */
+    private void syncHeadingTrig() {
+        cosHeading = Math.cos(position.heading);
+        sinHeading = Math.sin(position.heading);
+        updatesSinceTrigSync = 0;
+    }
+
+    /**
+     * Runs the heading filter for this update and applies the newest heading sensor reading, if there is one.
+     * Readings are late by the time they get here, so they are compared against the heading from when they were taken.
+     */
+    private void fuseHeading(double dHeading, long timeNanos) {
+        double dt = hasUpdated ? (timeNanos - lastUpdateNanos) / 1e9 : 0;
+        lastUpdateNanos = timeNanos;
+        hasUpdated = true;
+
+        headingFilter.predict(dHeading, dt);
+
+        if (headingReader == null || !headingReader.poll(headingSample)) {
+            return;
+        }
+
+        double headingThen = position.heading;
+        if (headingSample.timeNanos < timeNanos && history.lookup(headingSample.timeNanos, historyScratch)) {
+            if (headingSample.timeNanos > historyScratch.timeNanos) { //newer than anything recorded, interpolate towards this update
+                double t = (double) (headingSample.timeNanos - historyScratch.timeNanos) / (timeNanos - historyScratch.timeNanos);
+                headingThen = historyScratch.position.heading + (position.heading - historyScratch.position.heading) * t;
+            } else {
+                headingThen = historyScratch.position.heading;
+            }
+        }
+
+        if (!headingOffsetSet) {
+            headingOffset = headingThen - headingSample.heading;
+            headingOffsetSet = true;
+        } else {
+            position.heading += headingFilter.correct(headingSample.heading + headingOffset - headingThen);
+            syncHeadingTrig();
+        }
+    }
+
+    /**
+     * Differentiates the integrated pose over a short window. Uses the running heading rather than a wrapped angle so a full turn doesn't spike.
+     */
+    private void updateDerivatives(long timeNanos) {
+        this.timeNanos = timeNanos;
+
+        velocity.dx = xDerivative.update(timeNanos, position.x);
+        velocity.dy = yDerivative.update(timeNanos, position.y);
+        angularVelocity = headingDerivative.update(timeNanos, position.heading);
+
+        //inverse of the local to global rotation in integrate(), with the trig it already keeps in step with the heading
+        localVelocity.dx = cosHeading * velocity.dx + sinHeading * velocity.dy;
+        localVelocity.dy = -sinHeading * velocity.dx + cosHeading * velocity.dy;
+
+        acceleration = speedDerivative.update(timeNanos, velocity.speed());
+        angularAcceleration = angularVelocityDerivative.update(timeNanos, angularVelocity);
+    }
+
+    private void resetDerivatives() {
+        xDerivative.reset();
+        yDerivative.reset();
+        headingDerivative.reset();
+        speedDerivative.reset();
+        angularVelocityDerivative.reset();
+        velocity.dx = 0;
+        velocity.dy = 0;
+        localVelocity.dx = 0;
+        localVelocity.dy = 0;
+        angularVelocity = 0;
+        acceleration = 0;
+        angularAcceleration = 0;
+    }
+
+    /**
+     * Copies the integrator's state into the seqlock fields, then records it in the history.
+     * Callers must hold this object's monitor so there is only ever one writer.
+     * @param clearHistory Forget earlier states, for when the pose jumps and interpolating across the jump would be meaningless
+     */
+    private void publishState(boolean clearHistory) {
+        publishSequence++; //odd - readers will retry
+        publishedX = position.x;
+        publishedY = position.y;
+        publishedHeading = position.heading;
+        publishedVelocityX = velocity.dx;
+        publishedVelocityY = velocity.dy;
+        publishedLocalVelocityX = localVelocity.dx;
+        publishedLocalVelocityY = localVelocity.dy;
+        publishedAngularVelocity = angularVelocity;
+        publishedAcceleration = acceleration;
+        publishedAngularAcceleration = angularAcceleration;
+        publishedHeadingVariance = headingFilter.getVariance();
+        publishedTimeNanos = timeNanos;
+        publishSequence++; //even - snapshot is consistent again
+
+        synchronized (history) {
+            if (clearHistory) {
+                history.clear();
+            }
+            history.record(timeNanos, position, velocity, localVelocity, angularVelocity, acceleration, angularAcceleration, headingFilter.getVariance());
+        }
+    }
+
+    public State getState() {
+        return getState(new State());
+    }
+
+    public void addPoseListener(PoseListener listener) {
+        synchronized (listenerLock) {
+            PoseListener[] current = listeners;
+            PoseListener[] added = Arrays.copyOf(current, current.length + 1);
+            added[current.length] = listener;
+            listeners = added;
+        }
+    }
+
+    public void removePoseListener(PoseListener listener) {
+        synchronized (listenerLock) {
+            PoseListener[] current = listeners;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == listener) {
+                    PoseListener[] removed = new PoseListener[current.length - 1];
+                    System.arraycopy(current, 0, removed, 0, i);
+                    System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+                    listeners = removed;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the state just published to every listener. The array is copy on write, so iterating it needs no lock and
+     * listeners can add or remove themselves mid tick. Every listener sees the same snapshot.
+     */
+    private void notifyListeners() {
+        PoseListener[] current = listeners;
+        if (current.length == 0) {
+            return;
+        }
+        getState(listenerState); //this thread is the only writer, so the seqlock read never retries
+        for (PoseListener listener : current) {
+            listener.onPoseUpdate(listenerState);
+        }
+    }
+
+    /**
+     * Adds the newest odometer readings to telemetry. Call from the op mode loop, which sends the telemetry.
+     * The odometry and reporter threads never touch telemetry, since it isn't threadsafe.
+     */
+    @Override
+    public void addTelemetry() {
+        reporter.addTelemetry();
+    }
+
+    /**
+     * addTelemetry() for whichever odometry system was started last, for op mode loops that don't hold one. Does nothing if none is running.
+     */
+    public static void addRunningTelemetry() {
+        OdometrySystemImpl odometrySystem = running;
+        if (odometrySystem != null) {
+            odometrySystem.addTelemetry();
+        }
+    }
+
+    /**
+     * Logs any samples the reporter thread hasn't gotten to yet. Package Protected for tests, which don't run the threads.
+     * @return Number of samples handled
+     */
+    int drainReports() {
+        return reporter.drain();
+    }
+
+    /**
+     * Lock-free read of the latest published state. Never blocks the odometry thread and allocates nothing.
+     */
+    public State getState(State reuse) {
+        int sequence;
+
+        do { //writing straight into reuse is fine, a torn attempt just gets overwritten by the retry
+            sequence = publishSequence;
+            reuse.position.setPosition(publishedX, publishedY, publishedHeading);
+            reuse.velocity.dx = publishedVelocityX;
+            reuse.velocity.dy = publishedVelocityY;
+            reuse.localVelocity.dx = publishedLocalVelocityX;
+            reuse.localVelocity.dy = publishedLocalVelocityY;
+            reuse.angularVelocity = publishedAngularVelocity;
+            reuse.acceleration = publishedAcceleration;
+            reuse.angularAcceleration = publishedAngularAcceleration;
+            reuse.headingVariance = publishedHeadingVariance;
+            reuse.timeNanos = publishedTimeNanos;
+        } while ((sequence & 1) != 0 || sequence != publishSequence); //writer was mid-publish, try again
+
+        return reuse;
+    }
+
+    public State getStateAt(long timeNanos) {
+        return getStateAt(timeNanos, new State());
+    }
+
+    /**
+     * Lookup of the state at an earlier time, interpolated from the last HISTORY_CAPACITY updates.
+     * Times outside the history are clamped to its oldest or newest state. Holds the history's lock for one binary search,
+     * so it can briefly delay an odometry update but never the other way around for long.
+     */
+    public State getStateAt(long timeNanos, State reuse) {
+        if (!history.lookup(timeNanos, reuse)) { //nothing published yet, so the latest state is as good as it gets
+            getState(reuse);
+        }
+        return reuse;
     }
 
     public boolean isRunning() {
@@ -280,36 +661,25 @@ public class OdometrySystemImpl implements OdometrySystem {
     }
 
     private class OdometerThread extends Thread {
-        private final int SLEEP_TIME = 20;
-
         private volatile boolean running;
 
         @Override
         public void run() {
-            long lastTime = FTCUtilities.getCurrentTimeMillis();
+            scheduler.reset();
 
             running = true;
             while (running) {
-                updatePosition();
-
-                long deltaTime = FTCUtilities.getCurrentTimeMillis() - lastTime;
-
-                if (deltaTime < SLEEP_TIME) {
-                    try {
-                        synchronized (this) {
-                            this.wait(SLEEP_TIME - deltaTime);
-                        }
-                    } catch (InterruptedException e) {
-                        throw new Warning(e.getMessage()); //transpose error
-                    }
-                }
-                lastTime = FTCUtilities.getCurrentTimeMillis();
+                long now = FTCUtilities.getCurrentTimeNanos();
+                scheduler.beginTick(now);
+                FTCUtilities.getBulkReadCache().invalidate(); //new cycle, so the odometers see this tick's encoder values
+                updatePosition(now);
+                scheduler.endTickAndWait(FTCUtilities.getCurrentTimeNanos()); //same clock as beginTick, so the mock clock drives both in tests
             }
         }
 
-        private synchronized void end() {
+        private void end() {
             running = false;
-            this.notifyAll();
+            LockSupport.unpark(this); //cut the current wait short
         }
     }
 }
@@ -0,0 +1,135 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.control.Velocity;
+
+/**
+ * Fixed capacity ring of timestamped odometry states, stored as one primitive array per field so recording never allocates.
+ * Threadsafe. The arrays are plain fields, which a seqlock can't safely guard in Java without fences, so every method holds
+ * this object's monitor instead. Recording and lookups are short, so readers only ever hold up the odometry thread briefly.
+ */
+class PoseHistory {
+    private final int capacity;
+
+    private final long[] times;
+    private final double[] x, y, heading;
+    private final double[] velocityX, velocityY, localVelocityX, localVelocityY;
+    private final double[] angularVelocity, acceleration, angularAcceleration, headingVariance;
+
+    private int head = 0; //slot the next sample goes in
+    private int count = 0;
+
+    PoseHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History needs room for at least one state, capacity was " + capacity);
+        }
+        this.capacity = capacity;
+        times = new long[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        heading = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        localVelocityX = new double[capacity];
+        localVelocityY = new double[capacity];
+        angularVelocity = new double[capacity];
+        acceleration = new double[capacity];
+        angularAcceleration = new double[capacity];
+        headingVariance = new double[capacity];
+    }
+
+    /**
+     * Appends a state, overwriting the oldest once full. Times are expected to be nondecreasing.
+     */
+    synchronized void record(long timeNanos, Position position, Velocity velocity, Velocity localVelocity,
+                double angularVelocity, double acceleration, double angularAcceleration, double headingVariance) {
+        int i = head;
+        times[i] = timeNanos;
+        x[i] = position.x;
+        y[i] = position.y;
+        heading[i] = position.heading;
+        velocityX[i] = velocity.dx;
+        velocityY[i] = velocity.dy;
+        localVelocityX[i] = localVelocity.dx;
+        localVelocityY[i] = localVelocity.dy;
+        this.angularVelocity[i] = angularVelocity;
+        this.acceleration[i] = acceleration;
+        this.angularAcceleration[i] = angularAcceleration;
+        this.headingVariance[i] = headingVariance;
+
+        head = (i + 1) % capacity;
+        if (count < capacity) {
+            count++;
+        }
+    }
+
+    synchronized void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Fills out with the state at timeNanos, linearly interpolated between the two samples around it.
+     * Times before the oldest or after the newest sample are clamped to that sample rather than extrapolated.
+     * O(log n) binary search.
+     * @return false if the history is empty and out was left untouched
+     */
+    synchronized boolean lookup(long timeNanos, OdometrySystem.State out) {
+        int n = Math.min(count, capacity);
+        if (n == 0) {
+            return false;
+        }
+        int oldest = (head - n + capacity) % capacity;
+
+        //find the first sample newer than timeNanos, counting from the oldest
+        int low = 0;
+        int high = n;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[(oldest + mid) % capacity] <= timeNanos) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        if (low == 0) {
+            copy(oldest, out);
+        } else if (low == n) {
+            copy((oldest + n - 1) % capacity, out);
+        } else {
+            int before = (oldest + low - 1) % capacity;
+            int after = (oldest + low) % capacity;
+            long span = times[after] - times[before];
+            double t = span > 0 ? (double) (timeNanos - times[before]) / span : 1;
+            interpolate(before, after, t, out);
+            out.timeNanos = timeNanos;
+        }
+        return true;
+    }
+
+    private void copy(int i, OdometrySystem.State out) {
+        interpolate(i, i, 0, out);
+    }
+
+    private void interpolate(int a, int b, double t, OdometrySystem.State out) {
+        out.position.setPosition(lerp(x, a, b, t), lerp(y, a, b, t), lerp(heading, a, b, t)); //heading doesn't wrap, so a straight lerp is safe
+        out.velocity.dx = lerp(velocityX, a, b, t);
+        out.velocity.dy = lerp(velocityY, a, b, t);
+        out.localVelocity.dx = lerp(localVelocityX, a, b, t);
+        out.localVelocity.dy = lerp(localVelocityY, a, b, t);
+        out.angularVelocity = lerp(angularVelocity, a, b, t);
+        out.acceleration = lerp(acceleration, a, b, t);
+        out.angularAcceleration = lerp(angularAcceleration, a, b, t);
+        out.headingVariance = lerp(headingVariance, a, b, t);
+        out.timeNanos = times[a];
+    }
+
+    private static double lerp(double[] values, int a, int b, double t) {
+        return values[a] + (values[b] - values[a]) * t;
+    }
+}
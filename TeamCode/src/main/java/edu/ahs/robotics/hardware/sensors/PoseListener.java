@@ -0,0 +1,12 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * Called by OdometrySystem on every integration tick, on the odometry thread.
+ * Implementations must be quick and must not block or write to hardware - set a flag for the control thread instead.
+ */
+public interface PoseListener {
+    /**
+     * @param state The new state. Shared by every listener and overwritten next tick, so read it here and don't keep or modify it.
+     */
+    void onPoseUpdate(OdometrySystem.State state);
+}
@@ -0,0 +1,130 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.control.Position;
+
+/**
+ * Latching PoseListener. Tests a condition on every odometry tick and stays triggered from the first tick it holds,
+ * so the control thread only has to read a volatile flag and can't miss a crossing that happened between its loops.
+ */
+public abstract class PoseTrigger implements PoseListener {
+    private volatile boolean triggered = false;
+    private long triggerTimeNanos;
+    private Position triggerPosition = new Position(0, 0, 0);
+    private OdometrySystem listeningTo; //null unless listen() was called
+
+    /**
+     * Runs on the odometry thread, see PoseListener.
+     */
+    protected abstract boolean test(OdometrySystem.State state);
+
+    @Override
+    public final void onPoseUpdate(OdometrySystem.State state) {
+        if (!triggered && test(state)) {
+            triggerPosition.copyFrom(state.position);
+            triggerTimeNanos = state.timeNanos;
+            triggered = true; //volatile write publishes the two above
+        }
+    }
+
+    public boolean isTriggered() {
+        return triggered;
+    }
+
+    /**
+     * @return FTCUtilities.getCurrentTimeNanos() of the tick that triggered. Only meaningful once isTriggered().
+     */
+    public long getTriggerTimeNanos() {
+        return triggerTimeNanos;
+    }
+
+    /**
+     * @return Where the robot was on the tick that triggered. Only meaningful once isTriggered().
+     */
+    public Position getTriggerPosition() {
+        return triggerPosition;
+    }
+
+    /**
+     * Arms the trigger again.
+     */
+    public void reset() {
+        triggered = false;
+    }
+
+    /**
+     * Arms the trigger and adds it to odometrySystem, so only ticks from now on can trigger it.
+     * Does nothing if it's already listening, so it can be called every loop.
+     */
+    public void listen(OdometrySystem odometrySystem) {
+        if (listeningTo != null) {
+            return;
+        }
+        reset();
+        listeningTo = odometrySystem;
+        odometrySystem.addPoseListener(this);
+    }
+
+    /**
+     * Removes the trigger from the odometry system listen() added it to, if any. Leaves isTriggered() as it was.
+     */
+    public void stopListening() {
+        if (listeningTo != null) {
+            listeningTo.removePoseListener(this);
+            listeningTo = null;
+        }
+    }
+
+    public boolean isListening() {
+        return listeningTo != null;
+    }
+
+    public static PoseTrigger yAbove(final double y) {
+        return new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                return state.position.y > y;
+            }
+        };
+    }
+
+    public static PoseTrigger yBelow(final double y) {
+        return new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                return state.position.y < y;
+            }
+        };
+    }
+
+    public static PoseTrigger xAbove(final double x) {
+        return new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                return state.position.x > x;
+            }
+        };
+    }
+
+    public static PoseTrigger xBelow(final double x) {
+        return new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                return state.position.x < x;
+            }
+        };
+    }
+
+    /**
+     * Triggers once the robot is within radius of (x, y).
+     */
+    public static PoseTrigger near(final double x, final double y, final double radius) {
+        return new PoseTrigger() {
+            @Override
+            protected boolean test(OdometrySystem.State state) {
+                double dx = state.position.x - x;
+                double dy = state.position.y - y;
+                return dx * dx + dy * dy <= radius * radius;
+            }
+        };
+    }
+}
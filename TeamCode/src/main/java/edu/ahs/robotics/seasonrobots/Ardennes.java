@@ -18,6 +18,7 @@ import edu.ahs.robotics.hardware.Robot;
 import edu.ahs.robotics.hardware.SerialServo;
 import edu.ahs.robotics.hardware.sensors.ArdennesSkyStoneDetector;
 import edu.ahs.robotics.hardware.sensors.Odometer;
+import edu.ahs.robotics.hardware.sensors.OdometryCalibrator;
 import edu.ahs.robotics.hardware.sensors.OdometrySystemImpl;
 import edu.ahs.robotics.hardware.sensors.TriggerDistanceSensor;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
@@ -28,6 +29,7 @@ import edu.ahs.robotics.hardware.Slides;
 public class Ardennes extends Robot {
     private MecanumChassis mecanumChassis;
     private OdometrySystemImpl odometrySystem;
+    private OdometryCalibrator.Calibration odometryCalibration;
     private Intake intake;
     private SerialServo gripper;
     private TriggerDistanceSensor intakeTrigger, gripperTrigger, foundationTriggerRight, foundationTriggerLeft;
@@ -63,6 +65,18 @@ public class Ardennes extends Robot {
         return mecanumChassis;
     }
 
+    public OdometrySystemImpl getOdometrySystem(){
+        return odometrySystem;
+    }
+
+    /**
+     * Calibration the odometers are running with. Runs logged now must be solved with OdometryCalibrator.solve(Calibration)
+     * using this, so a new calibration builds on it instead of replacing it.
+     */
+    public OdometryCalibrator.Calibration getOdometryCalibration() {
+        return odometryCalibration;
+    }
+
     public TriggerDistanceSensor getIntakeTrigger() {
         return intakeTrigger;
     }
@@ -111,11 +125,16 @@ public class Ardennes extends Robot {
     }
 
     private OdometrySystemImpl makeOdometrySystem(){
-        Odometer x1 = FTCUtilities.getOdometer("intakeR", 1.50664565, false,1440.0); //2.3596 //*** IMPORTANT *** setDirection() method on DcMotor changes encoder direction
-        Odometer x2 = FTCUtilities.getOdometer("intakeL", 1.51543176978, false,1440.0); //2.3617
-        Odometer y = FTCUtilities.getOdometer("BR", 1.50446717, true,1440.0);
+        //hand tuned values, used until OdometryCalibrator has written a calibration file
+        OdometryCalibrator.Calibration handTuned = new OdometryCalibrator.Calibration(14.4218256, -0.1025, 1, 1, 1);
+        OdometryCalibrator.Calibration calibration = OdometryCalibrator.Calibration.load(OdometryCalibrator.DEFAULT_FILE, handTuned);
+        odometryCalibration = calibration;
+
+        Odometer x1 = FTCUtilities.getOdometer("intakeR", 1.50664565 * calibration.xRScale, false,1440.0); //2.3596 //*** IMPORTANT *** setDirection() method on DcMotor changes encoder direction
+        Odometer x2 = FTCUtilities.getOdometer("intakeL", 1.51543176978 * calibration.xLScale, false,1440.0); //2.3617
+        Odometer y = FTCUtilities.getOdometer("BR", 1.50446717 * calibration.yScale, true,1440.0);
 
-        OdometrySystemImpl odometrySystem = new OdometrySystemImpl(x1, x2, y, -0.1025, 14.4218256);
+        OdometrySystemImpl odometrySystem = new OdometrySystemImpl(x1, x2, y, calibration.yInchesPerDegree, calibration.distanceBetweenYWheels);
         return odometrySystem;
     }
 
@@ -0,0 +1,408 @@
+package edu.ahs.robotics.util;
+
+import org.firstinspires.ftc.robotcore.internal.android.dx.util.Warning;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.control.PointBuffer;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Reads paths from GCodeReader csvs or real G-code, scanning numbers straight out of a char buffer instead of splitting lines
+ * into Strings and boxing Doubles. Points go into PointBuffers, one per path.
+ * </br>
+ * Csv lines are x;y;z like GCodeReader, points with z of 0 are on a path and any other z ends it. Unlike GCodeReader, a path
+ * still open at the end of the file is kept.
+ * </br>
+ * G-code lines support G0 rapids, G1 lines and G2/G3 arcs with I and J centers, expanded into points at most arcResolution
+ * apart. Feed moves at Z 0 draw the path, rapids and moves off Z 0 end it. G20/G21 inches and millimeters and G90/G91 absolute
+ * and incremental are followed, everything in the result is in inches. Comments in parentheses or after ';' are skipped.
+ * </br>
+ * Malformed lines throw an IllegalArgumentException that starts with the line and column.
+ */
+public class GCodeParser {
+    public static final double DEFAULT_ARC_RESOLUTION = .5; //inches between points on arcs
+    private static final double MM_PER_INCH = 25.4;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Powers of ten that are exact doubles, so a mantissa below 2^53 times or divided by one of them is correctly rounded,
+     * the same as Double.parseDouble.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long EXACT_MANTISSA = 1L << 53;
+
+    private final double arcResolution;
+
+    private List<PointBuffer> paths;
+    private PointBuffer current;
+
+    private char[] line = new char[256];
+    private int length;
+    private int position;
+    private int lineNumber;
+
+    //G-code modal state
+    private int motion;
+    private boolean absolute;
+    private double unitScale;
+    private double x, y, z;
+
+    public GCodeParser() {
+        this(DEFAULT_ARC_RESOLUTION);
+    }
+
+    /**
+     * @param arcResolution Longest chord, in inches, between points an arc is expanded into
+     */
+    public GCodeParser(double arcResolution) {
+        if (arcResolution <= 0) {
+            throw new IllegalArgumentException("Arc resolution must be positive, was " + arcResolution);
+        }
+        this.arcResolution = arcResolution;
+    }
+
+    /**
+     * Parses a file in the log directory, see FTCUtilities.getLogDirectory()
+     */
+    public static List<PointBuffer> openFile(String name) {
+        File file = new File(FTCUtilities.getLogDirectory(), name);
+        try (Reader reader = new FileReader(file)) {
+            return new GCodeParser().parse(reader);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new Warning("Parsing path " + name + " threw exception" + e.getMessage());
+        }
+    }
+
+    public List<PointBuffer> parse(Reader reader) throws IOException {
+        paths = new ArrayList<>();
+        current = null;
+        length = 0;
+        lineNumber = 0;
+        motion = 0;
+        absolute = true;
+        unitScale = 1;
+        x = y = z = 0;
+
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++) {
+                char c = buffer[i];
+                if (c == '\n') {
+                    parseLine();
+                    length = 0;
+                } else {
+                    if (length == line.length) {
+                        char[] longer = new char[length * 2];
+                        System.arraycopy(line, 0, longer, 0, length);
+                        line = longer;
+                    }
+                    line[length++] = c;
+                }
+            }
+        }
+        if (length > 0) {
+            parseLine();
+        }
+        endPath();
+
+        List<PointBuffer> result = paths;
+        paths = null;
+        return result;
+    }
+
+    private void parseLine() {
+        lineNumber++;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        position = 0;
+        skipSpaces();
+        if (position == length) {
+            return;
+        }
+
+        char c = line[position];
+        if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.') {
+            parseCsvLine();
+        } else {
+            parseGCodeLine();
+        }
+    }
+
+    private void parseCsvLine() {
+        double px = number();
+        expect(';');
+        double py = number();
+        expect(';');
+        double pz = number();
+        //anything after z is ignored, as in GCodeReader
+
+        if (pz == 0.0) {
+            addPoint(px, py);
+        } else {
+            endPath();
+        }
+    }
+
+    private void parseGCodeLine() {
+        boolean hasX = false, hasY = false, hasZ = false, hasI = false, hasJ = false;
+        double wordX = 0, wordY = 0, wordZ = 0, wordI = 0, wordJ = 0;
+
+        while (position < length) {
+            char c = Character.toUpperCase(line[position]);
+            if (c == ';') {
+                break;
+            } else if (c == '(') {
+                while (position < length && line[position] != ')') {
+                    position++;
+                }
+                if (position == length) {
+                    throw error("unclosed comment");
+                }
+                position++;
+            } else if (c == '%') {
+                position++;
+            } else if (c >= 'A' && c <= 'Z') {
+                position++;
+                double value = number();
+                switch (c) {
+                    case 'G':
+                        gCode(value);
+                        break;
+                    case 'X':
+                        hasX = true;
+                        wordX = value;
+                        break;
+                    case 'Y':
+                        hasY = true;
+                        wordY = value;
+                        break;
+                    case 'Z':
+                        hasZ = true;
+                        wordZ = value;
+                        break;
+                    case 'I':
+                        hasI = true;
+                        wordI = value;
+                        break;
+                    case 'J':
+                        hasJ = true;
+                        wordJ = value;
+                        break;
+                    case 'R':
+                        throw error("R arcs aren't supported, use I and J");
+                    default:
+                        break; //line numbers, feeds, speeds, tools and M codes don't change the path
+                }
+            } else {
+                throw error("unexpected '" + line[position] + "'");
+            }
+            skipSpaces();
+        }
+
+        boolean arc = motion == 2 || motion == 3;
+        if (!(hasX || hasY || hasZ || (arc && (hasI || hasJ)))) {
+            return;
+        }
+        double targetX = hasX ? axis(wordX, x) : x;
+        double targetY = hasY ? axis(wordY, y) : y;
+        double targetZ = hasZ ? axis(wordZ, z) : z;
+
+        if (motion == 0 || targetZ != z || z != 0) {
+            endPath();
+        } else if (arc) {
+            if (!hasI && !hasJ) {
+                throw error("G" + motion + " needs I or J");
+            }
+            addArc(targetX, targetY, x + wordI * unitScale, y + wordJ * unitScale, motion == 2);
+        } else {
+            addPoint(x, y);
+            addPoint(targetX, targetY);
+        }
+        x = targetX;
+        y = targetY;
+        z = targetZ;
+    }
+
+    private void gCode(double value) {
+        int code = (int) value;
+        if (code != value) {
+            return; //G90.1/G91.1 and the like, arc centers are always incremental here
+        }
+        switch (code) {
+            case 0:
+            case 1:
+            case 2:
+            case 3:
+                motion = code;
+                break;
+            case 18:
+            case 19:
+                throw error("only the XY plane, G17, is supported");
+            case 20:
+                unitScale = 1;
+                break;
+            case 21:
+                unitScale = 1 / MM_PER_INCH;
+                break;
+            case 90:
+                absolute = true;
+                break;
+            case 91:
+                absolute = false;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private double axis(double word, double currentValue) {
+        return absolute ? word * unitScale : currentValue + word * unitScale;
+    }
+
+    /**
+     * Adds points along an arc from the current position around (centerX, centerY) to the target, ending exactly on the target.
+     * Start and target in the same place is a full circle.
+     */
+    private void addArc(double targetX, double targetY, double centerX, double centerY, boolean clockwise) {
+        double radius = Math.hypot(x - centerX, y - centerY);
+        double startAngle = Math.atan2(y - centerY, x - centerX);
+        double sweep = Math.atan2(targetY - centerY, targetX - centerX) - startAngle;
+        if (clockwise && sweep >= 0) {
+            sweep -= 2 * Math.PI;
+        } else if (!clockwise && sweep <= 0) {
+            sweep += 2 * Math.PI;
+        }
+
+        addPoint(x, y);
+        int segments = Math.max(1, (int) Math.ceil(Math.abs(sweep) * radius / arcResolution));
+        for (int i = 1; i < segments; i++) {
+            double angle = startAngle + sweep * i / segments;
+            addPoint(centerX + radius * Math.cos(angle), centerY + radius * Math.sin(angle));
+        }
+        addPoint(targetX, targetY);
+    }
+
+    /**
+     * Adds a point to the open path, starting one if needed. A point repeating the last one is skipped, so consecutive moves
+     * don't double their shared ends.
+     */
+    private void addPoint(double px, double py) {
+        if (current == null) {
+            current = new PointBuffer();
+        } else {
+            int last = current.size() - 1;
+            if (current.getX(last) == px && current.getY(last) == py) {
+                return;
+            }
+        }
+        current.add(px, py);
+    }
+
+    private void endPath() {
+        if (current != null) {
+            paths.add(current);
+            current = null;
+        }
+    }
+
+    private void skipSpaces() {
+        while (position < length && (line[position] == ' ' || line[position] == '\t')) {
+            position++;
+        }
+    }
+
+    private void expect(char c) {
+        if (position == length || line[position] != c) {
+            throw error("expected '" + c + "'");
+        }
+        position++;
+    }
+
+    /**
+     * Scans a decimal number with optional sign and exponent at the current position, and any spaces around it.
+     * Falls back to Double.parseDouble only for numbers with too many digits to convert exactly.
+     */
+    private double number() {
+        skipSpaces();
+        int start = position;
+        boolean negative = false;
+        if (position < length && (line[position] == '-' || line[position] == '+')) {
+            negative = line[position] == '-';
+            position++;
+        }
+
+        long mantissa = 0;
+        int scale = 0;
+        boolean digits = false, inexact = false;
+        boolean fraction = false;
+        while (position < length) {
+            char c = line[position];
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (mantissa < EXACT_MANTISSA) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (fraction) {
+                        scale--;
+                    }
+                } else {
+                    inexact = true;
+                    if (!fraction) {
+                        scale++;
+                    }
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (!digits) {
+            position = start;
+            throw error("expected a number");
+        }
+
+        if (position < length && (line[position] == 'e' || line[position] == 'E')) {
+            position++;
+            boolean negativeExponent = false;
+            if (position < length && (line[position] == '-' || line[position] == '+')) {
+                negativeExponent = line[position] == '-';
+                position++;
+            }
+            int exponent = 0;
+            boolean exponentDigits = false;
+            while (position < length && line[position] >= '0' && line[position] <= '9') {
+                exponent = Math.min(100_000, exponent * 10 + (line[position] - '0'));
+                exponentDigits = true;
+                position++;
+            }
+            if (!exponentDigits) {
+                throw error("expected an exponent");
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        int end = position;
+        skipSpaces();
+
+        double value;
+        if (!inexact && mantissa < EXACT_MANTISSA && scale >= -22 && scale <= 22) {
+            value = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(line, start, end - start));
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Line " + lineNumber + ", column " + (position + 1) + ": " + message);
+    }
+}
@@ -19,34 +19,39 @@ public class GCodeReader {
     private static GCodeReader instance;
 
     public static List<List<Point>> openFile(String name){
-        BufferedReader fr;
         String fileName = FTCUtilities.getLogDirectory() + "/" + name;
-        List<List<Point>> arrayOfPoints = new ArrayList<>();
 
-        try {
-            fr = new BufferedReader(new FileReader(fileName));
-            String line;
-            boolean inPath = false;
-            List<Point> points = null;
-            while ((line = fr.readLine()) != null){
-                String[] stringCoords = line.split(";");
-                if (valueOf(stringCoords[2]) == 0.0) {
-                    if (!inPath) {
-                        points = new ArrayList<>();
-                        inPath = true;
-                    }
-                    Point p = new Point(valueOf(stringCoords[0]), valueOf(stringCoords[1]));
-                    points.add(p);
-                } else {
-                    if (inPath){
-                        arrayOfPoints.add(points);
-                        inPath = false;
-                    }
-                }
-            }
+        try (BufferedReader fr = new BufferedReader(new FileReader(fileName))) {
+            return read(fr);
         } catch (IOException e){
             throw new Warning("Looking for path "+name+" threw exception"+e.getMessage());
         }
+    }
+
+    /**
+     * Reads every path in a csv of x;y;z lines. Points with z of 0 are on a path, any other z ends it.
+     */
+    public static List<List<Point>> read(BufferedReader fr) throws IOException {
+        List<List<Point>> arrayOfPoints = new ArrayList<>();
+        String line;
+        boolean inPath = false;
+        List<Point> points = null;
+        while ((line = fr.readLine()) != null){
+            String[] stringCoords = line.split(";");
+            if (valueOf(stringCoords[2]) == 0.0) {
+                if (!inPath) {
+                    points = new ArrayList<>();
+                    inPath = true;
+                }
+                Point p = new Point(valueOf(stringCoords[0]), valueOf(stringCoords[1]));
+                points.add(p);
+            } else {
+                if (inPath){
+                    arrayOfPoints.add(points);
+                    inPath = false;
+                }
+            }
+        }
         return arrayOfPoints;
     }
 
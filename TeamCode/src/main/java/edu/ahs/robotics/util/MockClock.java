@@ -41,4 +41,12 @@ public class MockClock {
         i++;
         return time;
     }
+
+    /**
+     * Nanosecond version of getCurrentTimeMillis, advancing the clock the same way. Intended to act as a mock of System.nanoTime.
+     * @return the time in nanoseconds
+     */
+    public long getCurrentTimeNanos(){
+        return getCurrentTimeMillis() * 1_000_000L;
+    }
 }
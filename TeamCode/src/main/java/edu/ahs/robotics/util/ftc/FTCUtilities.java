@@ -4,6 +4,7 @@ import android.graphics.Bitmap;
 import android.os.Environment;
 
 import com.qualcomm.hardware.bosch.BNO055IMU;
+import com.qualcomm.hardware.lynx.LynxModule;
 import com.qualcomm.hardware.rev.Rev2mDistanceSensor;
 import com.qualcomm.hardware.rev.RevBlinkinLedDriver;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
@@ -23,6 +24,10 @@ import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Map;
 
+import edu.ahs.robotics.hardware.CachedMotor;
+import edu.ahs.robotics.hardware.sensors.BulkReadCache;
+import edu.ahs.robotics.hardware.sensors.Encoder;
+import edu.ahs.robotics.hardware.sensors.MotorEncoder;
 import edu.ahs.robotics.hardware.sensors.Odometer;
 import edu.ahs.robotics.hardware.sensors.OdometerImpl;
 import edu.ahs.robotics.util.MockClock;
@@ -42,6 +47,8 @@ public class FTCUtilities { //handles inaccessable objects in FTCApp. hardwareMa
     private static Map <String, Odometer>testOdometers = new HashMap();
     private static MockClock mockClock;
     private static ParameterLookup parameterLookup;
+    private static BulkReadCache bulkReadCache;
+    private static Map<DcMotor, CachedMotor> cachedMotors = new HashMap<>();
 
 
     public static String getLogDirectory(){
@@ -59,6 +66,8 @@ public class FTCUtilities { //handles inaccessable objects in FTCApp. hardwareMa
     public static void setOpMode(OpMode opMode){
         FTCUtilities.opMode = opMode;
         FTCUtilities.hardwareMap = opMode.hardwareMap;
+        FTCUtilities.bulkReadCache = null; //new op mode, new hardware
+        cachedMotors.clear(); //motors are stopped between op modes, so the cached powers are stale
     }
 
     public static OpMode getOpMode(){
@@ -113,6 +122,53 @@ public class FTCUtilities { //handles inaccessable objects in FTCApp. hardwareMa
         return hardwareMap.get(DcMotor.class, deviceName);
     }
 
+    /**
+     * The one CachedMotor for a motor this op mode. Everything that drives a motor, or resets its encoder, should share it,
+     * otherwise the cache can't be trusted. See CachedMotor.
+     */
+    public static synchronized CachedMotor getCachedMotor(DcMotor motor) {
+        CachedMotor cachedMotor = cachedMotors.get(motor);
+        if (cachedMotor == null) {
+            cachedMotor = new CachedMotor(motor);
+            cachedMotors.put(motor, cachedMotor);
+        }
+        return cachedMotor;
+    }
+
+    public static CachedMotor getCachedMotor(String deviceName) {
+        return getCachedMotor(getMotor(deviceName));
+    }
+
+    /**
+     * Encoder for a motor port, served from the bulk read cache on the robot. In test mode reads the motor directly.
+     */
+    public static Encoder getEncoder(DcMotor motor){
+        if(testMode){
+            return new MotorEncoder(motor);
+        }
+        return getBulkReadCache().getEncoder(motor);
+    }
+
+    public static Encoder getEncoder(String deviceName){
+        return getEncoder(getMotor(deviceName));
+    }
+
+    /**
+     * Shared cache of hub encoder reads for the current op mode. Puts every hub into AUTO bulk caching the first time it is asked for.
+     * Control loops should call invalidate() on it once per cycle.
+     */
+    public static synchronized BulkReadCache getBulkReadCache(){
+        if(bulkReadCache == null){
+            bulkReadCache = new BulkReadCache();
+            if(!testMode){
+                for (LynxModule module : hardwareMap.getAll(LynxModule.class)) {
+                    module.setBulkCachingMode(LynxModule.BulkCachingMode.AUTO);
+                }
+            }
+        }
+        return bulkReadCache;
+    }
+
     public static DcMotorEx getMotorEx(String deviceName){
         if(testMode){
             return (DcMotorEx)testMotors.get(deviceName);
@@ -206,6 +262,17 @@ public class FTCUtilities { //handles inaccessable objects in FTCApp. hardwareMa
         }
     }
 
+    /**
+     * Monotonic time for measuring intervals. Not related to wall clock time, so only compare it against other calls.
+     */
+    public static long getCurrentTimeNanos(){
+        if(!testMode){
+            return System.nanoTime();
+        } else {
+            return mockClock.getCurrentTimeNanos();
+        }
+    }
+
     public static ParameterLookup getParameterLookup() {
         return parameterLookup;
     }
@@ -0,0 +1,219 @@
+package edu.ahs.robotics.util.ftc;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces a loop to a fixed rate using absolute nanosecond deadlines, so the rate doesn't drift with the cost of the loop body.
+ * Also measures what the loop actually achieves - tick period, execution time and missed deadlines.
+ * Every call takes the current time as an argument, so it can be driven deterministically in unit tests.
+ * All times for one scheduler must come from the same clock, such as FTCUtilities.getCurrentTimeNanos().
+ * Only one thread should run ticks, any thread may read the stats or change the rate.
+ */
+public class FixedRateScheduler {
+    /**
+     * What to do when a tick finishes after the next deadline has already passed.
+     */
+    public enum OverrunPolicy {
+        /**
+         * Keep every deadline. Late ticks run back to back until the loop is back on schedule, so no ticks are lost.
+         */
+        CATCH_UP,
+        /**
+         * Drop the deadlines that have already passed and resume on the next one still in the future.
+         */
+        SKIP
+    }
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private volatile long periodNanos;
+    private volatile OverrunPolicy policy;
+
+    private long nextDeadline;
+    private long lastTickStart;
+    private long tickStart;
+    private boolean started = false;
+
+    //stats, written by the ticking thread only
+    private volatile long tickCount = 0;
+    private volatile long lastPeriodNanos = 0;
+    private volatile long maxPeriodNanos = 0;
+    private volatile long periodSumNanos = 0;
+    private volatile long lastExecutionNanos = 0;
+    private volatile long maxExecutionNanos = 0;
+    private volatile long executionSumNanos = 0;
+    private volatile long maxJitterNanos = 0;
+    private volatile long missedDeadlines = 0;
+    private volatile long skippedTicks = 0;
+
+    /**
+     * @param rateHz Target ticks per second. Must be positive.
+     * @param policy Behavior when a tick runs long.
+     */
+    public FixedRateScheduler(double rateHz, OverrunPolicy policy) {
+        setRate(rateHz);
+        this.policy = policy;
+    }
+
+    /**
+     * Changes the target rate. Takes effect when the current tick ends.
+     */
+    public void setRate(double rateHz) {
+        if (!(rateHz > 0) || Double.isInfinite(rateHz)) {
+            throw new IllegalArgumentException("Rate must be positive and finite, was " + rateHz);
+        }
+        periodNanos = Math.round(NANOS_PER_SECOND / rateHz);
+    }
+
+    public double getRate() {
+        return (double) NANOS_PER_SECOND / periodNanos;
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+
+    public void setPolicy(OverrunPolicy policy) {
+        this.policy = policy;
+    }
+
+    public OverrunPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Marks the start of a tick. The first call anchors the deadline grid.
+     * @param now Current time in nanoseconds
+     */
+    public void beginTick(long now) {
+        if (!started) {
+            nextDeadline = now;
+            started = true;
+        } else {
+            long period = now - lastTickStart;
+            lastPeriodNanos = period;
+            periodSumNanos += period;
+            if (period > maxPeriodNanos) {
+                maxPeriodNanos = period;
+            }
+            long jitter = Math.abs(period - periodNanos);
+            if (jitter > maxJitterNanos) {
+                maxJitterNanos = jitter;
+            }
+        }
+        lastTickStart = now;
+        tickStart = now;
+    }
+
+    /**
+     * Marks the end of a tick and advances the deadline according to the overrun policy.
+     * @param now Current time in nanoseconds, from the same clock as beginTick()
+     * @return Nanoseconds to wait before the next tick should begin, 0 if it is already due.
+     */
+    public long endTick(long now) {
+        long execution = now - tickStart;
+        lastExecutionNanos = execution;
+        executionSumNanos += execution;
+        if (execution > maxExecutionNanos) {
+            maxExecutionNanos = execution;
+        }
+        tickCount++;
+
+        long period = periodNanos;
+        nextDeadline += period;
+
+        if (now > nextDeadline) {
+            missedDeadlines++;
+            if (policy == OverrunPolicy.SKIP) {
+                long behind = (now - nextDeadline) / period + 1; //whole periods that have already gone by
+                skippedTicks += behind;
+                nextDeadline += behind * period;
+            }
+        }
+
+        return Math.max(0, nextDeadline - now);
+    }
+
+    /**
+     * Ends the tick, then parks the calling thread until the next deadline. Returns early if the thread is unparked or interrupted,
+     * so owners can stop the loop promptly with LockSupport.unpark() or Thread.interrupt().
+     * @param now Current time in nanoseconds, from the same clock as beginTick()
+     */
+    public void endTickAndWait(long now) {
+        long wait = endTick(now);
+        if (wait > 0) {
+            LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    /**
+     * Forgets the deadline grid and all stats. The next beginTick() starts fresh.
+     */
+    public void reset() {
+        started = false;
+        tickCount = 0;
+        lastPeriodNanos = 0;
+        maxPeriodNanos = 0;
+        periodSumNanos = 0;
+        lastExecutionNanos = 0;
+        maxExecutionNanos = 0;
+        executionSumNanos = 0;
+        maxJitterNanos = 0;
+        missedDeadlines = 0;
+        skippedTicks = 0;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * @return Start to start time of the last two ticks.
+     */
+    public long getLastPeriodNanos() {
+        return lastPeriodNanos;
+    }
+
+    public long getMaxPeriodNanos() {
+        return maxPeriodNanos;
+    }
+
+    public double getAveragePeriodNanos() {
+        long ticks = tickCount;
+        return ticks > 1 ? (double) periodSumNanos / (ticks - 1) : 0; //periods are measured between ticks
+    }
+
+    /**
+     * @return Largest absolute difference between a measured period and the target period.
+     */
+    public long getMaxJitterNanos() {
+        return maxJitterNanos;
+    }
+
+    public long getLastExecutionNanos() {
+        return lastExecutionNanos;
+    }
+
+    public long getMaxExecutionNanos() {
+        return maxExecutionNanos;
+    }
+
+    public double getAverageExecutionNanos() {
+        long ticks = tickCount;
+        return ticks > 0 ? (double) executionSumNanos / ticks : 0;
+    }
+
+    /**
+     * @return Number of ticks that finished after the following tick was due.
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * @return Number of deadlines dropped under {@link OverrunPolicy#SKIP}. Always 0 with CATCH_UP.
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+}
@@ -0,0 +1,99 @@
+package edu.ahs.robotics.util.ftc;
+
+/**
+ * Lock-free single producer, single consumer queue of fixed width samples of doubles. Samples are written in place,
+ * so nothing is allocated or boxed per sample.
+ * Meant for handing data off a time critical thread. When the consumer falls behind the producer drops samples instead of waiting.
+ * Exactly one thread may produce (tryClaim, put, publish) and exactly one may consume (poll).
+ */
+public class SampleRing {
+    private final int width;
+    private final int mask;
+    private final double[] data;
+
+    private volatile long head = 0; //next sample to consume, written by the consumer
+    private volatile long tail = 0; //next sample to produce, written by the producer
+    private boolean claimed = false; //producer only
+    private volatile long dropped = 0;
+
+    /**
+     * @param capacity Number of samples held, rounded up to a power of two
+     * @param width Number of doubles in each sample
+     */
+    public SampleRing(int capacity, int width) {
+        if (capacity < 1 || width < 1) {
+            throw new IllegalArgumentException("Capacity and width must be positive, were " + capacity + " and " + width);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.width = width;
+        this.mask = size - 1;
+        this.data = new double[size * width];
+    }
+
+    /**
+     * Reserves the next slot. Follow with put() for each column and then publish().
+     * @return false if the ring is full, in which case the sample is counted as dropped and put/publish do nothing
+     */
+    public boolean tryClaim() {
+        if (tail - head > mask) {
+            dropped++;
+            claimed = false;
+            return false;
+        }
+        claimed = true;
+        return true;
+    }
+
+    public void put(int column, double value) {
+        if (claimed) {
+            data[(int) (tail & mask) * width + column] = value;
+        }
+    }
+
+    /**
+     * Makes the claimed sample visible to the consumer.
+     */
+    public void publish() {
+        if (claimed) {
+            tail = tail + 1; //volatile write orders the puts before it
+            claimed = false;
+        }
+    }
+
+    /**
+     * Takes the oldest sample.
+     * @param out Filled with the sample, at least width long
+     * @return false if there was nothing to take
+     */
+    public boolean poll(double[] out) {
+        long h = head;
+        if (h == tail) {
+            return false;
+        }
+        System.arraycopy(data, (int) (h & mask) * width, out, 0, width);
+        head = h + 1; //only now may the producer reuse the slot
+        return true;
+    }
+
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Samples thrown away because the ring was full
+     */
+    public long getDropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,59 @@
+package edu.ahs.robotics.util.ftc;
+
+/**
+ * Estimates the rate of change of a signal by differencing against the oldest sample in a fixed window.
+ * Same idea as the old RingBuffer based velocity code, but backed by primitive arrays so nothing is boxed or allocated per sample.
+ * Wider windows smooth out encoder quantization at the cost of roughly half a window of lag.
+ */
+public class WindowedDerivative {
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final long[] times;
+    private final double[] values;
+    private int head = 0; //next slot to write, which is also the oldest sample once the window is full
+    private int count = 0;
+
+    /**
+     * @param window Number of samples to difference across. Must be at least 2.
+     */
+    public WindowedDerivative(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Window must hold at least 2 samples, was " + window);
+        }
+        times = new long[window];
+        values = new double[window];
+    }
+
+    /**
+     * Adds a sample and returns the derivative across the window.
+     * Until the window fills, differences against the first sample instead.
+     * @param timeNanos Time of the sample in nanoseconds
+     * @param value Sample value
+     * @return Change in value per second, or 0 if there is no elapsed time yet
+     */
+    public double update(long timeNanos, double value) {
+        times[head] = timeNanos;
+        values[head] = value;
+        if (++head >= times.length) {
+            head = 0;
+        }
+        if (count < times.length) {
+            count++;
+        }
+
+        int oldest = count < times.length ? 0 : head;
+        long dt = timeNanos - times[oldest];
+        if (dt <= 0) {
+            return 0;
+        }
+        return (value - values[oldest]) * NANOS_PER_SECOND / dt;
+    }
+
+    /**
+     * Forgets all samples.
+     */
+    public void reset() {
+        head = 0;
+        count = 0;
+    }
+}
@@ -33,22 +33,44 @@ public class DataLogger extends Logger {
     }
 
     public void append(String category, String data) {
+        entriesFor(category).add(data);
+    }
+
+    /**
+     * Adds a column with no entry yet, so a column only filled in now and then still makes it into the header.
+     */
+    public void addCategory(String category) {
+        entriesFor(category);
+    }
+
+    private ArrayList<String> entriesFor(String category) {
         ArrayList<String> dataList = entriesByCategory.get(category);
         if (dataList == null) {
             dataList = new ArrayList<>();
+            for (int i = 0; i < lastLine; i++) { //blank in lines written before it was added
+                dataList.add(" ");
+            }
             categories.add(category);
             entriesByCategory.put(category,dataList);
         }
-        dataList.add(data);
+        return dataList;
     }
 
     public void writeLine(){
+        writeLine(System.currentTimeMillis());
+    }
+
+    /**
+     * Writes a line stamped with when its data was measured rather than when it is written, for lines logged after the fact.
+     * @param timeMillis System.currentTimeMillis() at the time of measurement
+     */
+    public void writeLine(long timeMillis){
         try {
             if(firstLine){
                 writeCats();
                 firstLine = false;
             }
-            fileWriter.append(String.valueOf(System.currentTimeMillis() - startTime) + ", ");
+            fileWriter.append(String.valueOf(timeMillis - startTime) + ", ");
             for (int i = 0; i < categories.size(); i++) {
                 String category = categories.get(i);
                 List<String> list = entriesByCategory.get(category);
@@ -56,6 +78,7 @@ public class DataLogger extends Logger {
                     fileWriter.append(list.get(lastLine));
                 } else {
                     fileWriter.append(" ");
+                    list.add(" "); //keeps the column lined up with the lines after this one
                 }
                 if (i < categories.size() - 1) {
                     fileWriter.append(", ");
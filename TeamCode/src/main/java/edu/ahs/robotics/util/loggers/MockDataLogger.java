@@ -19,6 +19,11 @@ public class MockDataLogger extends DataLogger {
 
     }
 
+    @Override
+    public void writeLine(long timeMillis) {
+
+    }
+
     @Override
     public void stopWriting() {
 
@@ -28,4 +33,9 @@ public class MockDataLogger extends DataLogger {
     public void append(String category, String data) {
 
     }
+
+    @Override
+    public void addCategory(String category) {
+
+    }
 }
@@ -14,6 +14,7 @@ import edu.ahs.robotics.util.ftc.FTCUtilities;
  * Automatically calculates odometer constants.
  * </br>
  * Based on 9794 Wizards.exe calibration OpMode but theirs was shitty.
+ * For a least squares fit over several logged runs, see OdometryCalibrator.
  * @author Alex Appleby
  */
 @TeleOp(name = "Odometry System Calibration", group = "Calibration")
@@ -90,6 +90,7 @@ public class ArdennesOdometryOpMode extends OpMode
         telemetry.addData("x -ins", position.x);
         telemetry.addData("y -ins", position.y);
         telemetry.addData("heading", Math.toDegrees(position.heading));
+        ardennes.getOdometrySystem().addTelemetry();
     }
     @Override
     public void stop() {
@@ -4,6 +4,7 @@ import com.qualcomm.robotcore.eventloop.opmode.OpMode;
 
 import java.util.HashMap;
 
+import edu.ahs.robotics.hardware.sensors.OdometrySystemImpl;
 import edu.ahs.robotics.util.ftc.ErrorStealer;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 import edu.ahs.robotics.util.ftc.LoopTracker;
@@ -61,7 +62,10 @@ public abstract class IterativeOpMode16896 extends OpMode {
     @Override
     public final void loop() {
         try {
+            FTCUtilities.getBulkReadCache().invalidate(); //one fresh encoder snapshot per loop
+
             iterate();
+            OdometrySystemImpl.addRunningTelemetry(); //the SDK sends telemetry after every loop()
 
             loopTracker.update();
         } catch (Throwable t) {
@@ -80,6 +84,7 @@ public abstract class IterativeOpMode16896 extends OpMode {
         mainLogger.logLine("---LOOP TIME STATS:---");
         mainLogger.logLine("Max DeltaTime: " + loopTracker.getMaxDeltaTime() + "ms");
         mainLogger.logLine("Mean DeltaTime: " + loopTracker.getAverageDeltaTime() + "ms");
+        mainLogger.logLine("Bulk Encoder Reads: " + FTCUtilities.getBulkReadCache().getHardwareReadCount() + " over " + FTCUtilities.getBulkReadCache().getInvalidationCount() + " cycles");
 
         mainLogger.logLine("DeltaTime Classifications: \n" + getDeltaTimeClassifications());
         mainLogger.logLine("Teardown Finished");
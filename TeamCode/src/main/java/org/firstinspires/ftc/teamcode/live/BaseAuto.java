@@ -4,6 +4,8 @@ import com.qualcomm.robotcore.hardware.DcMotor;
 
 import edu.ahs.robotics.control.MotionConfig;
 import edu.ahs.robotics.control.Path;
+import edu.ahs.robotics.control.PathChain;
+import edu.ahs.robotics.control.PathTemplates;
 import edu.ahs.robotics.control.obm.BlockGripper;
 import edu.ahs.robotics.control.obm.NullCommand;
 import edu.ahs.robotics.control.obm.OBMCommand;
@@ -13,6 +15,7 @@ import edu.ahs.robotics.hardware.Intake;
 import edu.ahs.robotics.hardware.MecanumChassis;
 import edu.ahs.robotics.hardware.SerialServo;
 import edu.ahs.robotics.hardware.Slides;
+import edu.ahs.robotics.hardware.sensors.ArdennesSkyStoneDetector;
 import edu.ahs.robotics.seasonrobots.Ardennes;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 import edu.ahs.robotics.util.loggers.DataLogger;
@@ -35,10 +38,12 @@ public class BaseAuto {
     private BlockGripper blockGripper;
     private OBMCommand changeTargetHeading;
 
+    private boolean flipToBlue;
     private int turnSign;
 
 
     public BaseAuto(boolean flipToBlue) {
+        this.flipToBlue = flipToBlue;
         ardennes = new Ardennes();
         chassis = ardennes.getChassis();
         intake = ardennes.getIntake();
@@ -111,6 +116,53 @@ public class BaseAuto {
         chassis.startOdometrySystem();
     }
 
+    /**
+     * Compiles the paths for every stone configuration, so picking one after detection doesn't read or compile anything.
+     * Both alliances drive the red routes, blue mirrored, and the compiled paths are kept by PathTemplates across op modes.
+     */
+    public void loadPaths() {
+        for (ArdennesSkyStoneDetector.SkyStoneConfigurations configuration : ArdennesSkyStoneDetector.SkyStoneConfigurations.values()) {
+            setPaths(configuration);
+        }
+    }
+
+    public void setPaths(ArdennesSkyStoneDetector.SkyStoneConfigurations configuration) {
+        if (configuration == ArdennesSkyStoneDetector.SkyStoneConfigurations.ONE_FOUR) {
+            setPaths(route("red14.csv", 0, 0.6, 0.2, new double[][]{{10, .5}, {22, .4}}),
+                    route("red14.csv", 1, .7, 1, new double[][]{{12, .8}, {14, 1}}),
+                    route("red14.csv", 2, .7, 1, new double[][]{{10, .8}, {14, 1}}),
+                    route("red14.csv", 3, .7, 1, new double[][]{{12, .8}, {14, 1}}),
+                    route("red14.csv", 4, 1, 0, new double[][]{{12, .7}, {20, .3}}),
+                    route("red14.csv", 5, .2, 0, new double[][]{{12, .4}, {22, 1}, {40, .3}}),
+                    route("red14.csv", 6, 1, 0, new double[][]{{12, .7}, {20, .3}}),
+                    route("red14.csv", 7, .5, 0, new double[][]{{12, .7}, {16, 1}, {35, .3}}));
+
+        } else if (configuration == ArdennesSkyStoneDetector.SkyStoneConfigurations.TWO_FIVE) {
+            setPaths(route("red25.csv", 0, 0.6, 0.2, new double[][]{{10, .5}, {22, .4}}),
+                    route("red25.csv", 1, .3, 0, new double[][]{{18, .5}, {26, 1}, {40, .8}}),
+                    route("red25.csv", 2, .7, 1, new double[][]{{10, .8}, {14, 1}}),
+                    route("red25.csv", 3, .7, 1, new double[][]{{12, .8}, {14, 1}}),
+                    route("red25.csv", 4, 1, 0, new double[][]{{12, .7}, {20, .3}}),
+                    route("red25.csv", 5, .2, 0, new double[][]{{12, .4}, {22, 1}, {40, .3}}),
+                    route("red25.csv", 6, 1, 0, new double[][]{{12, .7}, {20, .3}}),
+                    route("red25.csv", 7, .5, 0, new double[][]{{12, .7}, {16, 1}, {35, .3}}));
+
+        } else {
+            setPaths(route("red36.csv", 0, 0.6, 0.2, new double[][]{{8, .5}, {12, .3}}),
+                    route("red36.csv", 1, .3, 0.2, new double[][]{{18, .5}, {26, 1}, {40, .8}}),
+                    route("red36.csv", 2, .7, 1, new double[][]{{10, .8}, {14, 1}}),
+                    route("red36.csv", 3, .7, 1, new double[][]{{10, .8}, {14, 1}}),
+                    route("red36.csv", 4, 1, .2, new double[][]{{8, .7}, {12, .4}}),
+                    route("red36.csv", 5, .2, 0, new double[][]{{12, .7}, {16, 1}, {40, .3}}),
+                    route("red36.csv", 6, 1, 0, new double[][]{{12, .7}, {20, .3}}),
+                    route("red36.csv", 7, .5, 0, new double[][]{{12, .7}, {16, 1}, {35, .3}}));
+        }
+    }
+
+    private Path route(String fileName, int index, double initialPower, double finalPower, double[][] powers) {
+        return new Path(PathTemplates.fromRoute(fileName, index, flipToBlue, initialPower, finalPower, powers));
+    }
+
     public void setPaths(Path quarry, Path toFoundation, Path gripFoundation , Path pullFoundation, Path quarry2, Path foundation2, Path quarry3, Path foundation3) {
         this.quarry = quarry;
         this.toFoundation = toFoundation;
@@ -133,42 +185,49 @@ public class BaseAuto {
         quarryConfig.turnCutoff = 2;
         quarryConfig.addOBMCommand(blockGripper);
 
-        chassis.followPath(quarry,quarryConfig);
-
         MotionConfig toFoundationConfig = new MotionConfig();
         toFoundationConfig.idealHeading = Math.PI;
         toFoundationConfig.turnAggression = .8;
         toFoundationConfig.timeOut = 5000;
-        changeTargetHeading = new TargetHeadingChanger(toFoundationConfig, (turnSign) * Math.PI/2, 12);
+        changeTargetHeading = new TargetHeadingChanger(toFoundationConfig, (turnSign) * Math.PI/2, 12, ardennes.getOdometrySystem());
         toFoundationConfig.addOBMCommand (changeTargetHeading);
         toFoundationConfig.turnCutoff = 4;
 
-        chassis.followPath(toFoundation, toFoundationConfig);
-
-        chassis.stopMotors();
-
         MotionConfig gripFoundationConfig = new MotionConfig();
         gripFoundationConfig.idealHeading = Math.PI;
         gripFoundationConfig.timeOut = 3000;
         gripFoundationConfig.turnCutoff = 20.0;
         //gripFoundationConfig.addOBMCommand(slideCycle);
-        chassis.followPath(gripFoundation, gripFoundationConfig);
-        chassis.stopMotors();
-
-        leftFoundation.setPosition(1);
-        rightFoundation.setPosition(1);
-
-        FTCUtilities.sleep(400);
 
         MotionConfig pullFoundationConfig = new MotionConfig();
         //pullFoundationConfig.addOBMCommand(slideCycle);
         pullFoundationConfig.timeOut = 3000;
         pullFoundationConfig.turnCutoff = 4.0;
 
-        chassis.followPath(pullFoundation, pullFoundationConfig);
-
-        leftFoundation.setPosition(0);
-        rightFoundation.setPosition(0);
+        //blends from the quarry without stopping, but keeps the quarry's slow finish for the block
+        PathChain foundationChain = new PathChain()
+                .add(quarry, quarryConfig)
+                .add(toFoundation, toFoundationConfig).stop()
+                .add(gripFoundation, gripFoundationConfig).stop()
+                .then(new Runnable() {
+                    @Override
+                    public void run() {
+                        leftFoundation.setPosition(1);
+                        rightFoundation.setPosition(1);
+
+                        FTCUtilities.sleep(400);
+                    }
+                })
+                .add(pullFoundation, pullFoundationConfig)
+                .then(new Runnable() {
+                    @Override
+                    public void run() {
+                        leftFoundation.setPosition(0);
+                        rightFoundation.setPosition(0);
+                    }
+                });
+
+        chassis.followPathChain(foundationChain);
 
 /*        blockGripper.reset();
 
@@ -69,7 +69,7 @@ public class TurnMidPathAuto extends LinearOpMode {
         waitForStart(); // ------------------
 
         MotionConfig motionConfig = new MotionConfig();
-        motionConfig.addOBMCommand(new TargetHeadingChanger(motionConfig, Math.PI, 40));
+        motionConfig.addOBMCommand(new TargetHeadingChanger(motionConfig, Math.PI, 40, ardennes.getOdometrySystem()));
         motionConfig.turnCutoff = 4;
         motionConfig.turnPower = 0.5;
 
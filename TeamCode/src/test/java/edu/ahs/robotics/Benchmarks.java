@@ -0,0 +1,77 @@
+package edu.ahs.robotics;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.ahs.robotics.control.PathBenchmark;
+import edu.ahs.robotics.control.PathFileBenchmark;
+import edu.ahs.robotics.control.SegmentIndexBenchmark;
+import edu.ahs.robotics.hardware.FollowerSimulationBenchmark;
+import edu.ahs.robotics.hardware.sensors.OdometryIntegrationBenchmark;
+import edu.ahs.robotics.hardware.sensors.OdometrySystemBenchmark;
+import edu.ahs.robotics.util.GCodeParserBenchmark;
+
+/**
+ * Runs the benchmarks, which are kept out of the unit tests since they are slow and what they measure depends on the machine.
+ * Run main() from the IDE, with class names as arguments to run only those. For each class, every public method starting with
+ * "benchmark" is run on a fresh instance, after its init() method if it has one. Results are printed.
+ */
+public class Benchmarks {
+    private static final Class<?>[] BENCHMARKS = {
+            SegmentIndexBenchmark.class,
+            OdometrySystemBenchmark.class,
+            OdometryIntegrationBenchmark.class,
+            PathBenchmark.class,
+            PathFileBenchmark.class,
+            GCodeParserBenchmark.class,
+            FollowerSimulationBenchmark.class
+    };
+
+    public static void main(String[] args) throws Exception {
+        List<String> only = Arrays.asList(args);
+        for (Class<?> benchmark : BENCHMARKS) {
+            if (only.isEmpty() || only.contains(benchmark.getSimpleName())) {
+                run(benchmark);
+            }
+        }
+    }
+
+    private static void run(Class<?> benchmark) throws Exception {
+        List<Method> methods = new ArrayList<>();
+        for (Method method : benchmark.getMethods()) {
+            if (method.getName().startsWith("benchmark") && method.getParameterTypes().length == 0) {
+                methods.add(method);
+            }
+        }
+        Collections.sort(methods, new Comparator<Method>() { //getMethods() has no set order
+            @Override
+            public int compare(Method a, Method b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+
+        for (Method method : methods) {
+            System.out.println("== " + benchmark.getSimpleName() + "." + method.getName());
+            Object instance = benchmark.getConstructor().newInstance();
+            try {
+                try {
+                    benchmark.getMethod("init").invoke(instance);
+                } catch (NoSuchMethodException e) {
+                    //nothing to set up
+                }
+                method.invoke(instance);
+            } catch (InvocationTargetException e) { //report what the benchmark threw, like a failed check
+                Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw (Exception) cause;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveLookAheadTest {
+
+    private static CompiledPath straightThenCircle() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            points.add(new Point(i, 0));
+        }
+        for (int i = 0; i <= 60; i++) { //radius 10
+            double angle = i * Math.PI / 60;
+            points.add(new Point(60 + 10 * Math.sin(angle), 10 - 10 * Math.cos(angle)));
+        }
+        return CompiledPath.compile(points, 1, 1, new double[][]{});
+    }
+
+    private static MotionConfig adaptive() {
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.adaptiveLookAhead = true;
+        motionConfig.lookAheadRate = 1e9;
+        return motionConfig;
+    }
+
+    @Test
+    public void testFixedWhenOff() {
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.lookAheadDistance = 9;
+
+        assertEquals(9, new AdaptiveLookAhead().update(motionConfig, straightThenCircle(), 0, 40, 0), 0);
+    }
+
+    @Test
+    public void testGrowsWithSpeed() {
+        MotionConfig motionConfig = adaptive();
+        CompiledPath path = straightThenCircle();
+        AdaptiveLookAhead lookAhead = new AdaptiveLookAhead();
+
+        assertEquals(motionConfig.minLookAhead, lookAhead.update(motionConfig, path, 0, 0, 0), 1e-12);
+        assertEquals(motionConfig.minLookAhead + 20 * motionConfig.lookAheadTime, lookAhead.update(motionConfig, path, 0, 20, 10), 1e-12);
+        assertEquals(motionConfig.maxLookAhead, lookAhead.update(motionConfig, path, 0, 500, 20), 1e-12);
+    }
+
+    @Test
+    public void testShrinksBeforeCurve() {
+        MotionConfig motionConfig = adaptive();
+        CompiledPath path = straightThenCircle();
+
+        double onStraight = new AdaptiveLookAhead().update(motionConfig, path, 10, 30, 0);
+        double beforeCurve = new AdaptiveLookAhead().update(motionConfig, path, 52, 30, 0);
+
+        assertTrue(beforeCurve < onStraight);
+        assertTrue(beforeCurve >= motionConfig.minLookAhead);
+    }
+
+    @Test
+    public void testRateLimited() {
+        MotionConfig motionConfig = adaptive();
+        motionConfig.lookAheadRate = 10;
+        CompiledPath path = straightThenCircle();
+        AdaptiveLookAhead lookAhead = new AdaptiveLookAhead();
+
+        double first = lookAhead.update(motionConfig, path, 0, 0, 0);
+        double second = lookAhead.update(motionConfig, path, 0, 40, 100); //wants 16, may only grow 1 in .1 s
+
+        assertEquals(first + 1, second, 1e-12);
+
+        lookAhead.reset();
+        assertEquals(motionConfig.minLookAhead + 40 * motionConfig.lookAheadTime, lookAhead.update(motionConfig, path, 0, 40, 200), 1e-12);
+    }
+
+    @Test
+    public void testZeroRateIsUnlimited() {
+        MotionConfig motionConfig = adaptive();
+        motionConfig.lookAheadRate = 0;
+        CompiledPath path = straightThenCircle();
+        AdaptiveLookAhead lookAhead = new AdaptiveLookAhead();
+
+        lookAhead.update(motionConfig, path, 0, 0, 0);
+        double second = lookAhead.update(motionConfig, path, 0, 40, 100);
+
+        assertEquals(motionConfig.minLookAhead + 40 * motionConfig.lookAheadTime, second, 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRateRejected() {
+        MotionConfig motionConfig = adaptive();
+        motionConfig.lookAheadRate = -1;
+        new AdaptiveLookAhead().update(motionConfig, straightThenCircle(), 0, 40, 0);
+    }
+}
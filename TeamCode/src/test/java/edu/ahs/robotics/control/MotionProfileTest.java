@@ -0,0 +1,150 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MotionProfileTest {
+
+    @Test
+    public void testTrapezoidReachesMaxVelocity() {
+        MotionProfile profile = MotionProfile.generate(96, new MotionProfile.Constraints(40, 50));
+
+        assertEquals(0, profile.getVelocity(0), 1e-9);
+        assertEquals(0, profile.getVelocity(96), 1e-9);
+        assertEquals(40, profile.getVelocity(48), 1e-9);
+        assertEquals(50, profile.getAcceleration(1), 1e-9);
+        assertEquals(0, profile.getAcceleration(48), 1e-9);
+        assertEquals(-50, profile.getAcceleration(95), 1e-9);
+
+        //accelerate and decelerate over v^2 / a inches, cruise the rest
+        double expectedTime = 96.0 / 40 + 40.0 / 50;
+        assertEquals(expectedTime, profile.getTotalTime(), 1e-6);
+    }
+
+    @Test
+    public void testShortPathIsTriangle() {
+        MotionProfile profile = MotionProfile.generate(10, new MotionProfile.Constraints(40, 50));
+
+        double peak = Math.sqrt(50 * 10);
+        assertEquals(peak, profile.getVelocity(5), 1e-9);
+        assertEquals(2 * Math.sqrt(10 / 50.0), profile.getTotalTime(), 1e-6);
+    }
+
+    @Test
+    public void testNeverExceedsLimits() {
+        MotionProfile profile = MotionProfile.generate(37.3, new MotionProfile.Constraints(30, 40));
+
+        for (double d = 0; d <= 37.3; d += .05) {
+            assertTrue(profile.getVelocity(d) <= 30 + 1e-9);
+            assertTrue(Math.abs(profile.getAcceleration(d)) <= 40 + 1e-9);
+        }
+    }
+
+    @Test
+    public void testStartAndEndVelocity() {
+        MotionProfile profile = MotionProfile.generate(48, new MotionProfile.Constraints(40, 50).setStartVelocity(20).setEndVelocity(10));
+
+        assertEquals(20, profile.getVelocity(0), 1e-9);
+        assertEquals(10, profile.getVelocity(48), 1e-9);
+    }
+
+    @Test
+    public void testTimeQueriesMatchDistanceQueries() {
+        MotionProfile profile = MotionProfile.generate(60, new MotionProfile.Constraints(35, 45, 200));
+
+        double total = profile.getTotalTime();
+        double lastDistance = -1;
+        for (double t = 0; t < total; t += total / 200) {
+            double distance = profile.getDistanceAtTime(t);
+            assertTrue(distance >= lastDistance);
+            lastDistance = distance;
+            assertEquals(profile.getVelocity(distance), profile.getVelocityAtTime(t), 1e-6);
+        }
+        assertEquals(60, profile.getDistanceAtTime(total), 1e-9);
+        assertEquals(60, profile.getDistanceAtTime(total + 1), 1e-9);
+        assertEquals(0, profile.getVelocityAtTime(total + 1), 1e-9);
+    }
+
+    @Test
+    public void testJerkLimitRampsAcceleration() {
+        MotionProfile.Constraints trapezoid = new MotionProfile.Constraints(40, 50);
+        MotionProfile.Constraints sCurve = new MotionProfile.Constraints(40, 50, 100);
+        MotionProfile fast = MotionProfile.generate(96, trapezoid);
+        MotionProfile smooth = MotionProfile.generate(96, sCurve);
+
+        assertTrue(smooth.getTotalTime() > fast.getTotalTime());
+        assertTrue(smooth.getAcceleration(.1) < 50 / 2); //still ramping up
+        assertEquals(40, smooth.getVelocity(48), 1e-9);
+
+        //acceleration changes no faster than the jerk limit, with some slack for sampling
+        double total = smooth.getTotalTime();
+        double dt = .01;
+        for (double t = 0; t + dt < total; t += dt) {
+            double change = Math.abs(smooth.getAccelerationAtTime(t + dt) - smooth.getAccelerationAtTime(t));
+            assertTrue("jerk at " + t, change / dt <= 100 * 1.5 + 1e-9 || change <= 50 * .15);
+        }
+    }
+
+    @Test
+    public void testEmptyPath() {
+        MotionProfile profile = MotionProfile.generate(0, new MotionProfile.Constraints(40, 50));
+
+        assertEquals(0, profile.getTotalTime(), 0);
+        assertEquals(0, profile.getVelocity(0), 0);
+        assertEquals(0, profile.getDistanceAtTime(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroAcceleration() {
+        new MotionProfile.Constraints(40, 0);
+    }
+
+    @Test
+    public void testPathFillsTargetsByTime() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 48; i++) {
+            points.add(new Point(i, 0));
+        }
+        Path path = new Path(points, false, new MotionProfile.Constraints(40, 50));
+
+        Path.Location location = new Path.Location();
+        path.query(new Position(24, 0, 0), 6, location);
+        path.setProfileTargets(.5, location);
+
+        assertTrue(location.profiled);
+        assertEquals(path.getMotionProfile().getVelocityAtTime(.5), location.targetVelocity, 1e-12);
+        assertEquals(path.getMotionProfile().getAccelerationAtTime(.5), location.targetAcceleration, 1e-12);
+        assertEquals(path.getMotionProfile().getDistanceAtTime(.5), location.targetDistance, 1e-12);
+    }
+
+    @Test
+    public void testTimeAtDistanceUndoesDistanceAtTime() {
+        MotionProfile profile = MotionProfile.generate(60, new MotionProfile.Constraints(40, 50, 200));
+        for (double t = 0; t <= profile.getTotalTime(); t += .05) {
+            assertEquals(t, profile.getTimeAtDistance(profile.getDistanceAtTime(t)), 1e-9);
+        }
+        assertEquals(profile.getTotalTime(), profile.getTimeAtDistance(100), 0);
+    }
+
+    @Test
+    public void testEnteredProfileStartsAtSpeed() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 48; i++) {
+            points.add(new Point(i, 0));
+        }
+        Path path = new Path(points, false, new MotionProfile.Constraints(40, 50));
+
+        double seconds = path.enterProfile(25, 2);
+
+        Path.Location location = new Path.Location();
+        path.query(new Position(2, 0, 0), 6, location);
+        path.setProfileTargets(seconds, location);
+        assertEquals(2, location.targetDistance, 1e-9);
+        assertTrue(location.targetVelocity >= 25);
+        assertEquals(40, path.getEntryVelocity(60), 0);
+    }
+}
@@ -0,0 +1,132 @@
+package edu.ahs.robotics.control;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares CompiledPath's binary searches against the linear scans Path used to do, on a 10k point path with a long power profile.
+ * The linear versions are kept here as the reference. Results must match, timings are printed.
+ * Not a unit test, see Benchmarks. PathTest checks the answers.
+ */
+public class PathBenchmark {
+    private static final int POINTS = 10_000;
+    private static final int BREAKPOINTS = 2_000;
+    private static final int QUERIES = 200_000;
+    private static final int ROUNDS = 5; //first round is warmup
+
+    public void benchmarkLookups() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i < POINTS; i++) { //gentle wave, half an inch between points
+            points.add(new Point(i * .5, 10 * Math.sin(i * .01)));
+        }
+        double[][] powers = new double[BREAKPOINTS][];
+        CompiledPath warmupPath = CompiledPath.compile(points, .3, 0, new double[][]{});
+        double length = warmupPath.getTotalDistance();
+        for (int i = 0; i < BREAKPOINTS; i++) {
+            powers[i] = new double[]{length * i / BREAKPOINTS, .2 + .6 * Math.abs(Math.sin(i * .1))};
+        }
+        CompiledPath path = CompiledPath.compile(points, .3, 0, powers);
+        double[][] withFinal = new double[BREAKPOINTS + 1][];
+        System.arraycopy(powers, 0, withFinal, 0, BREAKPOINTS);
+        withFinal[BREAKPOINTS] = new double[]{length, 0};
+
+        Random random = new Random(16896);
+        double[] distances = new double[QUERIES];
+        double[] lookAheads = new double[QUERIES];
+        int[] seconds = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            distances[i] = random.nextDouble() * length;
+            lookAheads[i] = 6 + random.nextDouble() * 18;
+            seconds[i] = path.findPointAtOrAfter(distances[i], 1);
+        }
+
+        //results must agree before timing means anything
+        for (int i = 0; i < 2_000; i++) {
+            assertEquals(linearPower(withFinal, .3, distances[i]), path.getPower(distances[i]), 1e-9);
+            int second = seconds[i];
+            double distanceToSecond = path.getDistance(second) - distances[i];
+            int walked = linearFutureIndex(path, second, distanceToSecond, lookAheads[i]);
+            assertEquals(walked, path.findPointAtOrAfter(path.getDistance(second) + lookAheads[i] - distanceToSecond, second));
+        }
+
+        long linearPowerNanos = 0, searchPowerNanos = 0, linearFutureNanos = 0, searchFutureNanos = 0;
+        double sink = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += linearPower(withFinal, .3, distances[i]);
+            }
+            long linearPowerEnd = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += path.getPower(distances[i]);
+            }
+            long searchPowerEnd = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                int second = seconds[i];
+                sink += linearFutureIndex(path, second, path.getDistance(second) - distances[i], lookAheads[i]);
+            }
+            long linearFutureEnd = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += path.findPointAtOrAfter(distances[i] + lookAheads[i], seconds[i]);
+            }
+            long searchFutureEnd = System.nanoTime();
+
+            if (round > 0) {
+                linearPowerNanos += linearPowerEnd - start;
+                searchPowerNanos += searchPowerEnd - linearPowerEnd;
+                linearFutureNanos += linearFutureEnd - searchPowerEnd;
+                searchFutureNanos += searchFutureEnd - linearFutureEnd;
+            }
+        }
+
+        int measured = QUERIES * (ROUNDS - 1);
+        System.out.println("power, linear scan: " + (double) linearPowerNanos / measured + " ns/query");
+        System.out.println("power, binary search: " + (double) searchPowerNanos / measured + " ns/query");
+        System.out.println("future point, segment walk: " + (double) linearFutureNanos / measured + " ns/query");
+        System.out.println("future point, binary search: " + (double) searchFutureNanos / measured + " ns/query");
+        assertFalse(Double.isNaN(sink));
+    }
+
+    /**
+     * Path.getTargetPower as it was: scan every breakpoint.
+     */
+    private static double linearPower(double[][] powers, double initialPower, double distanceFromStart) {
+        double interpolatedPower = initialPower;
+        double currentPower;
+        for (int i = 0; i < powers.length; i++) {
+            if (powers[i][0] > distanceFromStart) {
+                break;
+            } else {
+                currentPower = powers[i][1];
+            }
+            double nextPower;
+            double nextDistance;
+            if (i == powers.length - 1) {
+                nextPower = powers[i][1];
+                nextDistance = powers[i][0];
+            } else {
+                nextPower = powers[i + 1][1];
+                nextDistance = powers[i + 1][0];
+            }
+            double distanceDifference = nextDistance - powers[i][0];
+            double distanceRatio = distanceDifference == 0 ? 0 : (distanceFromStart - powers[i][0]) / distanceDifference;
+            interpolatedPower = currentPower + ((nextPower - currentPower) * distanceRatio);
+        }
+        return interpolatedPower;
+    }
+
+    /**
+     * Path.getFuturePoint as it was: walk segments until far enough ahead.
+     */
+    private static int linearFutureIndex(CompiledPath path, int second, double distanceToSecond, double lookAheadDistance) {
+        double totalDistance = distanceToSecond;
+        int iFutureBound = second;
+        while (totalDistance < lookAheadDistance && iFutureBound < path.size() - 1) {
+            iFutureBound++;
+            totalDistance += path.getSegmentLength(iFutureBound);
+        }
+        return iFutureBound;
+    }
+}
@@ -0,0 +1,85 @@
+package edu.ahs.robotics.control;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.util.GCodeReader;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times loading a full auto's worth of paths, 3 routes of 8 paths, from csvs the way the autos do it now against one PathFile.
+ * Timings are printed. Not a unit test, see Benchmarks. PathFileTest checks the round trips.
+ */
+public class PathFileBenchmark {
+    private static final int ROUTES = 3;
+    private static final int PATHS_PER_ROUTE = 8;
+    private static final int POINTS_PER_PATH = 300;
+    private static final int ROUNDS = 200; //first half is warmup
+
+    public void benchmarkLoad() throws IOException {
+        List<File> csvs = new ArrayList<>();
+        List<CompiledPath> compiled = new ArrayList<>();
+        for (int route = 0; route < ROUTES; route++) {
+            File csv = File.createTempFile("route" + route, ".csv");
+            csv.deleteOnExit();
+            try (Writer writer = new FileWriter(csv)) {
+                for (int path = 0; path < PATHS_PER_ROUTE; path++) {
+                    writer.write("0;0;1\n"); //tool up between paths
+                    for (int i = 0; i < POINTS_PER_PATH; i++) {
+                        writer.write(String.format("%.4f;%.4f;0\n", i * .5, 12 * Math.sin(i * .02 + path)));
+                    }
+                }
+                writer.write("0;0;1\n");
+            }
+            csvs.add(csv);
+            try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+                for (List<Point> points : GCodeReader.read(reader)) {
+                    compiled.add(CompiledPath.compile(points, .5, .2, new double[][]{{8, .7}, {20, 1}}));
+                }
+            }
+        }
+        File binary = File.createTempFile("auto", ".path");
+        binary.deleteOnExit();
+        PathFile.write(compiled, binary);
+
+        long csvNanos = 0, binaryNanos = 0;
+        int loaded = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            int csvPaths = 0;
+            for (File csv : csvs) {
+                try (BufferedReader reader = new BufferedReader(new FileReader(csv))) {
+                    for (List<Point> points : GCodeReader.read(reader)) {
+                        new Path(points, false, .5, .2, new double[][]{{8, .7}, {20, 1}});
+                        csvPaths++;
+                    }
+                }
+            }
+            long csvTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<CompiledPath> paths = PathFile.load(binary);
+            long binaryTime = System.nanoTime() - start;
+
+            assertEquals(compiled.size(), csvPaths);
+            assertEquals(compiled.size(), paths.size());
+            loaded = paths.size();
+            if (round >= ROUNDS / 2) {
+                csvNanos += csvTime;
+                binaryNanos += binaryTime;
+            }
+        }
+
+        int measured = ROUNDS - ROUNDS / 2;
+        System.out.println("Loading " + loaded + " paths of " + POINTS_PER_PATH + " points, " + binary.length() + " byte path file");
+        System.out.println(String.format("csv parse and compile: %8.3f ms", csvNanos / 1e6 / measured));
+        System.out.println(String.format("mapped path file:      %8.3f ms", binaryNanos / 1e6 / measured));
+    }
+}
@@ -0,0 +1,115 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PathFileTest {
+
+    private static CompiledPath makeCompiledPath(double offset) {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            points.add(new Point(i + offset, 5 * Math.sin(i * .2)));
+        }
+        points.add(new Point(49 + offset, 5 * Math.sin(49 * .2))); //repeated, dropped when compiled
+        return CompiledPath.compile(points, .3, .1, new double[][]{{5, .6}, {20, 1}, {40, .5}});
+    }
+
+    private static void assertSamePath(CompiledPath expected, CompiledPath actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i), 0);
+            assertEquals(expected.getY(i), actual.getY(i), 0);
+            assertEquals(expected.getDistance(i), actual.getDistance(i), 0);
+            assertEquals(expected.getDeltaX(i), actual.getDeltaX(i), 0);
+            assertEquals(expected.getDeltaY(i), actual.getDeltaY(i), 0);
+            assertEquals(expected.getSegmentLength(i), actual.getSegmentLength(i), 0);
+            assertEquals(expected.getCurvature(i), actual.getCurvature(i), 0);
+        }
+        assertEquals(expected.getInitialPower(), actual.getInitialPower(), 0);
+        for (double d = -1; d < expected.getTotalDistance() + 1; d += .37) {
+            assertEquals(expected.getPower(d), actual.getPower(d), 0);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        List<CompiledPath> paths = Arrays.asList(makeCompiledPath(0), makeCompiledPath(100));
+
+        List<CompiledPath> loaded = PathFile.read(PathFile.toBytes(paths));
+
+        assertEquals(2, loaded.size());
+        assertSamePath(paths.get(0), loaded.get(0));
+        assertSamePath(paths.get(1), loaded.get(1));
+    }
+
+    @Test
+    public void testRoundTripThroughMappedFile() throws IOException {
+        List<CompiledPath> paths = Arrays.asList(makeCompiledPath(0), makeCompiledPath(-20), makeCompiledPath(7));
+        File file = File.createTempFile("paths", ".path");
+        file.deleteOnExit();
+
+        PathFile.write(paths, file);
+        List<CompiledPath> loaded = PathFile.load(file);
+
+        assertEquals(3, loaded.size());
+        for (int i = 0; i < 3; i++) {
+            assertSamePath(paths.get(i), loaded.get(i));
+        }
+    }
+
+    @Test
+    public void testMirroredPathIsWrittenMirrored() {
+        CompiledPath blue = makeCompiledPath(0).mirrored();
+
+        CompiledPath loaded = PathFile.read(PathFile.toBytes(Arrays.asList(blue))).get(0);
+
+        assertFalse(loaded.isMirrored());
+        assertSamePath(blue, loaded);
+    }
+
+    @Test
+    public void testIsLittleEndian() {
+        ByteBuffer bytes = PathFile.toBytes(new ArrayList<CompiledPath>());
+
+        assertEquals('A', bytes.get(0));
+        assertEquals('P', bytes.get(1));
+        assertEquals('T', bytes.get(2));
+        assertEquals('H', bytes.get(3));
+        assertEquals(1, bytes.get(4)); //version, low byte first
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsOtherFiles() {
+        PathFile.read(ByteBuffer.wrap("x;y;z\n1;2;0\n".getBytes()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsTruncatedFile() {
+        ByteBuffer bytes = PathFile.toBytes(Arrays.asList(makeCompiledPath(0)));
+        bytes.limit(bytes.limit() - 8);
+        PathFile.read(bytes);
+    }
+
+    @Test
+    public void testLoadedPathFollowsLikeOriginal() {
+        CompiledPath compiled = makeCompiledPath(0);
+        Path original = new Path(compiled);
+        Path loaded = new Path(PathFile.read(PathFile.toBytes(Arrays.asList(compiled))).get(0));
+
+        Path.Location expected = new Path.Location(), actual = new Path.Location();
+        for (int i = 0; i < 45; i++) {
+            Position robot = new Position(i + .3, 5 * Math.sin(i * .2) + .5, 0);
+            assertEquals(original.query(robot, 6, expected), loaded.query(robot, 6, actual));
+            assertEquals(expected.futurePoint, actual.futurePoint);
+            assertEquals(expected.power, actual.power, 0);
+        }
+    }
+}
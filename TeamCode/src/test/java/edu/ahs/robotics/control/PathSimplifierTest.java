@@ -0,0 +1,97 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PathSimplifierTest {
+
+    @Test
+    public void testCollinearPointsAreRemoved() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 100; i++) {
+            points.add(new Point(i * .5, 0));
+        }
+        for (int i = 1; i <= 100; i++) {
+            points.add(new Point(50, i * .5));
+        }
+
+        PathSimplifier.Result result = PathSimplifier.simplify(points, .01);
+
+        List<Point> kept = result.points.toPoints();
+        assertEquals(3, kept.size());
+        assertEquals(new Point(0, 0), kept.get(0));
+        assertEquals(new Point(50, 0), kept.get(1));
+        assertEquals(new Point(50, 50), kept.get(2));
+        assertEquals(198, result.removed);
+        assertEquals(201, result.originalCount);
+        assertEquals(0, result.maxDeviation, 1e-12);
+    }
+
+    @Test
+    public void testDeviationStaysWithinTolerance() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 2000; i++) {
+            double angle = i * Math.PI / 2000;
+            points.add(new Point(20 * Math.cos(angle), 20 * Math.sin(angle) + .001 * Math.sin(i * 7.0)));
+        }
+
+        for (double tolerance : new double[]{.01, .05, .25}) {
+            PathSimplifier.Result result = PathSimplifier.simplify(points, tolerance);
+
+            assertTrue(result.removed > 0);
+            assertTrue(result.maxDeviation <= tolerance);
+            //check the reported deviation against every original point
+            PointBuffer kept = result.points;
+            double worst = 0;
+            for (Point point : points) {
+                double nearest = Double.POSITIVE_INFINITY;
+                for (int i = 1; i < kept.size(); i++) {
+                    nearest = Math.min(nearest, distanceToSegment(point, kept.getX(i - 1), kept.getY(i - 1), kept.getX(i), kept.getY(i)));
+                }
+                worst = Math.max(worst, nearest);
+            }
+            assertTrue(worst <= result.maxDeviation + 1e-9);
+        }
+    }
+
+    @Test
+    public void testPathThatDoublesBackKeepsTurn() {
+        List<Point> points = new ArrayList<>();
+        points.add(new Point(0, 0));
+        points.add(new Point(10, 0));
+        points.add(new Point(5, 0));
+
+        PathSimplifier.Result result = PathSimplifier.simplify(points, .1);
+
+        assertEquals(3, result.points.size());
+    }
+
+    @Test
+    public void testSimplifiedPath() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 48; i++) {
+            points.add(new Point(i, 0));
+        }
+
+        Path path = Path.simplified(points, false, .05, .5, .2, new double[][]{{10, 1}});
+
+        assertEquals(2, path.getCompiledPath().size());
+        assertEquals(47, path.getSimplification().removed);
+        assertEquals(48, path.getCompiledPath().getTotalDistance(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeTolerance() {
+        PathSimplifier.simplify(new ArrayList<Point>(), -1);
+    }
+
+    private static double distanceToSegment(Point p, double x0, double y0, double x1, double y1) {
+        double dx = x1 - x0, dy = y1 - y0;
+        double t = Math.max(0, Math.min(1, ((p.x - x0) * dx + (p.y - y0) * dy) / (dx * dx + dy * dy)));
+        return Math.hypot(x0 + t * dx - p.x, y0 + t * dy - p.y);
+    }
+}
@@ -0,0 +1,85 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class PathTemplatesTest {
+
+    @Before
+    public void clearTemplates() {
+        PathTemplates.clear();
+    }
+
+    private static List<List<Point>> makeRoute() {
+        List<Point> first = new ArrayList<>();
+        List<Point> second = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            first.add(new Point(-9 - i, -38));
+            second.add(new Point(-29, -38 + i));
+        }
+        return Arrays.asList(first, second);
+    }
+
+    @Test
+    public void testRouteIsCompiledOnceForBothAlliances() {
+        PathTemplates.addRoute("route.csv", makeRoute());
+
+        CompiledPath red = PathTemplates.fromRoute("route.csv", 1, false, .5, .2, new double[][]{{10, 1}});
+        CompiledPath blue = PathTemplates.fromRoute("route.csv", 1, true, .5, .2, new double[][]{{10, 1}});
+
+        assertSame(red, PathTemplates.fromRoute("route.csv", 1, false, .5, .2, new double[][]{{10, 1}}));
+        assertSame(red.mirrored(), blue);
+        assertEquals(29, blue.getX(0), 0);
+        assertEquals(-18, blue.getY(20), 0);
+        assertEquals(.5, blue.getInitialPower(), 0);
+    }
+
+    @Test
+    public void testRouteDoesNotChangeSourcePoints() {
+        List<List<Point>> route = makeRoute();
+        PathTemplates.addRoute("route.csv", route);
+
+        PathTemplates.fromRoute("route.csv", 0, true, 1, 1, new double[][]{});
+
+        assertEquals(-9, route.get(0).get(0).x, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDifferentPowers() {
+        PathTemplates.addRoute("route.csv", makeRoute());
+
+        PathTemplates.fromRoute("route.csv", 0, false, 1, 1, new double[][]{{10, .5}});
+        PathTemplates.fromRoute("route.csv", 0, true, 1, 1, new double[][]{{10, .6}});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMissingPath() {
+        PathTemplates.addRoute("route.csv", makeRoute());
+
+        PathTemplates.fromRoute("route.csv", 2, false, 1, 1, new double[][]{});
+    }
+
+    @Test
+    public void testSourceOnlyBuildsOnce() {
+        final int[] builds = {0};
+        PathTemplates.Source source = new PathTemplates.Source() {
+            @Override
+            public CompiledPath compile() {
+                builds[0]++;
+                return CompiledPath.compile(makeRoute().get(0), 1, 1, new double[][]{});
+            }
+        };
+
+        CompiledPath red = PathTemplates.get("quarry", false, source);
+        CompiledPath blue = PathTemplates.get("quarry", true, source);
+
+        assertEquals(1, builds[0]);
+        assertSame(red.mirrored(), blue);
+    }
+}
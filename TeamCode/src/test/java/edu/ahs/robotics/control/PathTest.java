@@ -1,7 +1,10 @@
 package edu.ahs.robotics.control;
 
+import com.sun.management.ThreadMXBean;
+
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 
 import static org.junit.Assert.*;
@@ -501,4 +504,329 @@ public class PathTest {
         assertTrue(path.isFinished(robotPosition));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testQueryMatchesTargetLocation() {
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(new Point(0, 0));
+        points.add(new Point(0, 4));
+        points.add(new Point(0, 7));
+        points.add(new Point(0, 13));
+        points.add(new Point(0, 20));
+        Path queried = makePath(points, .5, .8, new double[][]{{2,.7}, {8,.5}});
+        Path located = makePath(points, .5, .8, new double[][]{{2,.7}, {8,.5}});
+
+        Path.Location reused = new Path.Location();
+        for (double y = -1; y <= 21; y += .5) {
+            Position robotPosition = new Position(.5, y, 0);
+            boolean finished = queried.query(robotPosition, 5, reused);
+            Path.Location location = located.getTargetLocation(robotPosition, 5);
+
+            assertEquals(located.isFinished(robotPosition), finished);
+            assertEquals(finished, reused.finished);
+            assertEquals(location.closestPoint, reused.closestPoint);
+            assertEquals(location.futurePoint, reused.futurePoint);
+            assertEquals(location.power, reused.power, 0);
+            assertEquals(location.distanceToEnd, reused.distanceToEnd, 0);
+        }
+    }
+
+    @Test
+    public void testQueryDoesNotAllocate() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(new Point(i, Math.sin(i * .1)));
+        }
+        Path path = makePath(points, .3, 0, new double[][]{{20, .8}, {150, .5}});
+        Path.Location location = new Path.Location();
+        Position robotPosition = new Position(0, 0, 0);
+
+        for (int i = 0; i < 20_000; i++) { //warm up so the JIT is done before measuring
+            robotPosition.setPosition((i % 199) * .01, 0, 0);
+            path.query(robotPosition, 12, location);
+        }
+
+        path = makePath(points, .3, 0, new double[][]{{20, .8}, {150, .5}});
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int queries = 10_000;
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < queries; i++) {
+            robotPosition.setPosition(i * .0199, Math.sin(i * .001), 0);
+            path.query(robotPosition, 12, location);
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue("query allocated " + allocated + " bytes over " + queries + " calls", allocated < queries); //the measurement itself can cost a few bytes
+    }
+
+    @Test
+    public void testRecoveryRelocksAfterBackingUp() {
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(new Point(0, 0));
+        points.add(new Point(0, 20));
+        points.add(new Point(20, 20));
+        points.add(new Point(20, 0));
+        Path path = makePath(points, 0, 0, new double[][]{{0,0}, {0.0001, 0}});
+        path.enableRecovery(4, 2, 3);
+
+        path.query(new Position(10, 20, 0), 0, new Path.Location());
+        assertEquals(1, path.getCurrentBound());
+
+        //shoved back down beside the first leg
+        Position knocked = new Position(1, 8, 0);
+        Path.Location location = new Path.Location();
+        path.query(knocked, 0, location);
+        path.query(knocked, 0, location);
+        assertEquals(1, path.getCurrentBound()); //hysteresis: not yet
+
+        path.query(knocked, 0, location);
+        assertEquals(0, path.getCurrentBound());
+        assertEquals(new Point(0, 8), location.closestPoint);
+    }
+
+    @Test
+    public void testNoRecoveryByDefault() {
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(new Point(0, 0));
+        points.add(new Point(0, 20));
+        points.add(new Point(20, 20));
+        Path path = makePath(points, 0, 0, new double[][]{{0,0}, {0.0001, 0}});
+
+        path.query(new Position(10, 20, 0), 0, new Path.Location());
+        for (int i = 0; i < 5; i++) {
+            path.query(new Position(1, 8, 0), 0, new Path.Location());
+        }
+        assertEquals(1, path.getCurrentBound());
+    }
+
+    /**
+     * 48 inch straight along x, then a counterclockwise quarter circle of the given radius, one point per inch.
+     */
+    private static ArrayList<Point> straightThenTurn(double radius) {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i < 48; i++) {
+            points.add(new Point(i, 0));
+        }
+        int steps = (int) Math.ceil(Math.PI / 2 * radius);
+        for (int i = 0; i <= steps; i++) {
+            double angle = Math.PI / 2 * i / steps;
+            points.add(new Point(48 + radius * Math.sin(angle), radius - radius * Math.cos(angle)));
+        }
+        return points;
+    }
+
+    @Test
+    public void testCurvatureOfCircle() {
+        CompiledPath compiled = makePath(straightThenTurn(10), 1, 1, new double[][]{}).getCompiledPath();
+
+        assertEquals(0, compiled.getCurvature(0), 0);
+        assertEquals(0, compiled.getCurvature(20), 1e-12);
+        assertEquals(.1, compiled.getCurvature(compiled.size() - 5), 1e-9);
+        assertEquals(0, compiled.getCurvature(compiled.size() - 1), 0);
+
+        ArrayList<Point> mirrored = straightThenTurn(10);
+        for (Point point : mirrored) {
+            point.y = -point.y;
+        }
+        CompiledPath clockwise = makePath(mirrored, 1, 1, new double[][]{}).getCompiledPath();
+        assertEquals(-.1, clockwise.getCurvature(clockwise.size() - 5), 1e-9);
+    }
+
+    @Test
+    public void testSetLookAheadMatchesQuery() {
+        Position[] positions = {new Position(-2, 1, 0), new Position(30, -1, 0), new Position(55, 4, 0), new Position(59, 30, 0)};
+        for (Position position : positions) {
+            Path.Location expected = new Path.Location();
+            makePath(straightThenTurn(10), 1, 1, new double[][]{}).query(position, 15, expected);
+
+            Path path = makePath(straightThenTurn(10), 1, 1, new double[][]{});
+            Path.Location actual = new Path.Location();
+            path.query(position, 4, actual);
+            path.setLookAhead(15, actual);
+
+            assertEquals(expected.futurePoint.x, actual.futurePoint.x, 1e-9);
+            assertEquals(expected.futurePoint.y, actual.futurePoint.y, 1e-9);
+        }
+    }
+
+    @Test
+    public void testCurvatureOfReversal() {
+        ArrayList<Point> points = new ArrayList<>();
+        points.add(new Point(0, 0));
+        points.add(new Point(24, 0));
+        points.add(new Point(12, 0)); //doubles back along the same line
+        points.add(new Point(12, 12));
+        CompiledPath compiled = makePath(points, 1, 1, new double[][]{}).getCompiledPath();
+
+        assertEquals(2 / 12.0, Math.abs(compiled.getCurvature(1)), 1e-12);
+        assertEquals(2 / 12.0, compiled.getMaxCurvature(0, compiled.getDistance(compiled.size() - 1)), 1e-12);
+
+        ArrayList<Point> sharp = new ArrayList<>();
+        sharp.add(new Point(0, 0));
+        sharp.add(new Point(24, 0));
+        sharp.add(new Point(12, 1)); //nearly reversed, counterclockwise
+        assertTrue(makePath(sharp, 1, 1, new double[][]{}).getCompiledPath().getCurvature(1) >= 2 / 24.0);
+    }
+
+    @Test
+    public void testCornerSpeedLimit() {
+        Path path = makePath(straightThenTurn(10), 1, 1, new double[][]{});
+        path.limitCornerSpeed(50, 40, 100);
+        Path.Location location = new Path.Location();
+
+        path.query(new Position(5, 0, 0), 0, location);
+        assertEquals(1, location.power, 1e-12); //straight, far from the turn
+
+        double inTurn = Math.sqrt(40 * 10) / 50;
+        double lastPower = 1;
+        for (int x = 30; x < 48; x++) {
+            path.query(new Position(x, 0, 0), 0, location);
+            assertTrue(location.power <= lastPower);
+            lastPower = location.power;
+        }
+        assertTrue(lastPower < 1);
+
+        path.query(new Position(48 + 10 * Math.sin(Math.PI / 4), 10 - 10 * Math.cos(Math.PI / 4), 0), 0, location);
+        assertEquals(inTurn, location.power, 1e-6);
+    }
+
+    @Test
+    public void testProfileSlowsForCorners() {
+        MotionProfile.Constraints constraints = new MotionProfile.Constraints(50, 60).setMaxLateralAcceleration(40);
+        Path path = new Path(straightThenTurn(10), false, constraints);
+        MotionProfile profile = path.getMotionProfile();
+
+        double cornerSpeed = Math.sqrt(40 * 10);
+        assertEquals(50, profile.getVelocity(28), 1e-9);
+        assertTrue(profile.getVelocity(48 + Math.PI * 10 / 4) <= cornerSpeed + 1e-9);
+        assertTrue(profile.getVelocity(47) > cornerSpeed - 1e-9);
+        assertTrue(profile.getVelocity(45) > profile.getVelocity(47));
+
+        MotionProfile unlimited = new Path(straightThenTurn(10), false, new MotionProfile.Constraints(50, 60)).getMotionProfile();
+        assertTrue(profile.getTotalTime() > unlimited.getTotalTime());
+    }
+
+    @Test
+    public void testFlipToBlueLeavesPointsAlone() {
+        ArrayList<Point> points = straightThenTurn(10);
+        Path blue = new Path(points, true, 1, 1, new double[][]{});
+
+        assertEquals(47, points.get(47).x, 0);
+        assertEquals(-47, blue.getCompiledPath().getX(47), 0);
+    }
+
+    @Test
+    public void testMirroredView() {
+        CompiledPath red = makePath(straightThenTurn(10), .5, 1, new double[][]{{10, .8}}).getCompiledPath();
+        CompiledPath blue = red.mirrored();
+
+        assertSame(red, blue.mirrored());
+        assertSame(blue, red.mirrored());
+        assertFalse(red.isMirrored());
+        assertTrue(blue.isMirrored());
+
+        assertEquals(red.size(), blue.size());
+        assertEquals(red.getTotalDistance(), blue.getTotalDistance(), 0);
+        for (int i = 0; i < red.size(); i++) {
+            assertEquals(-red.getX(i), blue.getX(i), 0);
+            assertEquals(red.getY(i), blue.getY(i), 0);
+            assertEquals(-red.getDeltaX(i), blue.getDeltaX(i), 0);
+            assertEquals(red.getDeltaY(i), blue.getDeltaY(i), 0);
+            assertEquals(-red.getCurvature(i), blue.getCurvature(i), 0);
+        }
+        assertEquals(red.getPower(5), blue.getPower(5), 0);
+
+        //the robot mirrored is the same distance along and off the mirrored path
+        assertEquals(red.componentAlongPath(20, 12, 3), blue.componentAlongPath(20, -12, 3), 1e-12);
+        assertEquals(red.squaredDistanceToSegment(60, 55, 2), blue.squaredDistanceToSegment(60, -55, 2), 1e-12);
+    }
+
+    @Test
+    public void testMirroredPathMatchesFlippedPoints() {
+        ArrayList<Point> flipped = straightThenTurn(10);
+        for (Point point : flipped) {
+            point.x = -point.x;
+        }
+        Path expected = makePath(flipped, 1, 1, new double[][]{});
+        Path mirrored = new Path(makePath(straightThenTurn(10), 1, 1, new double[][]{}).getCompiledPath().mirrored());
+
+        Path.Location expectedLocation = new Path.Location();
+        Path.Location location = new Path.Location();
+        for (double x = 0; x < 56; x += 1.5) {
+            Position robot = new Position(-x, x / 10, 0);
+            expected.query(robot, 6, expectedLocation);
+            mirrored.query(robot, 6, location);
+            assertEquals(expectedLocation.distanceFromStart, location.distanceFromStart, 1e-9);
+            assertEquals(expectedLocation.futurePoint.x, location.futurePoint.x, 1e-9);
+            assertEquals(expectedLocation.futurePoint.y, location.futurePoint.y, 1e-9);
+            assertEquals(expectedLocation.finished, location.finished);
+        }
+    }
+
+    @Test
+    public void testMirrorHeading() {
+        assertEquals(0, CompiledPath.mirrorHeading(Math.PI), 1e-12);
+        assertEquals(Math.PI / 2, CompiledPath.mirrorHeading(Math.PI / 2), 1e-12);
+        assertEquals(3 * Math.PI / 4, CompiledPath.mirrorHeading(Math.PI / 4), 1e-12);
+        assertEquals(-3 * Math.PI / 4, CompiledPath.mirrorHeading(-Math.PI / 4), 1e-12);
+    }
+
+    @Test
+    public void testIntersectLookAheadOnLine() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 40; i += 4) {
+            points.add(new Point(i, 0));
+        }
+        Path path = makePath(points, 1, 1, new double[][]{});
+        Path.Location location = new Path.Location();
+        Position robot = new Position(10, 1, 0);
+
+        path.query(robot, 5, location);
+        assertTrue(path.intersectLookAhead(robot, 5, location));
+        assertEquals(10 + Math.sqrt(24), location.futurePoint.x, 1e-12);
+        assertEquals(0, location.futurePoint.y, 1e-12);
+
+        //end of the path inside the circle
+        robot = new Position(38, 1, 0);
+        path.query(robot, 5, location);
+        assertTrue(path.intersectLookAhead(robot, 5, location));
+        assertEquals(40, location.futurePoint.x, 0);
+        assertEquals(0, location.futurePoint.y, 0);
+    }
+
+    @Test
+    public void testIntersectLookAheadOffPath() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 40; i += 4) {
+            points.add(new Point(i, 0));
+        }
+        Path path = makePath(points, 1, 1, new double[][]{});
+        Path.Location location = new Path.Location();
+        Position robot = new Position(10, 8, 0);
+
+        path.query(robot, 5, location);
+        double queriedX = location.futurePoint.x;
+        assertFalse(path.intersectLookAhead(robot, 5, location));
+        assertEquals(queriedX, location.futurePoint.x, 0);
+    }
+
+    @Test
+    public void testIntersectLookAheadTakesFirstExit() {
+        //out along y = 0 and back along y = 6, both inside a circle of 8 around the robot
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 20; i++) {
+            points.add(new Point(i, 0));
+        }
+        for (int i = 20; i >= 0; i--) {
+            points.add(new Point(i, 6));
+        }
+        Path path = makePath(points, 1, 1, new double[][]{});
+        Path.Location location = new Path.Location();
+        Position robot = new Position(4, 0, 0);
+
+        path.query(robot, 8, location);
+        assertTrue(path.intersectLookAhead(robot, 8, location));
+        assertEquals(12, location.futurePoint.x, 1e-12);
+        assertEquals(0, location.futurePoint.y, 1e-12);
+    }
+}
@@ -0,0 +1,88 @@
+package edu.ahs.robotics.control;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times SegmentIndex lookups against checking every segment, on generated paths from 100 to 100k points.
+ * Timings are printed, answers are checked against each other. Not a unit test, see Benchmarks. SegmentIndexTest checks the answers.
+ */
+public class SegmentIndexBenchmark {
+    private static final int[] SIZES = {100, 1_000, 10_000, 100_000};
+    private static final int QUERIES = 2_000;
+
+    public void benchmarkNearestSegment() {
+        for (int size : SIZES) {
+            CompiledPath path = makePath(size);
+            long buildStart = System.nanoTime();
+            SegmentIndex index = new SegmentIndex(path);
+            long buildNanos = System.nanoTime() - buildStart;
+
+            Random random = new Random(size);
+            double[] xs = new double[QUERIES], ys = new double[QUERIES];
+            for (int i = 0; i < QUERIES; i++) { //near the path, where a knocked robot would be
+                int near = 1 + random.nextInt(path.size() - 1);
+                xs[i] = path.getX(near) + (random.nextDouble() - .5) * 20;
+                ys[i] = path.getY(near) + (random.nextDouble() - .5) * 20;
+            }
+
+            int bruteQueries = Math.max(20, QUERIES * 100 / size); //brute force on 100k points is slow, so fewer of them
+            long sink = 0;
+            for (int i = 0; i < bruteQueries; i++) { //warmup
+                sink += bruteForce(path, xs[i], ys[i]) + index.findNearest(xs[i], ys[i]);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < bruteQueries; i++) {
+                sink += bruteForce(path, xs[i], ys[i]);
+            }
+            long bruteNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                sink += index.findNearest(xs[i], ys[i]);
+            }
+            long indexNanos = System.nanoTime() - start;
+
+            for (int i = 0; i < bruteQueries; i++) {
+                int brute = bruteForce(path, xs[i], ys[i]);
+                index.findNearest(xs[i], ys[i]);
+                assertEquals(path.squaredDistanceToSegment(brute, xs[i], ys[i]), index.getNearestDistance() * index.getNearestDistance(), 1e-9);
+            }
+
+            System.out.println(size + " points: build " + buildNanos / 1e6 + " ms, " + index.getCellCount() + " cells, brute force "
+                    + (double) bruteNanos / bruteQueries + " ns/query, index " + (double) indexNanos / QUERIES + " ns/query");
+            assertTrue(sink != 0);
+        }
+    }
+
+    /**
+     * Smooth wandering path with half inch spacing, like a dense spline.
+     */
+    private static CompiledPath makePath(int size) {
+        ArrayList<Point> points = new ArrayList<>();
+        double x = 0, y = 0;
+        for (int i = 0; i < size; i++) {
+            points.add(new Point(x, y));
+            double heading = Math.sin(i * .003) * 2 + Math.sin(i * .0007) * 3;
+            x += Math.cos(heading) * .5;
+            y += Math.sin(heading) * .5;
+        }
+        return CompiledPath.compile(points, 0, 0, new double[][]{});
+    }
+
+    private static int bruteForce(CompiledPath path, double x, double y) {
+        double best = Double.POSITIVE_INFINITY;
+        int bestSegment = 1;
+        for (int s = 1; s < path.size(); s++) {
+            double distance = path.squaredDistanceToSegment(s, x, y);
+            if (distance < best) {
+                best = distance;
+                bestSegment = s;
+            }
+        }
+        return bestSegment;
+    }
+}
@@ -0,0 +1,58 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SegmentIndexTest {
+
+    @Test
+    public void testMatchesBruteForce() {
+        Random random = new Random(5);
+        ArrayList<Point> points = new ArrayList<>();
+        double x = 0, y = 0, heading = 0;
+        for (int i = 0; i < 500; i++) { //wandering path that crosses itself
+            points.add(new Point(x, y));
+            heading += (random.nextDouble() - .5) * .8;
+            x += Math.cos(heading) * (.5 + random.nextDouble());
+            y += Math.sin(heading) * (.5 + random.nextDouble());
+        }
+        CompiledPath path = CompiledPath.compile(points, 0, 0, new double[][]{});
+        SegmentIndex index = new SegmentIndex(path);
+
+        for (int i = 0; i < 2000; i++) {
+            double qx = (random.nextDouble() - .5) * 200; //well outside the path too
+            double qy = (random.nextDouble() - .5) * 200;
+
+            double best = Double.POSITIVE_INFINITY;
+            int bestSegment = -1;
+            for (int s = 1; s < path.size(); s++) {
+                double distance = path.squaredDistanceToSegment(s, qx, qy);
+                if (distance < best) {
+                    best = distance;
+                    bestSegment = s;
+                }
+            }
+
+            assertEquals(bestSegment, index.findNearest(qx, qy));
+            assertEquals(Math.sqrt(best), index.getNearestDistance(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testStraightLine() {
+        ArrayList<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            points.add(new Point(i * 2, 0));
+        }
+        SegmentIndex index = new SegmentIndex(CompiledPath.compile(points, 0, 0, new double[][]{}));
+
+        assertEquals(3, index.findNearest(5, 1)); //segment from (4,0) to (6,0)
+        assertEquals(1, index.getNearestDistance(), 1e-12);
+        assertEquals(10, index.findNearest(30, 0));
+        assertEquals(10, index.getNearestDistance(), 1e-12);
+    }
+}
@@ -0,0 +1,80 @@
+package edu.ahs.robotics.control;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SplineBuilderTest {
+
+    @Test
+    public void testStraightNeedsFewPoints() {
+        List<Point> points = new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(48, 0, 0)
+                .sample();
+
+        assertEquals(new Point(0, 0), points.get(0));
+        assertEquals(new Point(48, 0), points.get(points.size() - 1));
+        assertTrue(points.size() <= 3); //only split for the segment length limit
+        for (Point point : points) {
+            assertEquals(0, point.y, 1e-12);
+        }
+    }
+
+    @Test
+    public void testTurnGetsDenserThanStraight() {
+        List<Point> points = new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(48, 0, 0)
+                .addWaypoint(60, 12, Math.PI / 2)
+                .sample();
+
+        int onStraight = 0, onTurn = 0;
+        for (Point point : points) {
+            if (point.x < 48) {
+                onStraight++;
+            } else {
+                onTurn++;
+            }
+        }
+        assertTrue(onTurn > 4 * onStraight); //the turn is much shorter but should hold far more points
+        assertEquals(new Point(60, 12), points.get(points.size() - 1));
+    }
+
+    @Test
+    public void testHeadingIsContinuous() {
+        double maxTurn = Math.toRadians(5);
+        List<Point> points = new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(24, 24)
+                .addWaypoint(0, 48, Math.PI)
+                .setMaxTurn(maxTurn)
+                .sample();
+
+        for (int i = 2; i < points.size(); i++) {
+            Point a = points.get(i - 2), b = points.get(i - 1), c = points.get(i);
+            double turn = Math.atan2((b.x - a.x) * (c.y - b.y) - (b.y - a.y) * (c.x - b.x), (b.x - a.x) * (c.x - b.x) + (b.y - a.y) * (c.y - b.y));
+            assertTrue("turn of " + Math.toDegrees(turn) + " at " + i, Math.abs(turn) <= 2 * maxTurn);
+        }
+    }
+
+    @Test
+    public void testBuildsPath() {
+        Path path = new SplineBuilder()
+                .addWaypoint(0, 0, Math.PI / 2)
+                .addWaypoint(24, 24, 0)
+                .build(false, .5, .2, new double[][]{{10, .8}});
+
+        //a quarter circle is about 37.7 inches, the spline should be in that neighborhood
+        assertEquals(37.7, path.getCompiledPath().getTotalDistance(), 2);
+        assertFalse(path.isFinished(new Position(0, 0, 0)));
+        assertTrue(path.isFinished(new Position(25, 24, 0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsTwoWaypoints() {
+        new SplineBuilder().addWaypoint(0, 0).sample();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.ahs.robotics.control.obm;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import edu.ahs.robotics.control.MotionConfig;
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.hardware.sensors.OdometrySystem;
+import edu.ahs.robotics.hardware.sensors.OdometrySystemMock;
+
+import static org.junit.Assert.*;
+
+public class TargetHeadingChangerTest {
+
+    @Test
+    public void testOnlyWatchesOnceItsPathStarts() {
+        ArrayList<Position> positions = new ArrayList<>();
+        positions.add(new Position(0, 20, 0)); //an earlier path crossing turnY
+        positions.add(new Position(0, 5, 0));
+        positions.add(new Position(0, 13, 0));
+        OdometrySystemMock odometrySystem = new OdometrySystemMock(positions, null);
+        MotionConfig motionConfig = new MotionConfig();
+        TargetHeadingChanger changer = new TargetHeadingChanger(motionConfig, Math.PI / 2, 12, odometrySystem);
+
+        odometrySystem.getState();
+        assertEquals(0, odometrySystem.getPoseListenerCount());
+
+        changer.check(new OdometrySystem.State(new Position(0, 0, 0))); //first check of its own path
+        assertFalse(changer.isFinished());
+        assertEquals(0, motionConfig.idealHeading, 0);
+        assertEquals(1, odometrySystem.getPoseListenerCount());
+
+        odometrySystem.getState();
+        odometrySystem.getState(); //crosses between checks
+        changer.check(new OdometrySystem.State(new Position(0, 0, 0)));
+        assertTrue(changer.isFinished());
+        assertEquals(Math.PI / 2, motionConfig.idealHeading, 0);
+        assertEquals(0, odometrySystem.getPoseListenerCount());
+    }
+
+    @Test
+    public void testResetStopsListening() {
+        ArrayList<Position> positions = new ArrayList<>();
+        OdometrySystemMock odometrySystem = new OdometrySystemMock(positions, null);
+        TargetHeadingChanger changer = new TargetHeadingChanger(new MotionConfig(), Math.PI / 2, 12, odometrySystem);
+
+        changer.check(new OdometrySystem.State(new Position(0, 0, 0)));
+        assertEquals(1, odometrySystem.getPoseListenerCount());
+        changer.reset();
+        assertEquals(0, odometrySystem.getPoseListenerCount());
+    }
+
+    @Test
+    public void testFinishStopsListening() {
+        ArrayList<Position> positions = new ArrayList<>();
+        OdometrySystemMock odometrySystem = new OdometrySystemMock(positions, null);
+        MotionConfig motionConfig = new MotionConfig();
+        TargetHeadingChanger changer = new TargetHeadingChanger(motionConfig, Math.PI / 2, 12, odometrySystem);
+        motionConfig.addOBMCommand(changer);
+
+        motionConfig.checkOBMCommands(new OdometrySystem.State(new Position(0, 0, 0)));
+        assertEquals(1, odometrySystem.getPoseListenerCount());
+        motionConfig.finishOBMCommands();
+        assertEquals(0, odometrySystem.getPoseListenerCount());
+        assertFalse(changer.isFinished());
+    }
+}
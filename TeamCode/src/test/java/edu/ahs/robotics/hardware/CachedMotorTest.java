@@ -0,0 +1,104 @@
+package edu.ahs.robotics.hardware;
+
+import com.qualcomm.robotcore.hardware.DcMotor;
+
+import org.junit.Test;
+
+import edu.ahs.robotics.hardware.sensors.OdometerImpl;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+import static org.junit.Assert.*;
+
+public class CachedMotorTest {
+
+    @Test
+    public void testSkipsRepeatedPower() {
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        CachedMotor motor = new CachedMotor(mock);
+
+        motor.setPower(.5);
+        motor.setPower(.5);
+        motor.setPower(.5 + CachedMotor.DEFAULT_EPSILON / 2);
+        motor.setPower(.6);
+
+        assertEquals(2, mock.powerList.size());
+        assertEquals(.6, mock.powerList.get(1), 0);
+        assertEquals(2, motor.getWrites());
+        assertEquals(2, motor.getSkippedWrites());
+    }
+
+    @Test
+    public void testStopAlwaysGoesThrough() {
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        CachedMotor motor = new CachedMotor(mock, .1);
+
+        motor.setPower(.3);
+        motor.setPower(.05);
+        motor.setPower(0); //within epsilon, but stopping
+        motor.setPower(0);
+
+        assertEquals(3, mock.powerList.size());
+        assertEquals(.3, mock.powerList.get(0), 0);
+        assertEquals(0, mock.powerList.get(2), 0);
+    }
+
+    @Test
+    public void testModeIsCached() {
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        CachedMotor motor = new CachedMotor(mock);
+
+        motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        assertEquals(1, mock.modeWrites);
+
+        mock.setMode(DcMotor.RunMode.RUN_TO_POSITION); //around the cache
+        assertEquals(DcMotor.RunMode.RUN_WITHOUT_ENCODER, motor.getMode());
+        motor.invalidate();
+        assertEquals(DcMotor.RunMode.RUN_TO_POSITION, motor.getMode());
+    }
+
+    @Test
+    public void testResetIsAlwaysWrittenAndClearsPower() {
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        CachedMotor motor = new CachedMotor(mock);
+
+        motor.setPower(.4);
+        motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        motor.setMode(DcMotor.RunMode.STOP_AND_RESET_ENCODER);
+        motor.setMode(DcMotor.RunMode.RUN_WITHOUT_ENCODER);
+        motor.setPower(.4);
+
+        assertEquals(3, mock.modeWrites);
+        assertEquals(2, mock.powerList.size());
+    }
+
+    @Test
+    public void testTargetPositionIsCached() {
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        CachedMotor motor = new CachedMotor(mock);
+
+        assertEquals(0, motor.getTargetPosition());
+        motor.setTargetPosition(0);
+        motor.setTargetPosition(300);
+        motor.setTargetPosition(300);
+
+        assertEquals(1, mock.targetWrites);
+        assertEquals(300, motor.getTargetPosition());
+    }
+
+    @Test
+    public void testOdometerResetGoesThroughSharedMotor() {
+        FTCUtilities.startTestMode();
+        DcMotorMockLogger mock = new DcMotorMockLogger();
+        FTCUtilities.addTestMotor(mock, "intakeL");
+        CachedMotor intake = FTCUtilities.getCachedMotor("intakeL");
+        intake.setPower(.5);
+
+        new OdometerImpl("intakeL", 2.36, false, 1440); //resets the encoder, which stops the motor
+        intake.setPower(.5);
+
+        assertSame(intake, FTCUtilities.getCachedMotor("intakeL"));
+        assertEquals(2, mock.powerList.size());
+        assertEquals(.5, mock.powerList.get(1), 0);
+    }
+}
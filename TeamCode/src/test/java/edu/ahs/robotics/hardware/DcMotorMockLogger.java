@@ -15,12 +15,17 @@ import edu.ahs.robotics.util.MotorHashService;
 public class DcMotorMockLogger implements DcMotor {
 
     ArrayList<Double> powerList;
+    ArrayList<Integer> writeOrder = new ArrayList<>(); //when each power in powerList was written, counted across all mocks
+    int modeWrites = 0;
+    int targetWrites = 0;
+    private static int nextWrite = 0;
 
     private long startTime = System.currentTimeMillis();
     private double motorPower;
     private RunMode runMode;
     private MotorHashService.MotorTypes motorType;
     private Direction direction = Direction.FORWARD;
+    private int targetPosition = 0;
 
     public DcMotorMockLogger() {
         powerList = new ArrayList<>();
@@ -68,12 +73,13 @@ public class DcMotorMockLogger implements DcMotor {
 
     @Override
     public void setTargetPosition(int position) {
-
+        targetPosition = position;
+        targetWrites++;
     }
 
     @Override
     public int getTargetPosition() {
-        return 0;
+        return targetPosition;
     }
 
     @Override
@@ -89,6 +95,7 @@ public class DcMotorMockLogger implements DcMotor {
     @Override
     public void setMode(RunMode mode) {
         runMode = mode;
+        modeWrites++;
     }
 
     @Override
@@ -112,11 +119,12 @@ public class DcMotorMockLogger implements DcMotor {
     public void setPower(double power) {
         motorPower = power;
         powerList.add(power);
+        writeOrder.add(nextWrite++);
     }
 
     @Override
     public double getPower() {
-        return 0;
+        return motorPower;
     }
 
     @Override
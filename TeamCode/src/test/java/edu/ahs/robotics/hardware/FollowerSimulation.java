@@ -0,0 +1,46 @@
+package edu.ahs.robotics.hardware;
+
+import edu.ahs.robotics.control.MotionConfig;
+import edu.ahs.robotics.control.Path;
+import edu.ahs.robotics.control.PathStats;
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.util.MockClock;
+import edu.ahs.robotics.util.MotorHashService;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+import edu.ahs.robotics.util.loggers.MockDataLogger;
+
+/**
+ * Runs MecanumChassis.followPath against SimulatedOdometrySystem instead of hardware, for comparing follower tuning.
+ * The mock clock moves CLOCK_STEP_MILLIS every time it's read, so a loop takes a few steps.
+ */
+class FollowerSimulation {
+    static final int CLOCK_STEP_MILLIS = 5;
+
+    /**
+     * Follows a path from a starting position until it finishes or the motion config's timeOut passes.
+     */
+    PathStats run(Path path, MotionConfig motionConfig, Position start) {
+        FTCUtilities.startTestMode();
+        DcMotorMockLogger frontLeft = new DcMotorMockLogger();
+        DcMotorMockLogger frontRight = new DcMotorMockLogger();
+        DcMotorMockLogger backLeft = new DcMotorMockLogger();
+        DcMotorMockLogger backRight = new DcMotorMockLogger();
+        FTCUtilities.addTestMotor(frontLeft, "FL");
+        FTCUtilities.addTestMotor(frontRight, "FR");
+        FTCUtilities.addTestMotor(backLeft, "BL");
+        FTCUtilities.addTestMotor(backRight, "BR");
+
+        DriveUnit.Config driveConfig = new DriveUnit.Config(new GearRatio(1, 1), 3.94, MotorHashService.MotorTypes.AM_20);
+        SimulatedOdometrySystem odometrySystem = new SimulatedOdometrySystem(start, frontLeft, frontRight, backLeft, backRight);
+        MecanumChassis chassis = new MecanumChassis(driveConfig, odometrySystem);
+        new MockDataLogger("partialPursuit");
+        chassis.startOdometrySystem();
+
+        MockClock clock = new MockClock(MockClock.Mode.CUSTOM_TIME_STEP);
+        clock.setTimeStep(CLOCK_STEP_MILLIS);
+        FTCUtilities.setMockClock(clock);
+
+        chassis.followPath(path, motionConfig);
+        return chassis.getLastPathStats();
+    }
+}
@@ -0,0 +1,107 @@
+package edu.ahs.robotics.hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.control.MotionConfig;
+import edu.ahs.robotics.control.Path;
+import edu.ahs.robotics.control.PathStats;
+import edu.ahs.robotics.control.Point;
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.control.SplineBuilder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares follower settings in FollowerSimulation on a few typical auto paths. Tracking error and time are printed.
+ * Not a unit test, see Benchmarks. MecanumChassisTest checks that both followers finish a curve.
+ */
+public class FollowerSimulationBenchmark {
+
+    private static List<Point> sCurve() {
+        return new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(36, 24, 0)
+                .addWaypoint(72, 0, 0)
+                .sample();
+    }
+
+    private static List<Point> corner() {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i <= 48; i++) {
+            points.add(new Point(i, 0));
+        }
+        for (int i = 1; i <= 36; i++) {
+            points.add(new Point(48, i));
+        }
+        return points;
+    }
+
+    private static List<Point> hairpin() {
+        return new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(40, 0, 0)
+                .addWaypoint(40, 20, Math.PI)
+                .addWaypoint(0, 20, Math.PI)
+                .sample();
+    }
+
+    private static MotionConfig fixed() {
+        return new MotionConfig();
+    }
+
+    private static MotionConfig adaptive() {
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.adaptiveLookAhead = true;
+        return motionConfig;
+    }
+
+    private static MotionConfig purePursuit() {
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.followerMode = MotionConfig.FollowerMode.PURE_PURSUIT;
+        return motionConfig;
+    }
+
+    private static PathStats run(List<Point> points, MotionConfig motionConfig) {
+        Path path = new Path(points, false, .8, .3, new double[][]{});
+        return new FollowerSimulation().run(path, motionConfig, new Position(points.get(0), 0));
+    }
+
+    public void benchmarkLookAhead() {
+        String[] names = {"s curve", "corner", "hairpin"};
+        List<List<Point>> paths = new ArrayList<>();
+        paths.add(sCurve());
+        paths.add(corner());
+        paths.add(hairpin());
+
+        for (int i = 0; i < names.length; i++) {
+            PathStats fixedStats = run(paths.get(i), fixed());
+            PathStats adaptiveStats = run(paths.get(i), adaptive());
+
+            assertTrue(fixedStats.finished);
+            assertTrue(adaptiveStats.finished);
+            System.out.println(names[i]);
+            System.out.println("  fixed 12 in: " + fixedStats);
+            System.out.println("  adaptive:    " + adaptiveStats);
+        }
+    }
+
+    public void benchmarkPurePursuit() {
+        String[] names = {"s curve", "corner", "hairpin"};
+        List<List<Point>> paths = new ArrayList<>();
+        paths.add(sCurve());
+        paths.add(corner());
+        paths.add(hairpin());
+
+        for (int i = 0; i < names.length; i++) {
+            PathStats pointStats = run(paths.get(i), fixed());
+            PathStats purePursuitStats = run(paths.get(i), purePursuit());
+
+            assertTrue(pointStats.finished);
+            assertTrue(purePursuitStats.finished);
+            System.out.println(names[i]);
+            System.out.println("  point:        " + pointStats);
+            System.out.println("  pure pursuit: " + purePursuitStats);
+        }
+    }
+}
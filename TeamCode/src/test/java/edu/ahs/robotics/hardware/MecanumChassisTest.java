@@ -9,12 +9,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 import edu.ahs.robotics.control.MotionConfig;
+import edu.ahs.robotics.control.MotionProfile;
+import edu.ahs.robotics.control.Path;
+import edu.ahs.robotics.control.PathChain;
+import edu.ahs.robotics.control.PathStats;
 import edu.ahs.robotics.control.Point;
 import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.control.SplineBuilder;
 import edu.ahs.robotics.control.Vector;
 import edu.ahs.robotics.control.Velocity;
+import edu.ahs.robotics.control.obm.TargetHeadingChanger;
 import edu.ahs.robotics.hardware.sensors.OdometrySystem;
 import edu.ahs.robotics.hardware.sensors.OdometrySystemMock;
+import edu.ahs.robotics.hardware.sensors.PoseListener;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 import edu.ahs.robotics.util.MockClock;
 import edu.ahs.robotics.util.MotorHashService;
@@ -27,19 +34,38 @@ public class MecanumChassisTest {
     private Double[] frontLeftPowers, frontRightPowers, backLeftPowers, backRightPowers;
 
     private void init(ArrayList<Position> positions, ArrayList<Velocity> velocities){
-        FTCUtilities.startTestMode();
+        initMotors();
+        init(makeOdometrySystemMock(positions, velocities));
+    }
 
-        MockClock mc = new MockClock();
+    /**
+     * Chassis driving a SimulatedOdometrySystem, with the mock clock moving 5 milliseconds every time it's read
+     */
+    private SimulatedOdometrySystem initSimulated(Position start) {
+        initMotors();
+        SimulatedOdometrySystem odometrySystem = new SimulatedOdometrySystem(start, frontLeft, frontRight, backLeft, backRight);
+        init(odometrySystem);
+        MockClock mc = new MockClock(MockClock.Mode.CUSTOM_TIME_STEP);
+        mc.setTimeStep(5);
         FTCUtilities.setMockClock(mc);
+        return odometrySystem;
+    }
 
-        OdometrySystem odometrySystem = makeOdometrySystemMock(positions, velocities);
-        GearRatio driveGearRatio = new GearRatio(1,1);
-        DriveUnit.Config driveConfig = new DriveUnit.Config(driveGearRatio, 3.94, MotorHashService.MotorTypes.AM_20);
-
+    private void initMotors() {
         frontLeft = new DcMotorMockLogger();
         frontRight = new DcMotorMockLogger();
         backLeft = new DcMotorMockLogger();
         backRight = new DcMotorMockLogger();
+    }
+
+    private void init(OdometrySystem odometrySystem){
+        FTCUtilities.startTestMode();
+
+        MockClock mc = new MockClock();
+        FTCUtilities.setMockClock(mc);
+
+        GearRatio driveGearRatio = new GearRatio(1,1);
+        DriveUnit.Config driveConfig = new DriveUnit.Config(driveGearRatio, 3.94, MotorHashService.MotorTypes.AM_20);
 
         FTCUtilities.addTestMotor(frontLeft, "FL"); // add test motors here so they can get injected into mecanumChassis
         FTCUtilities.addTestMotor(frontRight, "FR");
@@ -129,6 +155,66 @@ public class MecanumChassisTest {
         assertTrue(command.turnOutput > 0);
     }
 
+    @Test
+    public void testPurePursuitStraightAhead() {
+        init(null, null);
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.followerMode = MotionConfig.FollowerMode.PURE_PURSUIT;
+
+        MecanumChassis.DriveCommand command = mecanumChassis.getDriveTowardsPointCommands(new Point(12, 0), .5, new Position(0, 0, 0), motionConfig);
+
+        assertEquals(.5, command.driveVector.x, 1e-12);
+        assertEquals(0, command.driveVector.y, 1e-12);
+        assertEquals(0, command.turnOutput, 1e-12);
+    }
+
+    @Test
+    public void testPurePursuitCurvature() {
+        MotionConfig motionConfig = new MotionConfig();
+
+        assertEquals(.1, MecanumChassis.getPurePursuitCurvature(Math.PI / 6, 10, motionConfig), 1e-12);
+        assertEquals(-.1, MecanumChassis.getPurePursuitCurvature(-Math.PI / 6, 10, motionConfig), 1e-12);
+        assertEquals(.2, MecanumChassis.getPurePursuitCurvature(3 * Math.PI / 4, 10, motionConfig), 1e-12); //behind, tightest arc
+
+        motionConfig.idealHeading = Math.PI; //driving backwards, -150 degrees is 30 counterclockwise of travel
+        assertEquals(.1, MecanumChassis.getPurePursuitCurvature(-5 * Math.PI / 6, 10, motionConfig), 1e-12);
+    }
+
+    @Test
+    public void testPurePursuitTurnsAlongArc() {
+        init(null, null);
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.followerMode = MotionConfig.FollowerMode.PURE_PURSUIT;
+        motionConfig.turnCutoff = 0;
+        Point target = new Point(10 * Math.cos(Math.PI / 6), 10 * Math.sin(Math.PI / 6));
+
+        MecanumChassis.DriveCommand command = mecanumChassis.getDriveTowardsPointCommands(target, .25, new Position(0, 0, 0), motionConfig);
+
+        //12 in/s on a 10 inch radius arc is 1.2 rad/s, of 4 at full turn
+        assertEquals(.3, command.turnOutput, 1e-12);
+        double direction = Math.atan2(command.driveVector.y, command.driveVector.x);
+        assertEquals(.1 * 12 * .1, direction, 1e-12);
+        assertEquals(.25, Math.hypot(command.driveVector.x, command.driveVector.y), 1e-12);
+    }
+
+    @Test
+    public void testPurePursuitScalesDownTightArcs() {
+        init(null, null);
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.followerMode = MotionConfig.FollowerMode.PURE_PURSUIT;
+        motionConfig.turnCutoff = 0;
+        motionConfig.turnPower = .5;
+        Point target = new Point(0, 4); //straight left, the tightest arc
+
+        MecanumChassis.DriveCommand command = mecanumChassis.getDriveTowardsPointCommands(target, 1, new Position(0, 0, 0), motionConfig);
+
+        //the arc wants 6 turn power at full speed, so both are scaled to keep turn at turnPower
+        double speed = Math.hypot(command.driveVector.x, command.driveVector.y);
+        assertEquals(.5, command.turnOutput, 1e-12);
+        assertEquals(1 / 12.0, speed, 1e-12);
+        assertEquals(6, command.turnOutput / speed, 1e-9);
+    }
+
     @Test
     public void testVectorConversionZeros(){
         MecanumChassis.MecanumVectors v;
@@ -214,7 +300,7 @@ public class MecanumChassisTest {
 
         fillPowerLists();
 
-        Double[] emptyList = {0.0,0.0,0.0,0.0,0.0,0.0,0.0,0.0,0.0,0.0}; //10
+        Double[] emptyList = {0.0}; //10 loops of 0, but repeats aren't written
 
         assertArrayEquals(emptyList,frontLeftPowers);
         assertArrayEquals(emptyList,backRightPowers);
@@ -242,4 +328,231 @@ public class MecanumChassisTest {
         backRightPowers = new Double[backRight.powerList.size()];
         backRight.powerList.toArray(backRightPowers);
     }
-}
\ No newline at end of file
+
+    /**
+     * Positions along an L, 24 inches along x then 24 up y, and a while past its end. Each followPath loop uses two.
+     */
+    private ArrayList<Position> positionsAlongL() {
+        ArrayList<Position> positions = new ArrayList<>();
+        for (double x = 0; x < 24; x += .5) {
+            positions.add(new Position(x, 0, 0));
+        }
+        for (double y = 0; y <= 26; y += .5) {
+            positions.add(new Position(24, y, 0));
+        }
+        for (int i = 0; i < 20; i++) {
+            positions.add(new Position(24, 26, 0));
+        }
+        return positions;
+    }
+
+    private PathChain makeLChain() {
+        ArrayList<Point> first = new ArrayList<>();
+        first.add(new Point(0, 0));
+        first.add(new Point(24, 0));
+        ArrayList<Point> second = new ArrayList<>();
+        second.add(new Point(24, 0));
+        second.add(new Point(24, 24));
+
+        return new PathChain()
+                .add(new Path(first, false, .5, .5, new double[][]{}), new MotionConfig())
+                .add(new Path(second, false, .8, .8, new double[][]{}), new MotionConfig());
+    }
+
+    /**
+     * Times all four motors were at 0 together. Unchanged powers aren't written, so this replays the writes of all four in order.
+     */
+    private int countStops() {
+        DcMotorMockLogger[] motors = {frontLeft, frontRight, backLeft, backRight};
+        int[] next = new int[motors.length];
+        double[] power = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+        int stops = 0;
+        boolean stopped = false;
+        while (true) {
+            int earliest = -1;
+            for (int m = 0; m < motors.length; m++) {
+                if (next[m] < motors[m].writeOrder.size()
+                        && (earliest == -1 || motors[m].writeOrder.get(next[m]) < motors[earliest].writeOrder.get(next[earliest]))) {
+                    earliest = m;
+                }
+            }
+            if (earliest == -1) {
+                return stops;
+            }
+            power[earliest] = motors[earliest].powerList.get(next[earliest]++);
+
+            boolean allZero = power[0] == 0 && power[1] == 0 && power[2] == 0 && power[3] == 0;
+            if (allZero && !stopped) {
+                stops++;
+            }
+            stopped = allZero;
+        }
+    }
+
+    @Test
+    public void testPathChainBlendsWithoutStopping() {
+        init(positionsAlongL(), null);
+        new MockDataLogger("partialPursuit");
+
+        mecanumChassis.followPathChain(makeLChain());
+
+        assertEquals(0, countStops());
+        //repeated powers aren't written, so check it drove both paths rather than counting loops
+        assertEquals(.5, frontLeft.powerList.get(0), 1e-12);
+        assertEquals(.8, frontLeft.powerList.get(frontLeft.powerList.size() - 1), 1e-12);
+    }
+
+    @Test
+    public void testPathChainStopsWhenAsked() {
+        init(positionsAlongL(), null);
+        new MockDataLogger("partialPursuit");
+        final boolean[] ran = {false};
+
+        PathChain chain = makeLChain();
+        assertEquals(chain.get(1).path, chain.getBlendTarget(0));
+        chain = new PathChain()
+                .add(chain.get(0).path, chain.get(0).motionConfig).stop()
+                .then(new Runnable() {
+                    @Override
+                    public void run() {
+                        ran[0] = true;
+                    }
+                })
+                .add(chain.get(1).path, chain.get(1).motionConfig);
+        assertNull(chain.getBlendTarget(0));
+
+        mecanumChassis.followPathChain(chain);
+
+        assertEquals(1, countStops());
+        assertTrue(ran[0]);
+    }
+
+    @Test
+    public void testProfiledPathStartsAndFinishes() {
+        SimulatedOdometrySystem odometrySystem = initSimulated(new Position(0, 0, 0));
+        new MockDataLogger("partialPursuit");
+        ArrayList<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 48; x += 4) {
+            points.add(new Point(x, 0));
+        }
+        Path path = new Path(points, false, new MotionProfile.Constraints(30, 40));
+        MotionConfig motionConfig = new MotionConfig();
+
+        mecanumChassis.followPath(path, motionConfig);
+
+        PathStats stats = mecanumChassis.getLastPathStats();
+        assertTrue(stats.finished);
+        assertTrue(stats.durationMillis < motionConfig.timeOut);
+        assertEquals(48, odometrySystem.getPosition().x, 2);
+        assertEquals(0, odometrySystem.getPosition().y, .5);
+    }
+
+    @Test
+    public void testProfiledChainKeepsMovingThroughJunction() {
+        SimulatedOdometrySystem odometrySystem = initSimulated(new Position(0, 0, 0));
+        new MockDataLogger("partialPursuit");
+        ArrayList<Point> first = new ArrayList<>();
+        ArrayList<Point> second = new ArrayList<>();
+        for (int x = 0; x <= 24; x += 4) {
+            first.add(new Point(x, 0));
+            second.add(new Point(24 + x, 0));
+        }
+        PathChain chain = new PathChain()
+                .add(new Path(first, false, new MotionProfile.Constraints(30, 40).setEndVelocity(20)), new MotionConfig())
+                .add(new Path(second, false, new MotionProfile.Constraints(30, 40)), new MotionConfig());
+
+        final double[] slowestAtJunction = {Double.MAX_VALUE};
+        odometrySystem.addPoseListener(new PoseListener() {
+            @Override
+            public void onPoseUpdate(OdometrySystem.State state) {
+                if (state.position.x > 18 && state.position.x < 30) {
+                    slowestAtJunction[0] = Math.min(slowestAtJunction[0], state.velocity.speed());
+                }
+            }
+        });
+
+        mecanumChassis.followPathChain(chain);
+
+        assertEquals(0, countStops());
+        assertTrue(mecanumChassis.getLastPathStats().finished);
+        assertTrue("slowed to " + slowestAtJunction[0], slowestAtJunction[0] > 10);
+        assertEquals(48, odometrySystem.getPosition().x, 2);
+    }
+
+    @Test
+    public void testPathEndReleasesUnfiredTriggers() {
+        SimulatedOdometrySystem odometrySystem = initSimulated(new Position(0, 0, 0));
+        new MockDataLogger("partialPursuit");
+        ArrayList<Point> points = new ArrayList<>();
+        for (int x = 0; x <= 24; x += 4) {
+            points.add(new Point(x, 0));
+        }
+        MotionConfig motionConfig = new MotionConfig();
+        motionConfig.addOBMCommand(new TargetHeadingChanger(motionConfig, Math.PI / 2, 100, odometrySystem)); //never reached
+
+        mecanumChassis.followPath(new Path(points, false, .8, .3, new double[][]{}), motionConfig);
+
+        assertTrue(mecanumChassis.getLastPathStats().finished);
+        assertEquals(0, odometrySystem.getPoseListenerCount());
+    }
+
+    @Test
+    public void testBothFollowersFinishCurve() {
+        List<Point> sCurve = new SplineBuilder()
+                .addWaypoint(0, 0, 0)
+                .addWaypoint(36, 24, 0)
+                .addWaypoint(72, 0, 0)
+                .sample();
+        for (MotionConfig.FollowerMode mode : MotionConfig.FollowerMode.values()) {
+            SimulatedOdometrySystem odometrySystem = initSimulated(new Position(0, 0, 0));
+            new MockDataLogger("partialPursuit");
+            MotionConfig motionConfig = new MotionConfig();
+            motionConfig.followerMode = mode;
+
+            mecanumChassis.followPath(new Path(sCurve, false, .8, .3, new double[][]{}), motionConfig);
+
+            PathStats stats = mecanumChassis.getLastPathStats();
+            assertTrue(mode.toString(), stats.finished);
+            assertTrue(mode.toString(), stats.maxTrackingError < 6);
+            assertEquals(mode.toString(), 72, odometrySystem.getPosition().x, 6);
+            assertEquals(mode.toString(), 0, odometrySystem.getPosition().y, 6);
+        }
+    }
+
+    /**
+     * Drive power of the first write to the left motors, with turning cut off so it's just the drive vector.
+     */
+    private double firstDrivePower() {
+        double fl = frontLeft.powerList.get(0), bl = backLeft.powerList.get(0);
+        return Math.sqrt((fl * fl + bl * bl) / 2);
+    }
+
+    private PathChain makeShortLChain(boolean carryPower) {
+        PathChain lChain = makeLChain();
+        for (int i = 0; i < lChain.size(); i++) {
+            lChain.get(i).motionConfig.turnCutoff = 20;
+            lChain.get(i).motionConfig.timeOut = 30;
+        }
+        PathChain chain = new PathChain().add(lChain.get(0).path, lChain.get(0).motionConfig);
+        if (carryPower) {
+            chain.carryPower();
+        }
+        return chain.add(lChain.get(1).path, lChain.get(1).motionConfig);
+    }
+
+    @Test
+    public void testPathChainKeepsPowerUnlessCarried() {
+        ArrayList<Position> positions = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            positions.add(new Position(22, 0, 0)); //2 inches from the junction
+        }
+        init(positions, null);
+        new MockDataLogger("partialPursuit");
+        mecanumChassis.followPathChain(makeShortLChain(false));
+        assertEquals(.5, firstDrivePower(), 1e-9);
+
+        init(positions, null);
+        mecanumChassis.followPathChain(makeShortLChain(true));
+        assertEquals(.8, firstDrivePower(), 1e-9);
+    }
+}
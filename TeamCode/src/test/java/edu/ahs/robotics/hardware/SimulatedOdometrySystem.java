@@ -0,0 +1,157 @@
+package edu.ahs.robotics.hardware;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.hardware.sensors.Odometer;
+import edu.ahs.robotics.hardware.sensors.OdometrySystem;
+import edu.ahs.robotics.hardware.sensors.PoseListener;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+/**
+ * Mock odometry for a simple simulated mecanum robot, so followPath can be run closed loop in tests.
+ * Each state read moves the robot by however much the mock clock has advanced since the last one, driven by the powers last
+ * written to the four drive motor mocks. The robot's velocity lags the commanded one with a time constant, full power is
+ * MAX_SPEED, and full turn is MAX_TURN_RATE.
+ */
+class SimulatedOdometrySystem implements OdometrySystem {
+    static final double MAX_SPEED = 50; //inches per second at full power
+    static final double MAX_TURN_RATE = 4; //radians per second at full turn
+    static final double LAG_SECONDS = .15;
+
+    private final DcMotorMockLogger frontLeft, frontRight, backLeft, backRight;
+    private final Position position;
+    private double vx = 0, vy = 0, turnRate = 0; //field relative
+    private long lastTime = -1;
+    private boolean running = false;
+    private List<PoseListener> listeners = new ArrayList<>();
+
+    SimulatedOdometrySystem(Position start, DcMotorMockLogger frontLeft, DcMotorMockLogger frontRight,
+                            DcMotorMockLogger backLeft, DcMotorMockLogger backRight) {
+        position = new Position(start);
+        this.frontLeft = frontLeft;
+        this.frontRight = frontRight;
+        this.backLeft = backLeft;
+        this.backRight = backRight;
+    }
+
+    /**
+     * Moves the robot up to the current time.
+     */
+    private void step(long now) {
+        if (lastTime < 0) {
+            lastTime = now;
+            return;
+        }
+        double seconds = (now - lastTime) / 1e9;
+        lastTime = now;
+        if (seconds <= 0) {
+            return;
+        }
+
+        //undoes MecanumChassis.driveLocalVector, x forward and y left
+        double fl = frontLeft.getPower(), fr = frontRight.getPower(), bl = backLeft.getPower(), br = backRight.getPower();
+        double forward = (fl + bl + fr + br) / 4;
+        double left = (bl + fr - fl - br) / 4;
+        double turn = (fr + br - fl - bl) / 4;
+
+        double cos = Math.cos(position.heading), sin = Math.sin(position.heading);
+        double targetVx = (forward * cos - left * sin) * MAX_SPEED;
+        double targetVy = (forward * sin + left * cos) * MAX_SPEED;
+        double blend = seconds / (LAG_SECONDS + seconds);
+        vx += (targetVx - vx) * blend;
+        vy += (targetVy - vy) * blend;
+        turnRate += (turn * MAX_TURN_RATE - turnRate) * blend;
+
+        position.setPosition(position.x + vx * seconds, position.y + vy * seconds, position.heading + turnRate * seconds);
+    }
+
+    /**
+     * Where the robot is, without moving it.
+     */
+    Position getPosition() {
+        return position;
+    }
+
+    @Override
+    public State getState() {
+        return getState(new State());
+    }
+
+    @Override
+    public State getState(State reuse) {
+        long now = FTCUtilities.getCurrentTimeNanos();
+        step(now);
+        reuse.position.copyFrom(position);
+        reuse.velocity.dx = vx;
+        reuse.velocity.dy = vy;
+        reuse.angularVelocity = turnRate;
+        reuse.timeNanos = now;
+        if (!listeners.isEmpty()) {
+            for (PoseListener listener : new ArrayList<>(listeners)) {
+                listener.onPoseUpdate(reuse);
+            }
+        }
+        return reuse;
+    }
+
+    @Override
+    public State getStateAt(long timeNanos) {
+        return getState(); //no history
+    }
+
+    @Override
+    public State getStateAt(long timeNanos, State reuse) {
+        return getState(reuse);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void setPosition(double x, double y, double heading) {
+        position.setPosition(x, y, heading);
+    }
+
+    @Override
+    public void addPoseListener(PoseListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removePoseListener(PoseListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getPoseListenerCount() {
+        return listeners.size();
+    }
+
+    @Override
+    public Odometer getX1Odometer() {
+        return null;
+    }
+
+    @Override
+    public Odometer getX2Odometer() {
+        return null;
+    }
+
+    @Override
+    public void addTelemetry() {
+
+    }
+}
@@ -0,0 +1,84 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BulkReadCacheTest {
+
+    @Test
+    public void testOneReadPerHubPerCycle() {
+        BulkReadCache cache = new BulkReadCache(Long.MAX_VALUE);
+        EncoderHubMock hubA = new EncoderHubMock(4);
+        EncoderHubMock hubB = new EncoderHubMock(4);
+        int a = cache.addHub(hubA);
+        int b = cache.addHub(hubB);
+
+        hubA.setPosition(0, 10);
+        hubA.setPosition(3, 13);
+        hubB.setPosition(1, 21);
+
+        Encoder a0 = cache.getEncoder(a, 0);
+        Encoder a3 = cache.getEncoder(a, 3);
+        Encoder b1 = cache.getEncoder(b, 1);
+
+        for (int i = 0; i < 20; i++) { //a loop's worth of consumers all reading
+            assertEquals(10, a0.getCurrentPosition());
+            assertEquals(13, a3.getCurrentPosition());
+            assertEquals(21, b1.getCurrentPosition());
+        }
+
+        assertEquals(1, hubA.getReads());
+        assertEquals(1, hubB.getReads());
+        assertEquals(2, cache.getHardwareReadCount());
+    }
+
+    @Test
+    public void testInvalidate() {
+        BulkReadCache cache = new BulkReadCache(Long.MAX_VALUE);
+        EncoderHubMock hub = new EncoderHubMock(4);
+        Encoder encoder = cache.getEncoder(cache.addHub(hub), 2);
+
+        hub.setPosition(2, 100);
+        assertEquals(100, encoder.getCurrentPosition());
+
+        hub.setPosition(2, 200);
+        assertEquals(100, encoder.getCurrentPosition()); //same cycle, same snapshot
+
+        cache.invalidate();
+        assertEquals(200, encoder.getCurrentPosition());
+        assertEquals(2, hub.getReads());
+    }
+
+    @Test
+    public void testUntouchedHubsAreNotRead() {
+        BulkReadCache cache = new BulkReadCache(Long.MAX_VALUE);
+        EncoderHubMock used = new EncoderHubMock(4);
+        EncoderHubMock unused = new EncoderHubMock(4);
+        Encoder encoder = cache.getEncoder(cache.addHub(used), 0);
+        cache.addHub(unused);
+
+        for (int i = 0; i < 5; i++) {
+            cache.invalidate();
+            encoder.getCurrentPosition();
+        }
+
+        assertEquals(5, used.getReads());
+        assertEquals(0, unused.getReads());
+    }
+
+    @Test
+    public void testMaxAge() {
+        BulkReadCache cache = new BulkReadCache(0); //every read is already too old
+        EncoderHubMock hub = new EncoderHubMock(4);
+        Encoder encoder = cache.getEncoder(cache.addHub(hub), 0);
+
+        hub.setPosition(0, 1);
+        encoder.getCurrentPosition();
+        hub.setPosition(0, 2);
+        long start = System.nanoTime();
+        while (System.nanoTime() == start) {} //make sure the clock moves
+
+        assertEquals(2, encoder.getCurrentPosition());
+    }
+}
@@ -0,0 +1,32 @@
+package edu.ahs.robotics.hardware.sensors;
+
+/**
+ * Hub whose ports report whatever the test sets, counting how many times it is read.
+ */
+public class EncoderHubMock implements EncoderHub {
+    private int[] positions;
+    private int reads = 0;
+
+    public EncoderHubMock(int portCount) {
+        positions = new int[portCount];
+    }
+
+    public void setPosition(int port, int position) {
+        positions[port] = position;
+    }
+
+    public int getReads() {
+        return reads;
+    }
+
+    @Override
+    public int getPortCount() {
+        return positions.length;
+    }
+
+    @Override
+    public void readAll(int[] out) {
+        reads++;
+        System.arraycopy(positions, 0, out, 0, positions.length);
+    }
+}
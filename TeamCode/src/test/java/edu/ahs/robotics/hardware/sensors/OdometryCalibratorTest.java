@@ -0,0 +1,151 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import edu.ahs.robotics.util.MockClock;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+import static org.junit.Assert.*;
+
+public class OdometryCalibratorTest {
+    //what the simulated robot really is
+    private static final double DISTANCE_BETWEEN_Y_WHEELS = 14.2;
+    private static final double Y_INCHES_PER_DEGREE = -.098;
+    private static final double X_R_SCALE = 1.02, X_L_SCALE = .985, Y_SCALE = 1.01;
+
+    @Before
+    public void init() {
+        FTCUtilities.startTestMode();
+        FTCUtilities.setMockClock(new MockClock());
+    }
+
+    @Test
+    public void testRecoversGeometry() {
+        OdometryCalibrator calibrator = new OdometryCalibrator();
+        addRun(calibrator, OdometryCalibrator.Motion.SPIN, 2 * Math.PI, 0, 0, 2 * Math.PI);
+        addRun(calibrator, OdometryCalibrator.Motion.SPIN, -4 * Math.PI, 0, 0, -4 * Math.PI);
+        addRun(calibrator, OdometryCalibrator.Motion.STRAIGHT, 48, 48, 0, 0);
+        addRun(calibrator, OdometryCalibrator.Motion.STRAIGHT, 72, 72, 0, 0);
+        addRun(calibrator, OdometryCalibrator.Motion.STRAFE, 36, 0, 36, .02); //drifted a little, which the fit has to factor out
+        addRun(calibrator, OdometryCalibrator.Motion.STRAFE, -48, 0, -48, -.03);
+
+        OdometryCalibrator.Calibration calibration = calibrator.solve();
+
+        assertEquals(DISTANCE_BETWEEN_Y_WHEELS, calibration.distanceBetweenYWheels, 1e-9);
+        assertEquals(Y_INCHES_PER_DEGREE, calibration.yInchesPerDegree, 1e-9);
+        assertEquals(X_R_SCALE, calibration.xRScale, 1e-9);
+        assertEquals(X_L_SCALE, calibration.xLScale, 1e-9);
+        assertEquals(Y_SCALE, calibration.yScale, 1e-6);
+        assertEquals(0, calibration.residual, 1e-6);
+        assertEquals(6, calibration.runs);
+    }
+
+    @Test
+    public void testRecalibratingKeepsCorrection() {
+        OdometryCalibrator.Calibration uncalibrated = new OdometryCalibrator.Calibration(0, 0, 1, 1, 1);
+        OdometryCalibrator.Calibration first = calibrate(uncalibrated);
+        //the same robot logged again with the first calibration loaded
+        OdometryCalibrator.Calibration second = calibrate(first);
+
+        assertEquals(first.distanceBetweenYWheels, second.distanceBetweenYWheels, 1e-9);
+        assertEquals(first.yInchesPerDegree, second.yInchesPerDegree, 1e-9);
+        assertEquals(first.xRScale, second.xRScale, 1e-9);
+        assertEquals(first.xLScale, second.xLScale, 1e-9);
+        assertEquals(first.yScale, second.yScale, 1e-6);
+        assertEquals(X_R_SCALE, second.xRScale, 1e-9);
+        assertEquals(Y_SCALE, second.yScale, 1e-6);
+    }
+
+    @Test
+    public void testNoisyRunsAverage() {
+        OdometryCalibrator calibrator = new OdometryCalibrator();
+        addRun(calibrator, OdometryCalibrator.Motion.SPIN, 2 * Math.PI, 0, 0, 2 * Math.PI + .02);
+        addRun(calibrator, OdometryCalibrator.Motion.SPIN, 2 * Math.PI, 0, 0, 2 * Math.PI - .02);
+
+        OdometryCalibrator.Calibration calibration = calibrator.solve();
+
+        //no straights or strafes, so the scales stay put and the spacing soaks up the wheel size error
+        assertEquals(DISTANCE_BETWEEN_Y_WHEELS / 2 * (1 / X_R_SCALE + 1 / X_L_SCALE), calibration.distanceBetweenYWheels, 1e-9);
+        assertEquals(1, calibration.xRScale, 0);
+        assertEquals(1, calibration.yScale, 0);
+        assertTrue(calibration.residual > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNeedsSpin() {
+        OdometryCalibrator calibrator = new OdometryCalibrator();
+        addRun(calibrator, OdometryCalibrator.Motion.STRAIGHT, 48, 48, 0, 0);
+        calibrator.solve();
+    }
+
+    @Test
+    public void testRunFromLog() throws IOException {
+        OdometryCalibrator calibrator = new OdometryCalibrator();
+        String csv = "Time, xR, xL, yReading\n" +
+                "20, 1, -1, 0\n" +
+                "40, 2, -2, 0\n" +
+                "60, " + Math.PI * 7 + ", " + -Math.PI * 7 + ", 0\n";
+        calibrator.addRun(OdometryCalibrator.Motion.SPIN, Math.PI, new StringReader(csv));
+
+        assertEquals(1, calibrator.getRunCount());
+        assertEquals(14, calibrator.solve().distanceBetweenYWheels, 1e-9);
+    }
+
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        OdometryCalibrator.Calibration saved = new OdometryCalibrator.Calibration(14.3, -.1, 1.01, .99, 1.02);
+        saved.residual = .05;
+        saved.runs = 4;
+        StringWriter writer = new StringWriter();
+        saved.save(writer);
+
+        OdometryCalibrator.Calibration fallback = new OdometryCalibrator.Calibration(1, 2, 3, 4, 5);
+        OdometryCalibrator.Calibration loaded = OdometryCalibrator.Calibration.load(new StringReader(writer.toString()), fallback);
+
+        assertEquals(14.3, loaded.distanceBetweenYWheels, 0);
+        assertEquals(-.1, loaded.yInchesPerDegree, 0);
+        assertEquals(1.01, loaded.xRScale, 0);
+        assertEquals(.99, loaded.xLScale, 0);
+        assertEquals(1.02, loaded.yScale, 0);
+        assertEquals(.05, loaded.residual, 0);
+        assertEquals(4, loaded.runs);
+
+        //partial files fall back value by value, missing files entirely
+        loaded = OdometryCalibrator.Calibration.load(new StringReader("yScale=1.5\n"), fallback);
+        assertEquals(1, loaded.distanceBetweenYWheels, 0);
+        assertEquals(1.5, loaded.yScale, 0);
+        assertSame(fallback, OdometryCalibrator.Calibration.load("noSuchCalibration.properties", fallback));
+    }
+
+    /**
+     * Logs one of each run with the odometers scaled by loaded, and solves on top of it.
+     */
+    private OdometryCalibrator.Calibration calibrate(OdometryCalibrator.Calibration loaded) {
+        OdometryCalibrator calibrator = new OdometryCalibrator();
+        addRun(calibrator, loaded, OdometryCalibrator.Motion.SPIN, 2 * Math.PI, 0, 0, 2 * Math.PI);
+        addRun(calibrator, loaded, OdometryCalibrator.Motion.STRAIGHT, 48, 48, 0, 0);
+        addRun(calibrator, loaded, OdometryCalibrator.Motion.STRAFE, 36, 0, 36, .02);
+        return calibrator.solve(loaded);
+    }
+
+    private void addRun(OdometryCalibrator calibrator, OdometryCalibrator.Motion motion, double amount, double forward, double left, double turned) {
+        addRun(calibrator, new OdometryCalibrator.Calibration(0, 0, 1, 1, 1), motion, amount, forward, left, turned);
+    }
+
+    /**
+     * Adds what the simulated robot's odometers would read after moving forward, left and turning by the given amounts,
+     * with the odometer diameters scaled by loaded.
+     */
+    private void addRun(OdometryCalibrator calibrator, OdometryCalibrator.Calibration loaded, OdometryCalibrator.Motion motion, double amount,
+                        double forward, double left, double turned) {
+        double xR = (forward + turned * DISTANCE_BETWEEN_Y_WHEELS / 2) / X_R_SCALE * loaded.xRScale;
+        double xL = (forward - turned * DISTANCE_BETWEEN_Y_WHEELS / 2) / X_L_SCALE * loaded.xLScale;
+        double y = (left + Math.toDegrees(turned) * Y_INCHES_PER_DEGREE) / Y_SCALE * loaded.yScale;
+        calibrator.addRun(motion, amount, xR, xL, y);
+    }
+}
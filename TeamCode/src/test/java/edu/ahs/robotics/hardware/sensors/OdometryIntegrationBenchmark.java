@@ -0,0 +1,200 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.util.MockClock;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares OdometrySystemImpl's integration methods against trajectories with known answers, at 20, 50 and 200 hz.
+ * Wheel readings are generated from the trajectory, so any position error comes from the integration alone.
+ * Errors and timings are printed, only loose bounds are asserted. Not a unit test, see Benchmarks.
+ * OdometrySystemImplTest checks that the exact methods follow a constant arc.
+ */
+public class OdometryIntegrationBenchmark {
+    private static final double Y_INCHES_PER_DEGREE = -.1025;
+    private static final double DISTANCE_BETWEEN_WHEELS = 14.42;
+    private static final double DURATION = 8; //seconds
+    private static final int[] RATES = {20, 50, 200};
+
+    //constant local velocity and turn rate
+    private static final double ARC_VX = 20, ARC_VY = 5, ARC_OMEGA = .8;
+
+    private ScriptedOdometer xR, xL, y;
+    private OdometrySystemImpl odometrySystem;
+
+    public void init() {
+        FTCUtilities.startTestMode();
+        FTCUtilities.setMockClock(new MockClock());
+    }
+
+    public void benchmarkConstantArc() {
+        System.out.println("constant arc, max position error (in)");
+        for (int rate : RATES) {
+            double[] errors = new double[IntegrationMethod.values().length];
+            for (IntegrationMethod method : IntegrationMethod.values()) {
+                errors[method.ordinal()] = runArc(method, rate);
+            }
+            print(rate, errors);
+
+            //both describe exactly this motion, so only rounding is left
+            assertEquals(0, errors[IntegrationMethod.ARC.ordinal()], 1e-6);
+            assertEquals(0, errors[IntegrationMethod.POSE_EXPONENTIAL.ordinal()], 1e-6);
+            assertEquals(0, errors[IntegrationMethod.RUNGE_KUTTA_2.ordinal()], .5);
+        }
+    }
+
+    public void benchmarkVaryingPath() {
+        System.out.println("varying curvature and strafe, max position error (in)");
+        double[] slowest = null;
+        for (int rate : RATES) {
+            double[] errors = new double[IntegrationMethod.values().length];
+            for (IntegrationMethod method : IntegrationMethod.values()) {
+                errors[method.ordinal()] = runWave(method, rate);
+            }
+            print(rate, errors);
+
+            if (slowest == null) {
+                slowest = errors;
+            } else {
+                for (int i = 0; i < errors.length; i++) {
+                    assertTrue(errors[i] <= slowest[i]);
+                }
+            }
+            if (rate == 200) {
+                for (double error : errors) {
+                    assertTrue(error < .05);
+                }
+            }
+        }
+    }
+
+    public void benchmarkUpdateCost() {
+        int warmup = 50_000;
+        int measured = 500_000;
+        for (IntegrationMethod method : IntegrationMethod.values()) {
+            makeSystem(method);
+            double dt = 1.0 / 200;
+            for (int i = 0; i < warmup; i++) {
+                stepArc(i * dt);
+            }
+            long start = System.nanoTime();
+            for (int i = warmup; i < warmup + measured; i++) {
+                stepArc(i * dt);
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println(method + ": " + (double) elapsed / measured + " ns/update");
+        }
+    }
+
+    private double runArc(IntegrationMethod method, int rate) {
+        makeSystem(method);
+        OdometrySystem.State state = new OdometrySystem.State();
+        double maxError = 0;
+        int samples = (int) (DURATION * rate);
+        for (int i = 1; i <= samples; i++) {
+            double t = (double) i / rate;
+            stepArc(t);
+
+            odometrySystem.getState(state);
+            double heading = ARC_OMEGA * t;
+            double x = (ARC_VX * Math.sin(heading) + ARC_VY * (Math.cos(heading) - 1)) / ARC_OMEGA;
+            double y = (ARC_VX * (1 - Math.cos(heading)) + ARC_VY * Math.sin(heading)) / ARC_OMEGA;
+            maxError = Math.max(maxError, Math.hypot(state.position.x - x, state.position.y - y));
+            assertEquals(heading, state.position.heading, 1e-9);
+        }
+        return maxError;
+    }
+
+    private void stepArc(double t) {
+        setReadings(ARC_VX * t, ARC_VY * t, ARC_OMEGA * t);
+        odometrySystem.updatePosition((long) (t * 1e9));
+    }
+
+    /**
+     * Field pose is x = 30sin(t/2), y = 20sin(t), heading = 1.2sin(.6t). The local distances behind it have no closed form,
+     * so they are integrated with Simpson's rule on a much finer step than any rate tested.
+     */
+    private double runWave(IntegrationMethod method, int rate) {
+        makeSystem(method);
+        OdometrySystem.State state = new OdometrySystem.State();
+        double forward = 0, strafe = 0;
+        double maxError = 0;
+        int samples = (int) (DURATION * rate);
+        int substeps = 200;
+        for (int i = 1; i <= samples; i++) {
+            double t0 = (double) (i - 1) / rate;
+            double h = 1.0 / rate / substeps;
+            for (int j = 0; j < substeps; j++) {
+                double a = t0 + j * h;
+                forward += h / 6 * (waveForward(a) + 4 * waveForward(a + h / 2) + waveForward(a + h));
+                strafe += h / 6 * (waveStrafe(a) + 4 * waveStrafe(a + h / 2) + waveStrafe(a + h));
+            }
+            double t = (double) i / rate;
+            setReadings(forward, strafe, waveHeading(t));
+            odometrySystem.updatePosition((long) (t * 1e9));
+
+            odometrySystem.getState(state);
+            double x = 30 * Math.sin(t / 2);
+            double y = 20 * Math.sin(t);
+            maxError = Math.max(maxError, Math.hypot(state.position.x - x, state.position.y - y));
+        }
+        return maxError;
+    }
+
+    private static double waveHeading(double t) {
+        return 1.2 * Math.sin(.6 * t);
+    }
+
+    private static double waveForward(double t) {
+        double heading = waveHeading(t);
+        return Math.cos(heading) * 15 * Math.cos(t / 2) + Math.sin(heading) * 20 * Math.cos(t);
+    }
+
+    private static double waveStrafe(double t) {
+        double heading = waveHeading(t);
+        return -Math.sin(heading) * 15 * Math.cos(t / 2) + Math.cos(heading) * 20 * Math.cos(t);
+    }
+
+    /**
+     * Sets what the wheels read after driving the given local distances and turning to the given heading.
+     */
+    private void setReadings(double forward, double strafe, double heading) {
+        xR.distance = forward + heading * DISTANCE_BETWEEN_WHEELS / 2;
+        xL.distance = forward - heading * DISTANCE_BETWEEN_WHEELS / 2;
+        y.distance = strafe + Math.toDegrees(heading) * Y_INCHES_PER_DEGREE;
+    }
+
+    private void makeSystem(IntegrationMethod method) {
+        xR = new ScriptedOdometer();
+        xL = new ScriptedOdometer();
+        y = new ScriptedOdometer();
+        odometrySystem = new OdometrySystemImpl(xR, xL, y, Y_INCHES_PER_DEGREE, DISTANCE_BETWEEN_WHEELS);
+        odometrySystem.setReporting(false);
+        odometrySystem.setIntegrationMethod(method);
+        odometrySystem.setPosition(0, 0, 0);
+        odometrySystem.resetEncoders();
+    }
+
+    private void print(int rate, double[] errors) {
+        StringBuilder line = new StringBuilder(rate + " hz:");
+        for (IntegrationMethod method : IntegrationMethod.values()) {
+            line.append(' ').append(method).append('=').append(errors[method.ordinal()]);
+        }
+        System.out.println(line);
+    }
+
+    private static class ScriptedOdometer implements Odometer {
+        private double distance = 0;
+
+        @Override
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = 0;
+        }
+    }
+}
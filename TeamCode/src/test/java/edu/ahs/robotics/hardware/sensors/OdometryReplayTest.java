@@ -0,0 +1,95 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import edu.ahs.robotics.util.MockClock;
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+import static org.junit.Assert.*;
+
+public class OdometryReplayTest {
+    private static final double Y_INCHES_PER_DEGREE = .1;
+    private static final double DISTANCE_BETWEEN_Y_WHEELS = 12;
+
+    @Before
+    public void init() {
+        FTCUtilities.startTestMode();
+        FTCUtilities.setMockClock(new MockClock());
+    }
+
+    @Test
+    public void testStraightLine() throws IOException {
+        String csv = "Time, xR, xL, yReading, dHeading\n" +
+                "20, 1, 1, 0, 0\n" +
+                "40, 2, 2, 0, 0\n" +
+                "60, 3, 3, 0, 0\n";
+
+        OdometryReplay.Result result = new OdometryReplay(Y_INCHES_PER_DEGREE, DISTANCE_BETWEEN_Y_WHEELS).replay(new StringReader(csv));
+
+        assertEquals(3, result.samples);
+        assertEquals(3, result.x[2], 1e-9);
+        assertEquals(0, result.y[2], 1e-9);
+        assertTrue(Double.isNaN(result.maxDeviationFromLog)); //no x and y columns to compare against
+    }
+
+    @Test
+    public void testSkipsIncompleteLines() throws IOException {
+        String csv = "Time, xR, xL, yReading\n" +
+                "20, 1, 1, 0\n" +
+                "40,  ,  ,  \n" +
+                "60, 2, 2, 0\n";
+
+        OdometryReplay.Result result = new OdometryReplay(Y_INCHES_PER_DEGREE, DISTANCE_BETWEEN_Y_WHEELS).replay(new StringReader(csv));
+
+        assertEquals(2, result.samples);
+        assertEquals(1, result.skippedLines);
+    }
+
+    /**
+     * Records a curving drive through a live OdometrySystemImpl in the DataLogger format, then checks the replay reproduces it.
+     */
+    @Test
+    public void testReplayMatchesRecording() throws IOException {
+        int n = 2000;
+        double[] xR = new double[n];
+        double[] xL = new double[n];
+        double[] yReading = new double[n];
+        for (int i = 1; i < n; i++) {
+            xR[i] = xR[i - 1] + .11;
+            xL[i] = xL[i - 1] + .09;
+            yReading[i] = yReading[i - 1] + .02 * Math.sin(i * .01);
+        }
+
+        OdometrySystemImpl recorder = new OdometrySystemImpl(new OdometerMock(xR), new OdometerMock(xL), new OdometerMock(yReading), Y_INCHES_PER_DEGREE, DISTANCE_BETWEEN_Y_WHEELS);
+        recorder.setReporting(false);
+        recorder.setPosition(10, -5, Math.PI / 3);
+        recorder.resetEncoders();
+
+        StringBuilder csv = new StringBuilder("Time, xR, xL, yReading, dHeading, dyBeforeFactorOut, dyExpected, dy, x, y\n");
+        OdometrySystem.State state = new OdometrySystem.State();
+        for (int i = 1; i < n; i++) {
+            recorder.updatePosition(i * 20_000_000L);
+            recorder.getState(state);
+            csv.append(i * 20).append(", ").append(xR[i]).append(", ").append(xL[i]).append(", ").append(yReading[i])
+                    .append(", 0, 0, 0, 0, ").append(state.position.x).append(", ").append(state.position.y).append("\n");
+        }
+
+        OdometryReplay replay = new OdometryReplay(Y_INCHES_PER_DEGREE, DISTANCE_BETWEEN_Y_WHEELS);
+        replay.setStartPosition(10, -5, Math.PI / 3);
+        OdometryReplay.Result result = replay.replay(new StringReader(csv.toString()));
+
+        assertEquals(n - 1, result.samples);
+        assertEquals(0, result.maxDeviationFromLog, 1e-9);
+        assertEquals(state.position.heading, result.heading[n - 2], 1e-12);
+        assertTrue(result.integrationNanos > 0);
+
+        StringWriter trajectory = new StringWriter();
+        result.writeTrajectory(trajectory);
+        assertTrue(trajectory.toString().startsWith("Time, x, y, heading\n20, "));
+    }
+}
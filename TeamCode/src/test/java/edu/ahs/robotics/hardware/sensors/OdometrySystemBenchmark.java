@@ -0,0 +1,154 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+import edu.ahs.robotics.util.MockClock;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmarks for OdometrySystemImpl's hot paths.
+ * The contention benchmark has a writer thread spin updatePosition() as fast as it can while the test thread polls the pose,
+ * once lock-free and once through the system's monitor (how getState() used to work). It fails on a torn read.
+ * Timings are printed rather than asserted since they depend on the machine. Not a unit test, see Benchmarks.
+ * OdometrySystemImplTest checks for torn reads on its own.
+ */
+public class OdometrySystemBenchmark {
+    private static final int WARMUP_READS = 50_000;
+    private static final int MEASURED_READS = 500_000;
+
+    private OdometrySystemImpl odometrySystem;
+
+    public void init() {
+        FTCUtilities.startTestMode();
+        FTCUtilities.setMockClock(new MockClock());
+
+        //both x wheels ramp together so heading never changes - driving at 45 degrees means x and y should always match
+        odometrySystem = new OdometrySystemImpl(new RampOdometer(), new RampOdometer(), new StillOdometer(), .1, 12);
+        odometrySystem.setPosition(0, 0, Math.PI / 4);
+        odometrySystem.resetEncoders();
+    }
+
+    public void benchmarkGetStateUnderContention() throws InterruptedException {
+        WriterThread writer = new WriterThread();
+        writer.start();
+
+        long lockFreeNanos, lockedNanos;
+        try {
+            readLockFree(WARMUP_READS);
+            lockFreeNanos = readLockFree(MEASURED_READS);
+
+            readLocked(WARMUP_READS);
+            lockedNanos = readLocked(MEASURED_READS);
+        } finally {
+            writer.end();
+            writer.join();
+        }
+
+        System.out.println("getState(reuse) lock-free: " + (double) lockFreeNanos / MEASURED_READS + " ns/read");
+        System.out.println("getState(reuse) synchronized: " + (double) lockedNanos / MEASURED_READS + " ns/read");
+        System.out.println("writer updates completed: " + writer.updates);
+
+        assertTrue(writer.updates > 0);
+    }
+
+    /**
+     * Splits what an update used to cost into the part left on the odometry thread (integration plus the ring hand off)
+     * and the formatting and logging the reporter now does off thread.
+     */
+    public void benchmarkReportingOffHotPath() {
+        int batch = 512; //less than the ring holds, so nothing is dropped
+        int batches = 200;
+        long updateNanos = 0, drainNanos = 0;
+        int drained = 0;
+        for (int i = 0; i < batches; i++) {
+            long start = System.nanoTime();
+            for (int j = 0; j < batch; j++) {
+                odometrySystem.updatePosition();
+            }
+            long middle = System.nanoTime();
+            drained += odometrySystem.drainReports();
+            long end = System.nanoTime();
+
+            if (i >= batches / 10) { //first batches are warmup
+                updateNanos += middle - start;
+                drainNanos += end - middle;
+            }
+        }
+
+        int measured = (batches - batches / 10) * batch;
+        System.out.println("updatePosition() on the odometry thread: " + (double) updateNanos / measured + " ns/update");
+        System.out.println("formatting and logging on the reporter thread: " + (double) drainNanos / measured + " ns/update");
+
+        assertEquals(batches * batch, drained);
+    }
+
+    private long readLockFree(int reads) {
+        OdometrySystem.State reuse = new OdometrySystem.State();
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            odometrySystem.getState(reuse);
+            checkNotTorn(reuse);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long readLocked(int reads) {
+        OdometrySystem.State reuse = new OdometrySystem.State();
+        long start = System.nanoTime();
+        for (int i = 0; i < reads; i++) {
+            synchronized (odometrySystem) {
+                odometrySystem.getState(reuse);
+            }
+            checkNotTorn(reuse);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void checkNotTorn(OdometrySystem.State state) {
+        double tolerance = 1e-9 * Math.max(1, Math.abs(state.position.x));
+        assertEquals(state.position.x, state.position.y, tolerance);
+        assertEquals(Math.PI / 4, state.position.heading, 0.0);
+    }
+
+    private class WriterThread extends Thread {
+        private volatile boolean running = true;
+        private volatile long updates = 0;
+
+        @Override
+        public void run() {
+            while (running) {
+                odometrySystem.updatePosition();
+                updates++;
+            }
+        }
+
+        private void end() {
+            running = false;
+        }
+    }
+
+    private static class RampOdometer implements Odometer {
+        private double distance = 0;
+
+        @Override
+        public double getDistance() {
+            distance += .01;
+            return distance;
+        }
+
+        @Override
+        public void reset() {
+            distance = 0;
+        }
+    }
+
+    private static class StillOdometer implements Odometer {
+        @Override
+        public double getDistance() {
+            return 0;
+        }
+
+        @Override
+        public void reset() {}
+    }
+}
@@ -3,9 +3,20 @@ package edu.ahs.robotics.hardware.sensors;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import edu.ahs.robotics.control.Point;
 import edu.ahs.robotics.util.ftc.FTCUtilities;
 import edu.ahs.robotics.util.MockClock;
+import edu.ahs.robotics.util.ftc.FixedRateScheduler;
+import edu.ahs.robotics.util.loggers.DataLogger;
+import edu.ahs.robotics.util.loggers.MockDataLogger;
 
 import static org.junit.Assert.*;
 
@@ -375,4 +386,413 @@ public class OdometrySystemImplTest {
 //        assertEquals((7.63944)/2, odometrySystem.getPosition().y, .1);
 //    }
 
-}
\ No newline at end of file
+    @Test
+    public void testUpdateRateBounds(){
+        double[] inputs = {0};
+        init(inputs, inputs, inputs);
+
+        odometrySystem.setUpdateRate(200);
+        assertEquals(200, odometrySystem.getUpdateRate(), 1e-9);
+
+        try {
+            odometrySystem.setUpdateRate(1000);
+            fail("Rates above " + OdometrySystemImpl.MAX_UPDATE_RATE + " should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertEquals(200, odometrySystem.getUpdateRate(), 1e-9); //unchanged
+        }
+    }
+
+    @Test
+    public void testConstantVelocity(){
+        int n = 20;
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1Inputs[i] = i; //an inch every 10 ms
+            x2Inputs[i] = i;
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        for (int i = 0; i < n - 1; i++) {
+            odometrySystem.updatePosition();
+        }
+
+        OdometrySystem.State state = odometrySystem.getState();
+
+        //heading is pi/2, so driving forward is driving in +y
+        assertEquals(0, state.velocity.dx, 1e-6);
+        assertEquals(100, state.velocity.dy, 1e-6);
+        assertEquals(100, state.localVelocity.dx, 1e-6);
+        assertEquals(0, state.localVelocity.dy, 1e-6);
+        assertEquals(0, state.angularVelocity, 1e-9);
+        assertEquals(0, state.acceleration, 1e-6);
+    }
+
+    @Test
+    public void testConstantAcceleration(){
+        int n = 30;
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            double t = i * .01;
+            x1Inputs[i] = .5 * 40 * t * t; //40 in/s^2
+            x2Inputs[i] = x1Inputs[i];
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        for (int i = 0; i < n - 1; i++) {
+            odometrySystem.updatePosition();
+        }
+
+        OdometrySystem.State state = odometrySystem.getState();
+
+        assertEquals(40, state.acceleration, 1e-6);
+        assertEquals(0, state.angularAcceleration, 1e-9);
+        //a windowed difference of a parabola is the speed in the middle of the window
+        assertEquals(40 * (.29 - .02), state.localVelocity.dx, 1e-6); //last sample is at .29 s, the 5 sample window is centered 2 samples back
+    }
+
+    @Test
+    public void testSpinInPlace(){
+        int n = 20;
+        double distanceBetweenYWheels = 12;
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1Inputs[i] = .1 * i;
+            x2Inputs[i] = -.1 * i;
+            yInputs[i] = Math.toDegrees(.2 * i / distanceBetweenYWheels) * .1; //exactly what rotation alone puts on the y wheel
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        for (int i = 0; i < n - 1; i++) {
+            odometrySystem.updatePosition();
+        }
+
+        OdometrySystem.State state = odometrySystem.getState();
+
+        assertEquals(.2 / distanceBetweenYWheels / .01, state.angularVelocity, 1e-6);
+        assertEquals(0, state.velocity.speed(), 1e-6);
+        assertEquals(0, state.angularAcceleration, 1e-6);
+    }
+
+    @Test
+    public void testStateHistory(){
+        int n = 11;
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1Inputs[i] = i;
+            x2Inputs[i] = i;
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        long[] times = new long[n - 1];
+        for (int i = 0; i < n - 1; i++) {
+            odometrySystem.updatePosition();
+            times[i] = odometrySystem.getState().timeNanos;
+        }
+
+        OdometrySystem.State reuse = new OdometrySystem.State();
+
+        //exactly on a sample
+        odometrySystem.getStateAt(times[3], reuse);
+        assertEquals(4, reuse.position.y, 1e-9);
+        assertEquals(times[3], reuse.timeNanos);
+
+        //halfway between samples
+        odometrySystem.getStateAt((times[3] + times[4]) / 2, reuse);
+        assertEquals(4.5, reuse.position.y, 1e-9);
+        assertEquals(Math.PI / 2, reuse.position.heading, 1e-9);
+
+        //clamped at both ends
+        assertEquals(0, odometrySystem.getStateAt(times[0] - 1_000_000_000L, reuse).position.y, 1e-9); //oldest state is from setPosition in init
+        assertEquals(10, odometrySystem.getStateAt(times[n - 2] + 1_000_000_000L, reuse).position.y, 1e-9);
+    }
+
+    @Test
+    public void testStateHistoryClearedBySetPosition(){
+        double[] inputs = {0, 1, 2, 3};
+        init(inputs, inputs, new double[]{0, 0, 0, 0});
+
+        for (int i = 0; i < 3; i++) {
+            odometrySystem.updatePosition();
+        }
+        odometrySystem.setPosition(50, 50, 0);
+
+        OdometrySystem.State state = odometrySystem.getStateAt(0);
+        assertEquals(50, state.position.x, 0.0); //no trace of the pose before the reset
+        assertEquals(50, state.position.y, 0.0);
+    }
+
+    /**
+     * Drives straight along +y with the right x wheel slipping half an inch partway through.
+     * The heading sensor always reports the true heading.
+     * @return heading error at the end of the run
+     */
+    private double runSlip(boolean fuse){
+        int n = 150;
+        int slipAt = 20;
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1Inputs[i] = .2 * i + (i >= slipAt ? .5 : 0);
+            x2Inputs[i] = .2 * i;
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        AsyncHeadingReader reader = new AsyncHeadingReader(new HeadingSensor() {
+            @Override
+            public double getHeading() {
+                return 0;
+            }
+        }, 10);
+        if (fuse) {
+            odometrySystem.enableHeadingFusion(reader);
+        }
+
+        for (int i = 1; i < n; i++) {
+            long time = i * 10_000_000L;
+            reader.post(0, time - 5_000_000L); //reading from halfway through the last period, the sensor starts at 0 regardless of field heading
+            odometrySystem.updatePosition(time);
+        }
+
+        return odometrySystem.getState().position.heading - Math.PI / 2;
+    }
+
+    @Test
+    public void testHeadingFusionRejectsSlip(){
+        double wheelOnlyError = runSlip(false);
+        double fusedError = runSlip(true);
+
+        assertEquals(.5 / 12, wheelOnlyError, 1e-9); //the slip goes straight into the wheel heading
+        assertTrue("fused error " + fusedError, Math.abs(fusedError) < .25 * Math.abs(wheelOnlyError));
+        assertTrue(odometrySystem.getState().headingVariance > 0);
+        assertTrue(odometrySystem.getState().headingVariance < HeadingFilter.DEFAULT_MEASUREMENT_VARIANCE);
+    }
+
+    @Test
+    public void testHeadingFusionCompensatesLatency(){
+        int n = 100;
+        double turnPerUpdate = .01; //radians
+        double[] x1Inputs = new double[n];
+        double[] x2Inputs = new double[n];
+        double[] yInputs = new double[n];
+        for (int i = 0; i < n; i++) {
+            x1Inputs[i] = 6 * turnPerUpdate * i;
+            x2Inputs[i] = -6 * turnPerUpdate * i;
+            yInputs[i] = Math.toDegrees(turnPerUpdate * i) * .1;
+        }
+        init(x1Inputs, x2Inputs, yInputs);
+
+        AsyncHeadingReader reader = new AsyncHeadingReader(null, 10);
+        odometrySystem.enableHeadingFusion(reader);
+
+        for (int i = 1; i < n; i++) {
+            long time = i * 10_000_000L;
+            if (i > 3) {
+                long readingTime = time - 30_000_000L; //the reading shows up 3 updates late
+                reader.post(turnPerUpdate * (i - 3), readingTime);
+            }
+            odometrySystem.updatePosition(time);
+        }
+
+        //wheels and sensor agree once the delay is accounted for, so the heading is left alone
+        assertEquals(Math.PI / 2 + turnPerUpdate * (n - 1), odometrySystem.getState().position.heading, 1e-9);
+    }
+
+    @Test
+    public void testHeadingVarianceGrowsWhileTurning(){
+        double[] x1Inputs = {0, 1, 2};
+        double[] x2Inputs = {0, -1, -2};
+        double[] yInputs = {0, 0, 0};
+        init(x1Inputs, x2Inputs, yInputs);
+
+        odometrySystem.updatePosition(10_000_000L);
+        odometrySystem.updatePosition(20_000_000L);
+
+        double turned = 4.0 / 12;
+        double expected = HeadingFilter.DEFAULT_WHEEL_VARIANCE_PER_RADIAN * turned + HeadingFilter.DEFAULT_WHEEL_VARIANCE_PER_SECOND * .01;
+        assertEquals(expected, odometrySystem.getState().headingVariance, 1e-12);
+    }
+
+    @Test
+    public void testPoseListeners(){
+        double[] x1Inputs = {0,1,2,3,4,5,6};
+        double[] x2Inputs = {0,1,2,3,4,5,6};
+        double[] yInputs = {0,0,0,0,0,0,0};
+        init(x1Inputs, x2Inputs, yInputs);
+
+        final double[] lastY = {Double.NaN};
+        final int[] calls = {0};
+        PoseListener listener = new PoseListener() {
+            @Override
+            public void onPoseUpdate(OdometrySystem.State state) {
+                lastY[0] = state.position.y;
+                calls[0]++;
+            }
+        };
+        PoseTrigger trigger = PoseTrigger.yAbove(2.5);
+        odometrySystem.addPoseListener(listener);
+        odometrySystem.addPoseListener(trigger);
+
+        for (int i = 0; i < 3; i++) {
+            odometrySystem.updatePosition();
+        }
+        assertEquals(3, calls[0]);
+        assertEquals(3, lastY[0], 1e-9); //heading starts at pi/2, so forward is +y
+        assertTrue(trigger.isTriggered());
+        assertEquals(3, trigger.getTriggerPosition().y, 1e-9);
+
+        odometrySystem.removePoseListener(listener);
+        odometrySystem.updatePosition();
+        assertEquals(3, calls[0]);
+        assertTrue(trigger.isTriggered()); //latched
+
+        trigger.reset();
+        odometrySystem.updatePosition(); //already past 2.5, so it fires again on the next tick
+        assertTrue(trigger.isTriggered());
+        assertEquals(5, trigger.getTriggerPosition().y, 1e-9);
+    }
+
+    @Test
+    public void testPoseTriggerListensFromWhenArmed() {
+        double[] x1Inputs = {0,1,2,3,4,5,6};
+        double[] x2Inputs = {0,1,2,3,4,5,6};
+        double[] yInputs = {0,0,0,0,0,0,0};
+        init(x1Inputs, x2Inputs, yInputs);
+
+        PoseTrigger trigger = PoseTrigger.yAbove(.5);
+        odometrySystem.addPoseListener(trigger);
+        odometrySystem.updatePosition();
+        assertTrue(trigger.isTriggered());
+        odometrySystem.removePoseListener(trigger);
+
+        trigger = PoseTrigger.yAbove(2.5);
+        odometrySystem.updatePosition();
+        odometrySystem.updatePosition();
+        odometrySystem.updatePosition(); //past 2.5 before anyone listened
+        trigger.listen(odometrySystem);
+        trigger.listen(odometrySystem); //only added once
+        assertTrue(trigger.isListening());
+        assertFalse(trigger.isTriggered());
+
+        odometrySystem.updatePosition();
+        assertTrue(trigger.isTriggered());
+        assertEquals(5, trigger.getTriggerPosition().y, 1e-9);
+
+        trigger.stopListening();
+        assertFalse(trigger.isListening());
+        trigger.reset();
+        odometrySystem.updatePosition();
+        assertFalse(trigger.isTriggered());
+    }
+
+    @Test
+    public void testGetStateIsNeverTorn() throws InterruptedException {
+        final int updates = 20000;
+        double[] ramp = new double[updates + 2];
+        for (int i = 0; i < ramp.length; i++) {
+            ramp[i] = i * .01;
+        }
+        init(ramp, ramp.clone(), new double[]{0});
+        odometrySystem.setPosition(0, 0, Math.PI / 4); //heading never changes, so x and y always match
+
+        Thread writer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < updates; i++) {
+                    odometrySystem.updatePosition();
+                }
+            }
+        };
+        writer.start();
+        OdometrySystem.State state = new OdometrySystem.State();
+        while (writer.isAlive()) {
+            odometrySystem.getState(state);
+            assertEquals(state.position.x, state.position.y, 1e-9 * Math.max(1, Math.abs(state.position.x)));
+            assertEquals(Math.PI / 4, state.position.heading, 0);
+        }
+        writer.join();
+    }
+
+    @Test
+    public void testExactMethodsFollowConstantArc() {
+        double vx = 20, vy = 5, omega = .8, distanceBetweenWheels = 12, yInchesPerDegree = .1;
+        int rate = 50;
+        int samples = 8 * rate;
+        double[] xR = new double[samples + 1], xL = new double[samples + 1], y = new double[samples + 1];
+        for (int i = 0; i <= samples; i++) {
+            double t = (double) i / rate;
+            xR[i] = vx * t + omega * t * distanceBetweenWheels / 2;
+            xL[i] = vx * t - omega * t * distanceBetweenWheels / 2;
+            y[i] = vy * t + Math.toDegrees(omega * t) * yInchesPerDegree;
+        }
+
+        for (IntegrationMethod method : new IntegrationMethod[]{IntegrationMethod.ARC, IntegrationMethod.POSE_EXPONENTIAL}) {
+            odometrySystem = new OdometrySystemImpl(new OdometerMock(xR), new OdometerMock(xL), new OdometerMock(y), yInchesPerDegree, distanceBetweenWheels);
+            odometrySystem.setReporting(false);
+            odometrySystem.setIntegrationMethod(method);
+            odometrySystem.setPosition(0, 0, 0);
+            odometrySystem.resetEncoders();
+
+            OdometrySystem.State state = new OdometrySystem.State();
+            for (int i = 1; i <= samples; i++) {
+                double t = (double) i / rate;
+                odometrySystem.updatePosition((long) (t * 1e9));
+                odometrySystem.getState(state);
+
+                //both describe exactly this motion, so only rounding is left
+                double heading = omega * t;
+                assertEquals(method.toString(), (vx * Math.sin(heading) + vy * (Math.cos(heading) - 1)) / omega, state.position.x, 1e-6);
+                assertEquals(method.toString(), (vx * (1 - Math.cos(heading)) + vy * Math.sin(heading)) / omega, state.position.y, 1e-6);
+                assertEquals(method.toString(), heading, state.position.heading, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testLogsUpdateTiming() throws IOException {
+        FTCUtilities.startTestMode();
+        DataLogger logger = new DataLogger("odometryTimingTest", "odometrySystem");
+        logger.startWriting();
+        try {
+            odometrySystem = new OdometrySystemImpl(new OdometerMock(new double[]{0}), new OdometerMock(new double[]{0}), new OdometerMock(new double[]{0}), .1, 12);
+            odometrySystem.resetEncoders();
+            FixedRateScheduler scheduler = odometrySystem.getUpdateScheduler();
+            long start = 0;
+            for (int i = 0; i < 3; i++) { //what the odometry thread does, with 12 ms between ticks that each take 2 ms
+                scheduler.beginTick(start);
+                odometrySystem.updatePosition(start);
+                scheduler.endTick(start + 2_000_000L);
+                start += 12_000_000L;
+            }
+            odometrySystem.drainReports();
+        } finally {
+            logger.stopWriting();
+            new MockDataLogger("odometrySystem"); //so other tests don't log
+        }
+
+        File file = new File(FTCUtilities.getLogDirectory(), logger.getOutputFile());
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.split(", "));
+            }
+        }
+        file.delete();
+
+        int period = Arrays.asList(lines.get(0)).indexOf("period ms");
+        int execution = Arrays.asList(lines.get(0)).indexOf("execution ms");
+        assertEquals(4, lines.size());
+        assertEquals(0, Double.parseDouble(lines.get(1)[period]), 0); //no period before the first tick
+        assertEquals(12, Double.parseDouble(lines.get(3)[period]), 1e-9);
+        assertEquals(2, Double.parseDouble(lines.get(3)[execution]), 1e-9);
+    }
+}
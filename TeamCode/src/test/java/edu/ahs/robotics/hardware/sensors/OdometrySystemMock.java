@@ -1,5 +1,6 @@
 package edu.ahs.robotics.hardware.sensors;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import edu.ahs.robotics.control.Position;
@@ -15,6 +16,7 @@ public class OdometrySystemMock implements OdometrySystem {
     private boolean running;
     private int positionIndex; // a little bit sloppy but that's all cool. we gotta avoid them threads.
     private int velocityIndex; // this also allows you to not give a shit about velocity or position without exploding everything
+    private List<PoseListener> listeners = new ArrayList<>();
 
     public OdometrySystemMock(List<Position> positions, List<Velocity> velocities) {
         this.positions = positions;
@@ -26,9 +28,18 @@ public class OdometrySystemMock implements OdometrySystem {
         running = false;
     }
 
+    /**
+     * Each position handed out counts as an odometry tick, so listeners hear about it first.
+     */
     public Position getPosition() {
         Position position = positions.get(positionIndex);
         positionIndex ++;
+        if (!listeners.isEmpty()) {
+            State state = new State(position);
+            for (PoseListener listener : new ArrayList<>(listeners)) {
+                listener.onPoseUpdate(state);
+            }
+        }
         return position;
     }
 
@@ -43,6 +54,22 @@ public class OdometrySystemMock implements OdometrySystem {
         return new State(getPosition());
     }
 
+    @Override
+    public State getState(State reuse) {
+        reuse.position.copyFrom(getPosition());
+        return reuse;
+    }
+
+    @Override
+    public State getStateAt(long timeNanos) {
+        return getState(); //no history, the mock just hands out positions in order
+    }
+
+    @Override
+    public State getStateAt(long timeNanos, State reuse) {
+        return getState(reuse);
+    }
+
     @Override
     public void start() {
         running = true;
@@ -63,6 +90,20 @@ public class OdometrySystemMock implements OdometrySystem {
         //literally nobody cares about this method
     }
 
+    @Override
+    public void addPoseListener(PoseListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removePoseListener(PoseListener listener) {
+        listeners.remove(listener);
+    }
+
+    public int getPoseListenerCount() {
+        return listeners.size();
+    }
+
     @Override
     public Odometer getX1Odometer() {
         return null;
@@ -72,4 +113,9 @@ public class OdometrySystemMock implements OdometrySystem {
     public Odometer getX2Odometer() {
         return null;
     }
+
+    @Override
+    public void addTelemetry() {
+
+    }
 }
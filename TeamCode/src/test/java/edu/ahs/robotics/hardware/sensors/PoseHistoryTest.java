@@ -0,0 +1,46 @@
+package edu.ahs.robotics.hardware.sensors;
+
+import org.junit.Test;
+
+import edu.ahs.robotics.control.Position;
+import edu.ahs.robotics.control.Velocity;
+
+import static org.junit.Assert.*;
+
+public class PoseHistoryTest {
+
+    @Test
+    public void testEmpty() {
+        PoseHistory history = new PoseHistory(4);
+        assertFalse(history.lookup(0, new OdometrySystem.State()));
+    }
+
+    @Test
+    public void testWraparound() {
+        PoseHistory history = new PoseHistory(4);
+        Velocity zero = Velocity.makeVelocity(0, 0);
+
+        for (int i = 0; i < 10; i++) { //only 6 through 9 survive
+            history.record(i * 100, new Position(i, -i, i * .1), Velocity.makeVelocity(i, 0), zero, i, 0, 0, 0);
+        }
+        assertEquals(4, history.size());
+
+        OdometrySystem.State state = new OdometrySystem.State();
+
+        history.lookup(750, state);
+        assertEquals(7.5, state.position.x, 1e-9);
+        assertEquals(-7.5, state.position.y, 1e-9);
+        assertEquals(.75, state.position.heading, 1e-9);
+        assertEquals(7.5, state.velocity.dx, 1e-9);
+        assertEquals(7.5, state.angularVelocity, 1e-9);
+        assertEquals(750, state.timeNanos);
+
+        history.lookup(0, state); //older than anything kept
+        assertEquals(6, state.position.x, 1e-9);
+        assertEquals(600, state.timeNanos);
+
+        history.lookup(5000, state);
+        assertEquals(9, state.position.x, 1e-9);
+        assertEquals(900, state.timeNanos);
+    }
+}
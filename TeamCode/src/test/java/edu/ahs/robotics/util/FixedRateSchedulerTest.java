@@ -0,0 +1,101 @@
+package edu.ahs.robotics.util;
+
+import org.junit.Test;
+
+import edu.ahs.robotics.util.ftc.FixedRateScheduler;
+
+import static org.junit.Assert.*;
+
+public class FixedRateSchedulerTest {
+    private static final long MS = 1_000_000L;
+
+    @Test
+    public void testOnTimeTicks() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(100, FixedRateScheduler.OverrunPolicy.SKIP); //10 ms period
+
+        long now = 0;
+        for (int i = 0; i < 5; i++) {
+            scheduler.beginTick(now);
+            long wait = scheduler.endTick(now + 2 * MS);
+            assertEquals(8 * MS, wait);
+            now += 2 * MS + wait;
+        }
+
+        assertEquals(5, scheduler.getTickCount());
+        assertEquals(10 * MS, scheduler.getLastPeriodNanos());
+        assertEquals(10 * MS, scheduler.getAveragePeriodNanos(), 0.0);
+        assertEquals(0, scheduler.getMaxJitterNanos());
+        assertEquals(2 * MS, scheduler.getAverageExecutionNanos(), 0.0);
+        assertEquals(0, scheduler.getMissedDeadlines());
+    }
+
+    @Test
+    public void testDeadlinesDoNotDrift() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(100, FixedRateScheduler.OverrunPolicy.SKIP);
+
+        scheduler.beginTick(0);
+        scheduler.endTick(3 * MS);
+        scheduler.beginTick(11 * MS); //woke up a millisecond late
+        long wait = scheduler.endTick(14 * MS);
+
+        assertEquals(6 * MS, wait); //next deadline is still at 20 ms, not 21
+        assertEquals(1 * MS, scheduler.getMaxJitterNanos());
+    }
+
+    @Test
+    public void testSkipPolicy() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(100, FixedRateScheduler.OverrunPolicy.SKIP);
+
+        scheduler.beginTick(0);
+        long wait = scheduler.endTick(25 * MS); //missed the 10 and 20 ms deadlines
+
+        assertEquals(5 * MS, wait); //resumes on the 30 ms grid point
+        assertEquals(1, scheduler.getMissedDeadlines());
+        assertEquals(2, scheduler.getSkippedTicks());
+        assertEquals(25 * MS, scheduler.getMaxExecutionNanos());
+    }
+
+    @Test
+    public void testCatchUpPolicy() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(100, FixedRateScheduler.OverrunPolicy.CATCH_UP);
+
+        scheduler.beginTick(0);
+        assertEquals(0, scheduler.endTick(25 * MS)); //10 ms tick is overdue
+
+        scheduler.beginTick(25 * MS);
+        assertEquals(0, scheduler.endTick(26 * MS)); //20 ms tick is overdue too
+
+        scheduler.beginTick(26 * MS);
+        assertEquals(3 * MS, scheduler.endTick(27 * MS)); //caught up, 30 ms is in the future
+
+        assertEquals(2, scheduler.getMissedDeadlines());
+        assertEquals(0, scheduler.getSkippedTicks());
+    }
+
+    @Test
+    public void testEndTickAndWaitUsesGivenClock() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(100, FixedRateScheduler.OverrunPolicy.SKIP);
+
+        scheduler.beginTick(1000 * MS); //a clock nowhere near System.nanoTime()
+        scheduler.endTickAndWait(1025 * MS);
+
+        assertEquals(25 * MS, scheduler.getLastExecutionNanos());
+        assertEquals(1, scheduler.getMissedDeadlines());
+    }
+
+    @Test
+    public void testRateChange() {
+        FixedRateScheduler scheduler = new FixedRateScheduler(50, FixedRateScheduler.OverrunPolicy.SKIP);
+        assertEquals(20 * MS, scheduler.getPeriodNanos());
+
+        scheduler.beginTick(0);
+        scheduler.setRate(200);
+        assertEquals(4 * MS, scheduler.endTick(1 * MS));
+        assertEquals(200, scheduler.getRate(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRate() {
+        new FixedRateScheduler(0, FixedRateScheduler.OverrunPolicy.SKIP);
+    }
+}
@@ -0,0 +1,58 @@
+package edu.ahs.robotics.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import edu.ahs.robotics.control.Point;
+import edu.ahs.robotics.control.PointBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times GCodeParser against GCodeReader on a large csv, read from memory so only parsing is measured. Timings are printed.
+ * Not a unit test, see Benchmarks. GCodeParserTest checks it against GCodeReader.
+ */
+public class GCodeParserBenchmark {
+    private static final int PATHS = 20;
+    private static final int POINTS_PER_PATH = 10_000;
+    private static final int ROUNDS = 30; //first half is warmup
+
+    public void benchmarkParse() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int path = 0; path < PATHS; path++) {
+            builder.append("0;0;1\n");
+            for (int i = 0; i < POINTS_PER_PATH; i++) {
+                builder.append(String.format("%.4f;%.4f;0\n", i * .05, 24 * Math.sin(i * .001 + path)));
+            }
+        }
+        builder.append("0;0;1\n");
+        String csv = builder.toString();
+
+        long readerNanos = 0, parserNanos = 0;
+        GCodeParser parser = new GCodeParser();
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            List<List<Point>> read = GCodeReader.read(new BufferedReader(new StringReader(csv)));
+            long readerTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            List<PointBuffer> parsed = parser.parse(new StringReader(csv));
+            long parserTime = System.nanoTime() - start;
+
+            assertEquals(PATHS, read.size());
+            assertEquals(PATHS, parsed.size());
+            assertEquals(read.get(PATHS - 1).get(POINTS_PER_PATH - 1).x, parsed.get(PATHS - 1).getX(POINTS_PER_PATH - 1), 0);
+            if (round >= ROUNDS / 2) {
+                readerNanos += readerTime;
+                parserNanos += parserTime;
+            }
+        }
+
+        int measured = ROUNDS - ROUNDS / 2;
+        System.out.println("Parsing " + PATHS * POINTS_PER_PATH + " lines, " + csv.length() / 1024 + " KB");
+        System.out.println(String.format("GCodeReader: %8.2f ms", readerNanos / 1e6 / measured));
+        System.out.println(String.format("GCodeParser: %8.2f ms", parserNanos / 1e6 / measured));
+    }
+}
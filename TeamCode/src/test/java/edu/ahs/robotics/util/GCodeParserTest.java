@@ -0,0 +1,154 @@
+package edu.ahs.robotics.util;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+
+import edu.ahs.robotics.control.Point;
+import edu.ahs.robotics.control.PointBuffer;
+
+import static org.junit.Assert.*;
+
+public class GCodeParserTest {
+
+    private static List<PointBuffer> parse(String text) throws IOException {
+        return new GCodeParser(.5).parse(new StringReader(text));
+    }
+
+    @Test
+    public void testCsvMatchesGCodeReader() throws IOException {
+        Random random = new Random(1001);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            if (i % 700 == 0) {
+                csv.append("0;0;1.5\n");
+            }
+            double px = (random.nextDouble() - .5) * 200, py = (random.nextDouble() - .5) * 200;
+            switch (i % 4) {
+                case 0:
+                    csv.append(String.format("%.4f;%.4f;0\n", px, py));
+                    break;
+                case 1:
+                    csv.append(px).append(';').append(py).append(";0.0\r\n"); //full precision, windows line ending
+                    break;
+                case 2:
+                    csv.append(px * 1e-9).append(';').append(-py * 1e12).append(";-0\n"); //exponents
+                    break;
+                default:
+                    csv.append((int) px).append(";.").append((int) Math.abs(py)).append(";0;extra\n");
+                    break;
+            }
+        }
+        csv.append("0;0;1\n"); //GCodeReader only keeps paths that end
+
+        List<List<Point>> expected = GCodeReader.read(new BufferedReader(new StringReader(csv.toString())));
+        List<PointBuffer> actual = parse(csv.toString());
+
+        assertEquals(expected.size(), actual.size());
+        for (int path = 0; path < expected.size(); path++) {
+            assertEquals(expected.get(path), actual.get(path).toPoints());
+        }
+    }
+
+    @Test
+    public void testOpenPathAtEndIsKept() throws IOException {
+        List<PointBuffer> paths = parse("1;2;0\n3;4;0");
+
+        assertEquals(1, paths.size());
+        assertEquals(2, paths.get(0).size());
+    }
+
+    @Test
+    public void testLinesAndRapids() throws IOException {
+        String gCode = "%\n"
+                + "(square, then a rapid to a second line)\n"
+                + "G20 G90\n"
+                + "N10 G0 X0 Y0 Z0\n"
+                + "N20 G1 X10 F20\n"
+                + "Y10 ; modal G1\n"
+                + "X0\n"
+                + "G0 X50 Y50\n"
+                + "G1X60Y50\n"
+                + "M30\n";
+        List<PointBuffer> paths = parse(gCode);
+
+        assertEquals(2, paths.size());
+        PointBuffer square = paths.get(0);
+        assertEquals(4, square.size());
+        assertEquals(new Point(0, 0), square.toPoints().get(0));
+        assertEquals(new Point(10, 10), square.toPoints().get(2));
+        assertEquals(new Point(0, 10), square.toPoints().get(3));
+        assertEquals(new Point(60, 50), paths.get(1).toPoints().get(1));
+    }
+
+    @Test
+    public void testLiftingZEndsPath() throws IOException {
+        List<PointBuffer> paths = parse("G1 X0 Y0 Z0\nX5\nZ1\nX10\nZ0\nX20\n");
+
+        assertEquals(2, paths.size());
+        assertEquals(new Point(5, 0), paths.get(0).toPoints().get(1));
+        assertEquals(new Point(10, 0), paths.get(1).toPoints().get(0));
+        assertEquals(new Point(20, 0), paths.get(1).toPoints().get(1));
+    }
+
+    @Test
+    public void testMillimetersAndIncremental() throws IOException {
+        List<PointBuffer> paths = parse("G21 G91\nG1 X25.4 Y0\nX25.4 Y50.8\n");
+
+        List<Point> points = paths.get(0).toPoints();
+        assertEquals(3, points.size());
+        assertEquals(1, points.get(1).x, 1e-12);
+        assertEquals(2, points.get(2).x, 1e-12);
+        assertEquals(2, points.get(2).y, 1e-12);
+    }
+
+    @Test
+    public void testArcIsExpandedAtResolution() throws IOException {
+        //counterclockwise quarter circle of radius 10 around the origin
+        List<PointBuffer> paths = parse("G0 X10 Y0\nG3 X0 Y10 I-10 J0\n");
+
+        PointBuffer arc = paths.get(0);
+        assertTrue(arc.size() > 10 * Math.PI / 2 / .5);
+        assertEquals(0, arc.getX(arc.size() - 1), 0);
+        assertEquals(10, arc.getY(arc.size() - 1), 0);
+        for (int i = 0; i < arc.size(); i++) {
+            assertEquals(10, Math.hypot(arc.getX(i), arc.getY(i)), 1e-9);
+            assertTrue(arc.getX(i) >= -1e-9 && arc.getY(i) >= -1e-9);
+            if (i > 0) {
+                assertTrue(Math.hypot(arc.getX(i) - arc.getX(i - 1), arc.getY(i) - arc.getY(i - 1)) <= .5);
+            }
+        }
+    }
+
+    @Test
+    public void testClockwiseFullCircle() throws IOException {
+        List<PointBuffer> paths = parse("G0 X10 Y0\nG2 I-10\n");
+
+        PointBuffer circle = paths.get(0);
+        assertEquals(circle.getX(0), circle.getX(circle.size() - 1), 0);
+        assertEquals(circle.getY(0), circle.getY(circle.size() - 1), 0);
+        assertTrue(circle.getY(1) < 0); //clockwise goes down from (10, 0) first
+        assertTrue(circle.size() > 2 * Math.PI * 10 / .5);
+    }
+
+    @Test
+    public void testErrorsReportLineAndColumn() throws IOException {
+        try {
+            parse("1;2;0\n3;x;0\n");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2, column 3"));
+        }
+
+        try {
+            parse("G0 X0 Y0\n\nG2 X1 Y1\n");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("Line 3"));
+        }
+    }
+}
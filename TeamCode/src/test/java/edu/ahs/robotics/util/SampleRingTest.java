@@ -0,0 +1,85 @@
+package edu.ahs.robotics.util;
+
+import org.junit.Test;
+
+import edu.ahs.robotics.util.ftc.SampleRing;
+
+import static org.junit.Assert.*;
+
+public class SampleRingTest {
+
+    @Test
+    public void testFifo() {
+        SampleRing ring = new SampleRing(4, 2);
+        double[] out = new double[2];
+
+        assertFalse(ring.poll(out));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(ring.tryClaim());
+            ring.put(0, i);
+            ring.put(1, -i);
+            ring.publish();
+        }
+        assertEquals(3, ring.size());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(ring.poll(out));
+            assertEquals(i, out[0], 0.0);
+            assertEquals(-i, out[1], 0.0);
+        }
+        assertFalse(ring.poll(out));
+    }
+
+    @Test
+    public void testDropsWhenFull() {
+        SampleRing ring = new SampleRing(3, 1); //rounds up to 4
+        assertEquals(4, ring.getCapacity());
+
+        for (int i = 0; i < 6; i++) {
+            if (ring.tryClaim()) {
+                ring.put(0, i);
+                ring.publish();
+            }
+        }
+        assertEquals(2, ring.getDropped());
+
+        double[] out = new double[1];
+        ring.poll(out);
+        assertEquals(0, out[0], 0.0); //oldest samples are kept, newest dropped
+    }
+
+    @Test
+    public void testConcurrentHandOff() throws InterruptedException {
+        final SampleRing ring = new SampleRing(64, 2);
+        final int count = 20_000;
+
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    while (!ring.tryClaim()) {
+                        Thread.yield();
+                    }
+                    ring.put(0, i);
+                    ring.put(1, i * 2);
+                    ring.publish();
+                }
+            }
+        };
+        producer.start();
+
+        double[] out = new double[2];
+        int expected = 0;
+        while (expected < count) {
+            if (ring.poll(out)) {
+                assertEquals(expected, out[0], 0.0);
+                assertEquals(expected * 2, out[1], 0.0); //never half written
+                expected++;
+            } else {
+                Thread.yield(); //let the producer run on a single core
+            }
+        }
+        producer.join();
+    }
+}
@@ -0,0 +1,52 @@
+package edu.ahs.robotics.util.loggers;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.ahs.robotics.util.ftc.FTCUtilities;
+
+import static org.junit.Assert.*;
+
+public class DataLoggerTest {
+
+    @Test
+    public void testColumnsStayAlignedAroundSummaryLines() throws IOException {
+        FTCUtilities.startTestMode();
+        DataLogger logger = new DataLogger("dataLoggerTest", "dataLoggerTest");
+        logger.startWriting();
+        logger.addCategory("summary");
+        for (int line = 0; line < 2; line++) {
+            logger.append("x", "x" + line);
+            logger.append("y", "y" + line);
+            logger.writeLine(0);
+        }
+        logger.append("summary", "done");
+        logger.writeLine(0);
+        logger.append("x", "x2");
+        logger.append("y", "y2");
+        logger.writeLine(0);
+        logger.stopWriting();
+
+        File file = new File(FTCUtilities.getLogDirectory(), logger.getOutputFile());
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line.substring(line.indexOf(", ") + 2)); //drops the time
+            }
+        }
+        file.delete();
+
+        assertEquals("summary, x, y", lines.get(0));
+        assertEquals(" , x0, y0", lines.get(1));
+        assertEquals(" , x1, y1", lines.get(2));
+        assertEquals("done,  ,  ", lines.get(3));
+        assertEquals(" , x2, y2", lines.get(4));
+    }
+}